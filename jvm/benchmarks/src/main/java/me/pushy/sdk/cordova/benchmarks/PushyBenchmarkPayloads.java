@@ -0,0 +1,44 @@
+package me.pushy.sdk.cordova.benchmarks;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Representative push payloads shared by the benchmarks.
+ */
+public class PushyBenchmarkPayloads {
+    public static JSONObject create(long messageId, int size) {
+        try {
+            // Typical fields of a push sent through the Pushy API
+            JSONObject payload = new JSONObject();
+            payload.put("messageId", "m" + messageId);
+            payload.put("title", "Order update");
+            payload.put("message", "Your order #" + messageId + " has shipped");
+            payload.put("topic", "orders");
+            payload.put("priority", "normal");
+            payload.put("sentAt", 1700000000000L + messageId);
+            payload.put("badge", 3);
+            payload.put("silent", false);
+
+            // Nested app data, padded to roughly the requested size
+            JSONObject data = new JSONObject();
+            data.put("orderId", messageId);
+            data.put("carrier", "UPS");
+            data.put("eta", 2.5);
+
+            JSONArray items = new JSONArray();
+
+            for (int i = 0; payload.toString().length() + data.toString().length() < size; i++) {
+                items.put(new JSONObject().put("sku", "SKU-" + i).put("quantity", i % 4 + 1).put("name", "Item number " + i));
+                data.put("items", items);
+            }
+
+            payload.put("data", data);
+            return payload;
+        }
+        catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package me.pushy.sdk.cordova.benchmarks;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import me.pushy.sdk.cordova.internal.util.PushyMessageDeduplicator;
+import me.pushy.sdk.cordova.internal.util.PushyPersistence;
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+/**
+ * Duplicate message check on the receive path: a new message (ring slot write) and a message
+ * seen moments ago through the other transport (index hit).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushyDeduplicationBenchmark {
+    private JvmContext mContext;
+    private JSONObject mSeen;
+    private long mNextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Ten minute window, like a typical app
+        mContext = JvmContext.createTemporary();
+        PushyPersistence.setDeduplicationWindow(10 * 60 * 1000, mContext);
+
+        // Message already handled once
+        mSeen = PushyBenchmarkPayloads.create(0, 512);
+        PushyMessageDeduplicator.isDuplicate("plugin", mSeen, mContext);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mContext.delete();
+    }
+
+    @Benchmark
+    public boolean newMessage() throws Exception {
+        // Unique message ID every time
+        return PushyMessageDeduplicator.isDuplicate("plugin", new JSONObject().put("messageId", "n" + mNextId++), mContext);
+    }
+
+    @Benchmark
+    public boolean duplicateMessage() {
+        return PushyMessageDeduplicator.isDuplicate("plugin", mSeen, mContext);
+    }
+}
@@ -0,0 +1,98 @@
+package me.pushy.sdk.cordova.benchmarks;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import me.pushy.sdk.cordova.internal.PushyPlugin;
+import me.pushy.sdk.cordova.internal.util.PushyPersistence;
+import me.pushy.sdk.cordova.jvm.JvmContext;
+import me.pushy.sdk.cordova.jvm.JvmCordova;
+
+/**
+ * Receive-to-dispatch path of PushyPlugin.onNotificationReceived(): live delivery through the
+ * event channel while a listener is attached, and storage while the app is in the background.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushyDispatchBenchmark {
+    @Param({"live", "stored"})
+    public String mode;
+
+    private JvmContext mContext;
+    private JvmCordova mCordova;
+    private PushyPlugin mPlugin;
+    private JSONObject mNotification;
+
+    // Bridge messages handed to the (discarded) JS side
+    private final AtomicLong mBridgeMessages = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        mContext = JvmContext.createTemporary();
+        mCordova = new JvmCordova(mContext);
+
+        // Keep the stored backlog bounded while measuring, duplicate checks have their own benchmark
+        PushyPersistence.setPendingNotificationLimits(1000, 0, 0, mContext);
+        PushyPersistence.setDeduplicationWindow(0, mContext);
+        mNotification = PushyBenchmarkPayloads.create(1, 512);
+
+        // Start the plugin like Cordova does and open the event channel
+        mPlugin = new PushyPlugin();
+        mPlugin.initialize(mCordova, null);
+        mPlugin.execute("openEventChannel", new JSONArray(), new CallbackContext("events") {
+            @Override
+            public void sendPluginResult(PluginResult pluginResult) {
+                // Don't keep results around, just count them
+                mBridgeMessages.incrementAndGet();
+            }
+        });
+
+        if (mode.equals("live")) {
+            // Attach the JS listener
+            mPlugin.execute("setNotificationListener", new JSONArray(), new CallbackContext("listener"));
+        }
+        else {
+            // App in the background
+            mPlugin.onStop();
+        }
+
+        mCordova.awaitIdle(10, TimeUnit.SECONDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mPlugin.onDestroy();
+        mCordova.shutdown();
+        mContext.delete();
+    }
+
+    @Benchmark
+    public long receive() {
+        PushyPlugin.onNotificationReceived(mNotification, mContext);
+
+        return mBridgeMessages.get();
+    }
+}
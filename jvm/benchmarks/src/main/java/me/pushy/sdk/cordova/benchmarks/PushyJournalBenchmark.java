@@ -0,0 +1,100 @@
+package me.pushy.sdk.cordova.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import me.pushy.sdk.cordova.internal.util.PushyNotificationJournal;
+import me.pushy.sdk.cordova.internal.util.PushyNotificationStore;
+import me.pushy.sdk.cordova.internal.util.PushyPayloadCodecs;
+
+/**
+ * Pending notification journal: append, page reads and the append/acknowledge steady state
+ * (tombstones plus periodic compaction).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushyJournalBenchmark {
+    // Backlog kept in the journal while measuring reads and acknowledgements
+    private static final int BACKLOG = 500;
+
+    @Param({"512", "4096"})
+    public int payloadSize;
+
+    private File mDir;
+    private PushyNotificationJournal mJournal;
+    private byte[] mPayload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Fresh journal with a steady backlog
+        mDir = Files.createTempDirectory("pushy-journal-bench").toFile();
+        mJournal = new PushyNotificationJournal(new File(mDir, "journal"));
+        mPayload = PushyPayloadCodecs.encode(PushyBenchmarkPayloads.create(1, payloadSize));
+
+        for (int i = 0; i < BACKLOG; i++) {
+            mJournal.append(mPayload, System.currentTimeMillis(), 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        mJournal.close();
+
+        for (File file : mDir.listFiles()) {
+            file.delete();
+        }
+
+        mDir.delete();
+    }
+
+    @Benchmark
+    public long appendAndAcknowledge() throws IOException {
+        // One notification stored while the app is closed, then delivered and acknowledged
+        long id = mJournal.append(mPayload, System.currentTimeMillis(), 0);
+        mJournal.remove(Collections.singletonList(id));
+
+        return id;
+    }
+
+    @Benchmark
+    public void readPage(Blackhole blackhole) throws IOException {
+        // First backlog page delivered on app start, payloads included
+        List<? extends PushyNotificationStore.Entry> page = mJournal.getEntries(0, -1, 50);
+
+        for (PushyNotificationStore.Entry entry : page) {
+            blackhole.consume(mJournal.read(entry));
+        }
+    }
+
+    @Benchmark
+    public PushyNotificationJournal reopen() throws IOException {
+        // Cold start: scan the whole backlog and rebuild the index
+        mJournal.close();
+        mJournal = new PushyNotificationJournal(new File(mDir, "journal"));
+
+        return mJournal;
+    }
+}
@@ -0,0 +1,64 @@
+package me.pushy.sdk.cordova.benchmarks;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import me.pushy.sdk.cordova.internal.util.PushyPayloadCodec;
+import me.pushy.sdk.cordova.internal.util.PushyPayloadCodecs;
+
+/**
+ * Encoding and decoding of stored and click payloads, binary codec against plain JSON text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PushyPayloadCodecBenchmark {
+    @Param({"binary", "json"})
+    public String codec;
+
+    @Param({"512", "4096", "32768"})
+    public int payloadSize;
+
+    private PushyPayloadCodec mCodec;
+    private JSONObject mPayload;
+    private byte[] mEncoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mCodec = codec.equals("json") ? PushyPayloadCodecs.JSON : PushyPayloadCodecs.BINARY;
+
+        // Encode once for the decode benchmark
+        mPayload = PushyBenchmarkPayloads.create(1, payloadSize);
+        mEncoded = mCodec.encode(mPayload);
+
+        // Stored size, to weigh against the timings
+        System.out.println(codec + " encoding of a " + payloadSize + " character payload: " + mEncoded.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mCodec.encode(mPayload);
+    }
+
+    @Benchmark
+    public JSONObject decode() throws IOException {
+        return mCodec.decode(mEncoded);
+    }
+}
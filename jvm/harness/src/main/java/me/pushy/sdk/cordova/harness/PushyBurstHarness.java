@@ -0,0 +1,684 @@
+package me.pushy.sdk.cordova.harness;
+
+import android.app.Activity;
+import android.app.Notification;
+import android.content.BroadcastReceiver;
+import android.content.Intent;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import me.pushy.sdk.PushReceiver;
+import me.pushy.sdk.cordova.internal.PushyPlugin;
+import me.pushy.sdk.cordova.internal.receivers.PushyPushReceiver;
+import me.pushy.sdk.cordova.internal.util.PushyPersistence;
+import me.pushy.sdk.cordova.jvm.JvmContext;
+import me.pushy.sdk.cordova.jvm.JvmCordova;
+import me.pushy.sdk.cordova.jvm.JvmSharedPreferences;
+
+/**
+ * Burst/soak harness for the receive-to-JS path.
+ *
+ * Pushes are sent in bursts through PushyPushReceiver (and the sample PushReceiver) from a single
+ * "main" thread, which also toggles the app's lifecycle in between like Android would: background
+ * and foreground, WebView reloads and activity recreation. A stand-in for Pushy.js records every
+ * notification handed to JS and acknowledges stored ones. Every push carries a sequence number,
+ * so the result is checked against the ledger of what was sent:
+ *
+ * - lost: never handed to JS
+ * - duplicated: handed to the same JS context twice, or again after it was delivered for good (live,
+ *   or acknowledged before the JS context it shows up in was created)
+ * - reordered: handed to a JS context after a later push, or seen for the first time after a later push
+ * - redelivered: stored notification handed to the next JS context because the previous one went away
+ *   before acknowledging it (expected, at-least-once)
+ *
+ * Runs offline; the exit status is 1 if anything was lost, duplicated or reordered.
+ */
+public class PushyBurstHarness {
+    public static class Options {
+        // Number of bursts and pushes per burst
+        public int bursts = 20;
+        public int burstSize = 500;
+
+        // Pause between bursts
+        public long burstGapMs = 20;
+
+        // Average number of pushes between lifecycle changes (0 keeps the app in the foreground)
+        public int lifecycleEvery = 150;
+
+        // Size of each push's message
+        public int payloadBytes = 256;
+
+        // Pending notification store (null for the plugin's default)
+        public String storageBackend;
+
+        // Also show every push through the sample PushReceiver
+        public boolean display = true;
+
+        // How long to wait for the last notifications to reach JS
+        public long settleMs = 10000;
+
+        // Random seed for lifecycle changes
+        public long seed = 1;
+
+        // Write the report as JSON to this file
+        public String report;
+
+        public static Options parse(String[] args) {
+            Options options = new Options();
+
+            // Arguments look like name=value
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Expected name=value: " + arg);
+                }
+
+                String name = arg.substring(0, separator);
+                String value = arg.substring(separator + 1);
+
+                if (name.equals("bursts")) {
+                    options.bursts = Integer.parseInt(value);
+                }
+                else if (name.equals("burstSize")) {
+                    options.burstSize = Integer.parseInt(value);
+                }
+                else if (name.equals("burstGapMs")) {
+                    options.burstGapMs = Long.parseLong(value);
+                }
+                else if (name.equals("lifecycleEvery")) {
+                    options.lifecycleEvery = Integer.parseInt(value);
+                }
+                else if (name.equals("payloadBytes")) {
+                    options.payloadBytes = Integer.parseInt(value);
+                }
+                else if (name.equals("storageBackend")) {
+                    options.storageBackend = value;
+                }
+                else if (name.equals("display")) {
+                    options.display = Boolean.parseBoolean(value);
+                }
+                else if (name.equals("settleMs")) {
+                    options.settleMs = Long.parseLong(value);
+                }
+                else if (name.equals("seed")) {
+                    options.seed = Long.parseLong(value);
+                }
+                else if (name.equals("report")) {
+                    options.report = value;
+                }
+                else {
+                    throw new IllegalArgumentException("Unknown option: " + name);
+                }
+            }
+
+            return options;
+        }
+    }
+
+    public static class Report {
+        public String storageBackend;
+        public int sent;
+        public int delivered;
+        public int lost;
+        public int duplicated;
+        public int reordered;
+        public int redelivered;
+        public int displayed;
+        public double throughput;
+        public double p50LatencyMs;
+        public double p99LatencyMs;
+        public long peakHeapBytes;
+        public long preferenceBytesWritten;
+        public long fileBytesWritten;
+        public int backgrounds;
+        public int reloads;
+        public int recreations;
+        public boolean displayChecked;
+
+        public boolean passed() {
+            // Every push handed to JS once and in order (and shown, if checked)
+            return lost == 0 && duplicated == 0 && reordered == 0 && (!displayChecked || displayed == sent);
+        }
+
+        public JSONObject toJSON() throws JSONException {
+            return new JSONObject()
+                    .put("storageBackend", storageBackend)
+                    .put("sent", sent)
+                    .put("delivered", delivered)
+                    .put("lost", lost)
+                    .put("duplicated", duplicated)
+                    .put("reordered", reordered)
+                    .put("redelivered", redelivered)
+                    .put("displayed", displayChecked ? displayed : -1)
+                    .put("throughput", throughput)
+                    .put("p50LatencyMs", p50LatencyMs)
+                    .put("p99LatencyMs", p99LatencyMs)
+                    .put("peakHeapBytes", peakHeapBytes)
+                    .put("preferenceBytesWritten", preferenceBytesWritten)
+                    .put("fileBytesWritten", fileBytesWritten)
+                    .put("backgrounds", backgrounds)
+                    .put("reloads", reloads)
+                    .put("recreations", recreations)
+                    .put("passed", passed());
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+
+            report.append(String.format("  storage       %s%n", storageBackend));
+            report.append(String.format("  sent          %d%n", sent));
+            report.append(String.format("  delivered     %d (lost %d, duplicated %d, reordered %d, redelivered %d)%n", delivered, lost, duplicated, reordered, redelivered));
+
+            if (displayChecked) {
+                report.append(String.format("  displayed     %d (missing %d)%n", displayed, sent - displayed));
+            }
+
+            report.append(String.format("  throughput    %.0f notifications/s%n", throughput));
+            report.append(String.format("  latency       p50 %.2f ms, p99 %.2f ms%n", p50LatencyMs, p99LatencyMs));
+            report.append(String.format("  peak heap     %.1f MB%n", peakHeapBytes / (1024.0 * 1024.0)));
+            report.append(String.format("  written       %d bytes (preferences %d, files %s)%n", preferenceBytesWritten + Math.max(fileBytesWritten, 0), preferenceBytesWritten, fileBytesWritten >= 0 ? String.valueOf(fileBytesWritten) : "n/a"));
+            report.append(String.format("  lifecycle     %d backgrounds, %d reloads, %d recreations%n", backgrounds, reloads, recreations));
+            report.append(String.format("  result        %s%n", passed() ? "PASS" : "FAIL"));
+
+            return report.toString();
+        }
+    }
+
+    // What JS has been handed so far, by sequence number
+    private static class Ledger {
+        private final long[] mSentAt;
+        private final long[] mLatency;
+        private final int[] mDeliveries;
+        private final boolean[] mLive;
+        private final int[] mAcknowledgedIn;
+        private int mGeneration;
+        private int mDelivered;
+        private int mDuplicated;
+        private int mReordered;
+        private int mRedelivered;
+        private int mLastFirstSeen = -1;
+        private long mLastDeliveryAt;
+
+        Ledger(int size) {
+            mSentAt = new long[size];
+            mLatency = new long[size];
+            mDeliveries = new int[size];
+            mLive = new boolean[size];
+            mAcknowledgedIn = new int[size];
+            Arrays.fill(mAcknowledgedIn, -1);
+        }
+
+        synchronized int nextGeneration() {
+            // JS contexts are numbered in creation order
+            return mGeneration++;
+        }
+
+        void sent(int seq) {
+            mSentAt[seq] = System.nanoTime();
+        }
+
+        synchronized void delivered(JsContext context, int seq, boolean stored) {
+            long now = System.nanoTime();
+
+            // Within a JS context, notifications must arrive in the order they were sent
+            if (seq <= context.mLastSeq) {
+                mReordered++;
+            }
+
+            context.mLastSeq = Math.max(context.mLastSeq, seq);
+
+            // Seen before?
+            if (mDeliveries[seq]++ > 0) {
+                // Only stored notifications not yet acknowledged when this JS context was created may come again
+                if (mLive[seq] || context.mSeen.contains(seq) || (mAcknowledgedIn[seq] >= 0 && mAcknowledgedIn[seq] < context.mGeneration)) {
+                    mDuplicated++;
+                }
+                else {
+                    mRedelivered++;
+                }
+            }
+            else {
+                // First deliveries must follow the send order across JS contexts as well
+                if (seq < mLastFirstSeen) {
+                    mReordered++;
+                }
+
+                mLastFirstSeen = Math.max(mLastFirstSeen, seq);
+                mLatency[mDelivered++] = now - mSentAt[seq];
+                mLastDeliveryAt = now;
+            }
+
+            // Live and buffered notifications are never handed out again
+            if (!stored) {
+                mLive[seq] = true;
+            }
+
+            context.mSeen.add(seq);
+        }
+
+        synchronized void acknowledged(List<Integer> sequence) {
+            // Removed from storage, JS contexts created from now on must not get them
+            for (int seq : sequence) {
+                mAcknowledgedIn[seq] = mGeneration - 1;
+            }
+        }
+
+        synchronized int getDelivered() {
+            return mDelivered;
+        }
+    }
+
+    // Stand-in for one Pushy.js instance (a WebView page load)
+    private static class JsContext extends CallbackContext {
+        private final PushyPlugin mPlugin;
+        private final Ledger mLedger;
+        private final Set<Integer> mSeen = new HashSet<>();
+        private final int mGeneration;
+        private int mLastSeq = -1;
+
+        JsContext(PushyPlugin plugin, Ledger ledger) {
+            super("events");
+            mPlugin = plugin;
+            mLedger = ledger;
+            mGeneration = ledger.nextGeneration();
+        }
+
+        @Override
+        public void sendPluginResult(PluginResult pluginResult) {
+            // Dispatch right away instead of recording the result (the channel stays open for the whole run)
+            try {
+                JSONArray events = new JSONArray(pluginResult.getMessage());
+
+                for (int i = 0; i < events.length(); i++) {
+                    JSONObject event = events.getJSONObject(i);
+
+                    if (event.getString("type").equals("received")) {
+                        mLedger.delivered(this, getSeq(event.getJSONObject("data")), false);
+                    }
+                    else if (event.getString("type").equals("backlog")) {
+                        dispatchBacklog(event.getJSONArray("data"));
+                    }
+                }
+            }
+            catch (JSONException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void dispatchBacklog(JSONArray batch) throws JSONException {
+            JSONArray ids = new JSONArray();
+            Integer[] sequence = new Integer[batch.length()];
+            int stored = 0;
+
+            // Hand each notification to JS, then acknowledge the stored ones like Pushy.js
+            for (int i = 0; i < batch.length(); i++) {
+                JSONObject item = batch.getJSONObject(i);
+                int seq = getSeq(item.getJSONObject("notification"));
+
+                mLedger.delivered(this, seq, item.has("id"));
+
+                if (item.has("id")) {
+                    ids.put(item.getLong("id"));
+                    sequence[stored++] = seq;
+                }
+            }
+
+            if (ids.length() > 0) {
+                final List<Integer> acknowledged = Arrays.asList(sequence).subList(0, stored);
+
+                mPlugin.execute("acknowledgeNotifications", new JSONArray().put(ids), new CallbackContext("acknowledgeNotifications") {
+                    @Override
+                    protected void onResult(PluginResult pluginResult) {
+                        // Removed from storage once resolved
+                        if (pluginResult.getStatus() == PluginResult.Status.OK.ordinal()) {
+                            mLedger.acknowledged(acknowledged);
+                        }
+                    }
+                });
+            }
+        }
+
+        private static int getSeq(JSONObject notification) throws JSONException {
+            return Integer.parseInt(notification.getString("seq"));
+        }
+    }
+
+    // One activity instance with the plugin and its current JS context
+    private static class App {
+        private final JvmContext mContext;
+        private final Ledger mLedger;
+        private final JvmCordova mCordova;
+        private final PushyPlugin mPlugin;
+        private JsContext mJs;
+
+        App(JvmContext context, Ledger ledger) throws JSONException {
+            mContext = context;
+            mLedger = ledger;
+            mCordova = new JvmCordova(context);
+
+            // Created and brought to the foreground like Cordova does
+            mPlugin = new PushyPlugin();
+            mPlugin.initialize(mCordova, null);
+            mPlugin.onStart();
+            mPlugin.onResume(false);
+            load();
+        }
+
+        void load() throws JSONException {
+            // Pushy.setNotificationListener() on page load
+            mJs = new JsContext(mPlugin, mLedger);
+            mPlugin.execute("openEventChannel", new JSONArray(), mJs);
+            mPlugin.execute("setNotificationListener", new JSONArray(), new CallbackContext("setNotificationListener"));
+        }
+
+        void reload() throws JSONException {
+            // Old page and its callbacks are gone
+            mPlugin.onReset();
+            load();
+        }
+
+        void background() {
+            mPlugin.onPause(false);
+            mPlugin.onStop();
+        }
+
+        void foreground() {
+            mPlugin.onStart();
+            mPlugin.onResume(false);
+        }
+
+        void destroy() {
+            // Activity finishing for good
+            Activity activity = mCordova.getActivity();
+            activity.finish();
+            mPlugin.onPause(false);
+            mPlugin.onStop();
+            mPlugin.onDestroy();
+            activity.onDestroyed();
+        }
+
+        void shutdown() throws InterruptedException {
+            // Kept until the end of the run, calls still in flight from a destroyed activity's page run like on a device
+            mCordova.awaitIdle(10, TimeUnit.SECONDS);
+            mCordova.shutdown();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Expected warnings (e.g. undelivered events stored on reload) would drown the report
+        if (System.getProperty("pushy.log.quiet") == null) {
+            System.setProperty("pushy.log.quiet", "true");
+        }
+
+        Options options = Options.parse(args);
+        System.out.printf("Pushy burst harness: %d bursts x %d pushes, seed %d%n", options.bursts, options.burstSize, options.seed);
+
+        Report report = run(options);
+        System.out.print(report);
+
+        // Machine-readable copy for CI
+        if (options.report != null) {
+            Writer writer = new OutputStreamWriter(new FileOutputStream(options.report), StandardCharsets.UTF_8);
+
+            try {
+                writer.write(report.toJSON().toString(2));
+            }
+            finally {
+                writer.close();
+            }
+        }
+
+        System.exit(report.passed() ? 0 : 1);
+    }
+
+    public static Report run(Options options) throws Exception {
+        JvmContext context = new JvmContext(Files.createTempDirectory("pushy-harness").toFile());
+
+        try {
+            return run(options, context);
+        }
+        finally {
+            context.delete();
+        }
+    }
+
+    private static Report run(Options options, JvmContext context) throws Exception {
+        int total = options.bursts * options.burstSize;
+        Ledger ledger = new Ledger(total);
+        Report report = new Report();
+        Random random = new Random(options.seed);
+
+        // Every push shown right away, no coalescing to wait for
+        PushyPersistence.setNotificationCoalescingWindow(0, context);
+
+        if (options.storageBackend != null) {
+            PushyPersistence.setStorageBackend(options.storageBackend, context);
+        }
+
+        report.storageBackend = PushyPersistence.getStorageBackend(context);
+
+        char[] filler = new char[options.payloadBytes];
+        Arrays.fill(filler, 'x');
+        String message = new String(filler);
+
+        // Track heap usage while running
+        HeapSampler heap = new HeapSampler();
+        heap.start();
+
+        long preferencesBefore = JvmSharedPreferences.getBytesWritten();
+        long filesBefore = getFileBytesWritten();
+        long start = System.nanoTime();
+
+        App app = new App(context, ledger);
+        List<App> apps = new ArrayList<>();
+        apps.add(app);
+        boolean backgrounded = false;
+        int seq = 0;
+
+        // This thread plays Android's main thread: broadcasts and lifecycle callbacks never overlap
+        for (int burst = 0; burst < options.bursts; burst++) {
+            for (int i = 0; i < options.burstSize; i++, seq++) {
+                // Time for a lifecycle change?
+                if (options.lifecycleEvery > 0 && random.nextInt(options.lifecycleEvery) == 0) {
+                    if (backgrounded) {
+                        app.foreground();
+                        backgrounded = false;
+                    }
+                    else {
+                        switch (random.nextInt(3)) {
+                            case 0:
+                                app.background();
+                                backgrounded = true;
+                                report.backgrounds++;
+                                break;
+                            case 1:
+                                app.reload();
+                                report.reloads++;
+                                break;
+                            default:
+                                app.destroy();
+                                app = new App(context, ledger);
+                                apps.add(app);
+                                report.recreations++;
+                                break;
+                        }
+                    }
+                }
+
+                // Both receivers get the same broadcast
+                Intent intent = new Intent("pushy.me")
+                        .putExtra("messageId", "harness-" + seq)
+                        .putExtra("seq", String.valueOf(seq))
+                        .putExtra("title", "Harness")
+                        .putExtra("message", message);
+
+                ledger.sent(seq);
+                new PushyPushReceiver().onReceive(context, intent);
+
+                if (options.display) {
+                    new PushReceiver().onReceive(context, intent);
+                }
+            }
+
+            Thread.sleep(options.burstGapMs);
+        }
+
+        // Back in the foreground for the rest of the backlog
+        if (backgrounded) {
+            app.foreground();
+        }
+
+        awaitSettled(ledger, total, options.settleMs);
+        app.destroy();
+        heap.stop();
+
+        for (App created : apps) {
+            created.shutdown();
+        }
+
+        // Compare against the ledger
+        report.sent = total;
+        report.delivered = ledger.getDelivered();
+        report.lost = total - report.delivered;
+        report.duplicated = ledger.mDuplicated;
+        report.reordered = ledger.mReordered;
+        report.redelivered = ledger.mRedelivered;
+        report.throughput = report.delivered / Math.max((ledger.mLastDeliveryAt - start) / 1e9, 1e-9);
+        report.peakHeapBytes = heap.getPeak();
+        report.preferenceBytesWritten = JvmSharedPreferences.getBytesWritten() - preferencesBefore;
+        report.fileBytesWritten = filesBefore >= 0 ? getFileBytesWritten() - filesBefore : -1;
+
+        long[] latency = Arrays.copyOf(ledger.mLatency, report.delivered);
+        Arrays.sort(latency);
+        report.p50LatencyMs = getPercentile(latency, 0.50) / 1e6;
+        report.p99LatencyMs = getPercentile(latency, 0.99) / 1e6;
+
+        if (options.display) {
+            report.displayChecked = true;
+            report.displayed = getDisplayed(context);
+        }
+
+        return report;
+    }
+
+    private static void awaitSettled(Ledger ledger, int total, long settleMs) throws InterruptedException {
+        int delivered = -1;
+        long lastProgress = System.currentTimeMillis();
+
+        // Wait for everything, or until nothing has moved for a while
+        while (ledger.getDelivered() < total || BroadcastReceiver.getUnfinishedCount() > 0) {
+            if (ledger.getDelivered() != delivered) {
+                delivered = ledger.getDelivered();
+                lastProgress = System.currentTimeMillis();
+            }
+            else if (System.currentTimeMillis() - lastProgress > settleMs) {
+                return;
+            }
+
+            Thread.sleep(10);
+        }
+    }
+
+    private static int getDisplayed(JvmContext context) {
+        int displayed = 0;
+
+        // Individual notifications only, not the group summaries
+        for (Notification notification : context.getNotificationManager().getPostedNotifications()) {
+            if ((notification.flags & Notification.FLAG_GROUP_SUMMARY) == 0) {
+                displayed++;
+            }
+        }
+
+        return displayed;
+    }
+
+    private static long getPercentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static long getFileBytesWritten() {
+        // Bytes written by this process (Linux only), covers the journal and SQLite files
+        try {
+            for (String line : Files.readAllLines(new File("/proc/self/io").toPath(), StandardCharsets.UTF_8)) {
+                if (line.startsWith("wchar:")) {
+                    return Long.parseLong(line.substring("wchar:".length()).trim());
+                }
+            }
+        }
+        catch (IOException e) {
+            // Not available on this platform
+        }
+
+        return -1;
+    }
+
+    private static class HeapSampler implements Runnable {
+        private final MemoryMXBean mMemory = ManagementFactory.getMemoryMXBean();
+        private final AtomicLong mPeak = new AtomicLong();
+        private final AtomicBoolean mStopped = new AtomicBoolean();
+        private Thread mThread;
+
+        void start() {
+            mThread = new Thread(this, "HeapSampler");
+            mThread.setDaemon(true);
+            mThread.start();
+        }
+
+        void stop() throws InterruptedException {
+            mStopped.set(true);
+            mThread.join();
+        }
+
+        long getPeak() {
+            return mPeak.get();
+        }
+
+        @Override
+        public void run() {
+            // Sample used heap every few milliseconds
+            while (!mStopped.get()) {
+                long used = mMemory.getHeapMemoryUsage().getUsed();
+
+                if (used > mPeak.get()) {
+                    mPeak.set(used);
+                }
+
+                try {
+                    Thread.sleep(5);
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
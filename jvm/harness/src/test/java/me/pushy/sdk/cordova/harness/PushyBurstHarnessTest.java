@@ -0,0 +1,26 @@
+package me.pushy.sdk.cordova.harness;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PushyBurstHarnessTest {
+    @Test
+    public void burstsWithLifecycleChangesLoseAndReorderNothing() throws Exception {
+        PushyBurstHarness.Options options = PushyBurstHarness.Options.parse(new String[]{
+                "bursts=5", "burstSize=200", "lifecycleEvery=50", "seed=1"
+        });
+
+        PushyBurstHarness.Report report = PushyBurstHarness.run(options);
+
+        // Every push handed to JS and shown exactly once, in order
+        assertEquals(1000, report.sent);
+        assertEquals(report.sent, report.delivered);
+        assertEquals(0, report.lost);
+        assertEquals(0, report.duplicated);
+        assertEquals(0, report.reordered);
+        assertEquals(report.sent, report.displayed);
+        assertTrue(report.passed());
+    }
+}
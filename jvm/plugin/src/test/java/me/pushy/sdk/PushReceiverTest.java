@@ -0,0 +1,190 @@
+package me.pushy.sdk;
+
+import android.app.Notification;
+import android.content.BroadcastReceiver;
+import android.content.Intent;
+import android.content.SharedPreferences;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import me.pushy.sdk.cordova.internal.config.PushyIntentExtras;
+import me.pushy.sdk.cordova.internal.util.PushyPayload;
+import me.pushy.sdk.cordova.internal.util.PushyPersistence;
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PushReceiverTest {
+    // Coalescing window used by the burst tests
+    private static final long WINDOW = 300;
+
+    // PushReceiver keeps its coalescing state in statics, so the whole class shares one app
+    private static WatchedContext mContext;
+    private static int mNextId;
+
+    // Counts disk-backed lookups made by the thread that called onReceive()
+    private static class WatchedContext extends JvmContext {
+        volatile Thread mWatched;
+        final AtomicInteger mViolations = new AtomicInteger();
+
+        WatchedContext(File root) {
+            super(root);
+        }
+
+        @Override
+        public SharedPreferences getSharedPreferences(String name, int mode) {
+            check();
+            return super.getSharedPreferences(name, mode);
+        }
+
+        @Override
+        public File getFilesDir() {
+            check();
+            return super.getFilesDir();
+        }
+
+        private void check() {
+            if (Thread.currentThread() == mWatched) {
+                mViolations.incrementAndGet();
+            }
+        }
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        mContext = new WatchedContext(Files.createTempDirectory("pushy-jvm").toFile());
+        PushyPersistence.setNotificationCoalescingWindow(WINDOW, mContext);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        mContext.delete();
+    }
+
+    @Test
+    public void onReceiveLeavesAllWorkToReceiverThread() throws Exception {
+        awaitQuiet();
+        int posted = getPosted().size();
+
+        mContext.mWatched = Thread.currentThread();
+
+        try {
+            new PushReceiver().onReceive(mContext, push("Hello"));
+        }
+        finally {
+            mContext.mWatched = null;
+        }
+
+        // No SharedPreferences or file access on the calling (main) thread
+        assertEquals(0, mContext.mViolations.get());
+
+        // The notification (and its group summary) is still shown, from the receiver thread
+        awaitQuiet();
+        assertEquals(posted + 2, getPosted().size());
+    }
+
+    @Test
+    public void burstAlertsOnceAndPostsFewNotifications() throws Exception {
+        awaitQuiet();
+        int posted = getPosted().size();
+
+        // First notification shows right away, the rest of the burst is held for the window
+        for (int i = 0; i < 8; i++) {
+            new PushReceiver().onReceive(mContext, push("Burst " + i));
+        }
+
+        awaitQuiet();
+
+        // Child and summary at the start of the burst, then the last few held children and an updated summary
+        List<Notification> notifications = getPosted().subList(posted, getPosted().size());
+        assertEquals(6, notifications.size());
+
+        List<Notification> children = new ArrayList<>();
+        List<Notification> summaries = new ArrayList<>();
+
+        for (Notification notification : notifications) {
+            ((notification.flags & Notification.FLAG_GROUP_SUMMARY) != 0 ? summaries : children).add(notification);
+        }
+
+        assertEquals(4, children.size());
+        assertEquals(2, summaries.size());
+
+        // Children never alert and each one opens its own payload
+        Set<String> messages = new HashSet<>();
+
+        for (Notification child : children) {
+            assertEquals(Notification.GROUP_ALERT_SUMMARY, child.getGroupAlertBehavior());
+            assertNull(child.vibrate);
+            assertNull(child.sound);
+
+            Intent click = child.contentIntent.getIntent();
+            messages.add(PushyPayload.fromClickIntent(click, mContext).getString("message"));
+        }
+
+        assertEquals(new HashSet<>(Arrays.asList("Burst 0", "Burst 5", "Burst 6", "Burst 7")), messages);
+
+        // Only the first summary alerts, the flushed update is silent and lists the whole burst
+        assertEquals(Notification.GROUP_ALERT_SUMMARY, summaries.get(0).getGroupAlertBehavior());
+        assertEquals(0, summaries.get(0).flags & Notification.FLAG_ONLY_ALERT_ONCE);
+        assertTrue((summaries.get(1).flags & Notification.FLAG_ONLY_ALERT_ONCE) != 0);
+        assertEquals(8, summaries.get(1).number);
+        assertEquals("8 new notifications", summaries.get(1).extras.getString(Notification.EXTRA_TEXT));
+        assertEquals(8, summaries.get(1).extras.getCharSequenceArray(Notification.EXTRA_TEXT_LINES).length);
+
+        // The summary stands for the whole burst and carries no single payload
+        assertFalse(summaries.get(1).contentIntent.getIntent().getBooleanExtra(PushyIntentExtras.NOTIFICATION_CLICKED, false));
+    }
+
+    @Test
+    public void notificationIdNeverReplacesSummary() throws Exception {
+        awaitQuiet();
+
+        new PushReceiver().onReceive(mContext, push("Hello").putExtra("notId", "-1"));
+        awaitQuiet();
+
+        // The child got an ID of its own, the summary is still there
+        Map<Integer, Notification> active = mContext.getNotificationManager().getActiveNotifications();
+        assertTrue((active.get(-1).flags & Notification.FLAG_GROUP_SUMMARY) != 0);
+        assertEquals(0, active.get(-2).flags & Notification.FLAG_GROUP_SUMMARY);
+    }
+
+    private static Intent push(String message) {
+        return new Intent("pushy.me").putExtra("messageId", "m" + mNextId++).putExtra("title", "Test").putExtra("message", message);
+    }
+
+    private static List<Notification> getPosted() {
+        return mContext.getNotificationManager().getPostedNotifications();
+    }
+
+    private static void awaitQuiet() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        // Every broadcast released means every deferred flush ran
+        while (BroadcastReceiver.getUnfinishedCount() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Broadcasts still pending: " + BroadcastReceiver.getUnfinishedCount());
+            }
+
+            Thread.sleep(10);
+        }
+
+        // Let the coalescing window lapse so the next push starts a new burst
+        Thread.sleep(WINDOW + 50);
+    }
+}
@@ -0,0 +1,411 @@
+package me.pushy.sdk.cordova.internal;
+
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import me.pushy.sdk.cordova.internal.util.PushyPersistence;
+import me.pushy.sdk.cordova.jvm.JvmContext;
+import me.pushy.sdk.cordova.jvm.JvmCordova;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class PushyPluginTest {
+    // The plugin keeps its buffer, store and instance in statics, so the whole class shares one app
+    private static WatchedContext mContext;
+    private static int mNextSeq;
+
+    private JvmCordova mCordova;
+    private PushyPlugin mPlugin;
+    private EventRecorder mEvents;
+
+    // Counts SharedPreferences lookups made by the thread that called execute()
+    private static class WatchedContext extends JvmContext {
+        volatile Thread mWatched;
+        final AtomicInteger mViolations = new AtomicInteger();
+
+        WatchedContext(File root) {
+            super(root);
+        }
+
+        @Override
+        public SharedPreferences getSharedPreferences(String name, int mode) {
+            if (Thread.currentThread() == mWatched) {
+                mViolations.incrementAndGet();
+            }
+
+            return super.getSharedPreferences(name, mode);
+        }
+    }
+
+    // Records the sequence numbers of every notification delivered to JS, in delivery order, and acknowledges stored ones like Pushy.js (unless its listener throws)
+    private static class EventRecorder extends CallbackContext {
+        private final List<Integer> mDelivered = new ArrayList<>();
+        private final PushyPlugin mPlugin;
+        private final boolean mAcknowledge;
+
+        EventRecorder(PushyPlugin plugin) {
+            this(plugin, true);
+        }
+
+        EventRecorder(PushyPlugin plugin, boolean acknowledge) {
+            super("events");
+            mPlugin = plugin;
+            mAcknowledge = acknowledge;
+        }
+
+        @Override
+        protected void onResult(PluginResult pluginResult) {
+            try {
+                JSONArray events = new JSONArray(pluginResult.getMessage());
+
+                synchronized (this) {
+                    for (int i = 0; i < events.length(); i++) {
+                        JSONObject event = events.getJSONObject(i);
+
+                        if (event.getString("type").equals("received")) {
+                            mDelivered.add(event.getJSONObject("data").getInt("seq"));
+                        }
+                        else if (event.getString("type").equals("backlog")) {
+                            JSONArray batch = event.getJSONArray("data");
+                            JSONArray ids = new JSONArray();
+
+                            for (int j = 0; j < batch.length(); j++) {
+                                mDelivered.add(batch.getJSONObject(j).getJSONObject("notification").getInt("seq"));
+
+                                // Buffered items were never stored
+                                if (batch.getJSONObject(j).has("id")) {
+                                    ids.put(batch.getJSONObject(j).getLong("id"));
+                                }
+                            }
+
+                            // Request the next page
+                            if (ids.length() > 0 && mAcknowledge) {
+                                mPlugin.execute("acknowledgeNotifications", new JSONArray().put(ids), new CallbackContext("acknowledge"));
+                            }
+                        }
+                    }
+                }
+            }
+            catch (JSONException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        synchronized List<Integer> awaitDelivered(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+
+            // Events are dispatched from the channel's scheduler thread
+            while (mDelivered.size() < count && System.currentTimeMillis() < deadline) {
+                wait(10);
+            }
+
+            return new ArrayList<>(mDelivered);
+        }
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        mContext = new WatchedContext(Files.createTempDirectory("pushy-jvm").toFile());
+
+        // Sequence numbers are the only payload, nothing to deduplicate
+        PushyPersistence.setDeduplicationWindow(0, mContext);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        mContext.delete();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        mCordova = new JvmCordova(mContext);
+
+        // Start the plugin like Cordova does and open the event channel
+        mPlugin = new PushyPlugin();
+        mEvents = new EventRecorder(mPlugin);
+        mPlugin.initialize(mCordova, null);
+        mPlugin.execute("openEventChannel", new JSONArray(), mEvents);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        mPlugin.onDestroy();
+        mCordova.awaitIdle(10, TimeUnit.SECONDS);
+        mCordova.shutdown();
+
+        // Nothing left over for the next test, even if it was never acknowledged
+        PushyPersistence.clearPendingNotifications(mContext);
+    }
+
+    @Test
+    public void liveNotificationsNeverOvertakeDrainedBuffer() throws Exception {
+        final int first = mNextSeq;
+        final AtomicBoolean stop = new AtomicBoolean();
+
+        // Held in memory until the listener attaches
+        for (int i = 0; i < 100; i++) {
+            receive();
+        }
+
+        // Keep notifications coming while the listener attaches
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!stop.get()) {
+                    receive();
+
+                    // Slow enough that the buffer can't overflow to disk before the listener attaches
+                    LockSupport.parkNanos(100000);
+                }
+            }
+        });
+
+        producer.start();
+        mPlugin.execute("setNotificationListener", new JSONArray(), new CallbackContext("listener"));
+        mCordova.awaitIdle(10, TimeUnit.SECONDS);
+
+        // Let some live notifications through, then stop
+        Thread.sleep(50);
+        stop.set(true);
+        producer.join();
+
+        int count = mNextSeq - first;
+        List<Integer> delivered = mEvents.awaitDelivered(count);
+
+        // Every notification exactly once, in arrival order
+        assertEquals(count, delivered.size());
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(first + i, (int) delivered.get(i));
+        }
+    }
+
+    @Test
+    public void liveNotificationsNeverOvertakeStoredBacklog() throws Exception {
+        final int first = mNextSeq;
+
+        // Several pages stored while the app was in the background
+        mPlugin.onStop();
+
+        for (int i = 0; i < 180; i++) {
+            receive();
+        }
+
+        mPlugin.onStart();
+
+        // Live notifications arrive while the pages are requested one acknowledgement at a time
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 200; i++) {
+                    receive();
+                    LockSupport.parkNanos(100000);
+                }
+            }
+        });
+
+        producer.start();
+        mPlugin.execute("setNotificationListener", new JSONArray(), new CallbackContext("listener"));
+        producer.join();
+
+        int count = mNextSeq - first;
+        List<Integer> delivered = mEvents.awaitDelivered(count);
+
+        // Every notification exactly once, in arrival order
+        assertEquals(count, delivered.size());
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(first + i, (int) delivered.get(i));
+        }
+    }
+
+    @Test
+    public void repeatedListenerCallDoesNotRestartBacklog() throws Exception {
+        final int first = mNextSeq;
+
+        // Several pages stored while the app was in the background
+        mPlugin.onStop();
+
+        for (int i = 0; i < 120; i++) {
+            receive();
+        }
+
+        mPlugin.onStart();
+
+        // Pushy.setNotificationListener() called twice by the app
+        mPlugin.execute("setNotificationListener", new JSONArray(), new CallbackContext("listener"));
+        mPlugin.execute("setNotificationListener", new JSONArray(), new CallbackContext("listener"));
+        mCordova.awaitIdle(10, TimeUnit.SECONDS);
+
+        // Give a restarted backlog time to show up
+        mEvents.awaitDelivered(120);
+        Thread.sleep(200);
+
+        // Every stored notification exactly once, in order
+        List<Integer> delivered = mEvents.awaitDelivered(120);
+        assertEquals(120, delivered.size());
+
+        for (int i = 0; i < 120; i++) {
+            assertEquals(first + i, (int) delivered.get(i));
+        }
+    }
+
+    @Test
+    public void unacknowledgedBacklogStopsHoldingBackLiveNotifications() throws Exception {
+        EventRecorder events = storeUnacknowledgedPage();
+        int first = mNextSeq - 120;
+
+        // Stored behind the unacknowledged page for now
+        receive();
+        Thread.sleep(100);
+        assertEquals(50, events.awaitDelivered(50).size());
+
+        // Page never acknowledged, the next push goes out live
+        SystemClock.advance(31000);
+        receive();
+
+        List<Integer> delivered = events.awaitDelivered(51);
+        assertEquals(51, delivered.size());
+        assertEquals(first, (int) delivered.get(0));
+        assertEquals(mNextSeq - 1, (int) delivered.get(50));
+    }
+
+    @Test
+    public void stalledBacklogRestartsOnListenerReattach() throws Exception {
+        EventRecorder events = storeUnacknowledgedPage();
+        int first = mNextSeq - 120;
+
+        // Listener attached again long after the page went unacknowledged
+        SystemClock.advance(31000);
+        mPlugin.execute("setNotificationListener", new JSONArray(), new CallbackContext("listener"));
+        mCordova.awaitIdle(10, TimeUnit.SECONDS);
+
+        // The page is sent again from the first unacknowledged notification
+        List<Integer> delivered = events.awaitDelivered(100);
+        assertEquals(100, delivered.size());
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first + i % 50, (int) delivered.get(i));
+        }
+    }
+
+    private EventRecorder storeUnacknowledgedPage() throws Exception {
+        EventRecorder events = new EventRecorder(mPlugin, false);
+
+        // Startup prefetch done, so the first page is a full one
+        mCordova.awaitIdle(10, TimeUnit.SECONDS);
+
+        // Several pages stored while the app was in the background
+        mPlugin.onStop();
+
+        for (int i = 0; i < 120; i++) {
+            receive();
+        }
+
+        mPlugin.onStart();
+
+        // JS listener throws before Pushy.js acknowledges the first page
+        mPlugin.execute("openEventChannel", new JSONArray(), events);
+        mPlugin.execute("setNotificationListener", new JSONArray(), new CallbackContext("listener"));
+        mCordova.awaitIdle(10, TimeUnit.SECONDS);
+        assertEquals(50, events.awaitDelivered(50).size());
+
+        return events;
+    }
+
+    @Test
+    public void storagePermissionRequestResolves() throws Exception {
+        CallbackContext callback = new CallbackContext("permission");
+
+        // Still exported by Pushy.js for older apps
+        assertTrue(mPlugin.execute("requestStoragePermission", new JSONArray(), callback));
+        assertEquals(PluginResult.Status.OK.ordinal(), callback.awaitResult(5, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    public void registerLeavesDiskAccessToThreadPool() throws Exception {
+        CallbackContext callback = new CallbackContext("register");
+        mContext.mWatched = Thread.currentThread();
+
+        try {
+            mPlugin.execute("register", new JSONArray(), callback);
+        }
+        finally {
+            mContext.mWatched = null;
+        }
+
+        // No SharedPreferences access on the calling (WebView) thread
+        assertEquals(0, mContext.mViolations.get());
+        assertEquals(PluginResult.Status.OK.ordinal(), callback.awaitResult(5, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    public void storageBackedActionsRunOnThreadPool() throws Exception {
+        String[] actions = {"setInboxOptions", "toggleOperationQueue", "getOperationQueueStatus", "setNotificationFilters", "getStoredValues", "clearStoredValues"};
+        JSONArray[] args = {
+                new JSONArray().put(new JSONObject().put("enabled", false)),
+                new JSONArray().put(false),
+                new JSONArray(),
+                new JSONArray().put(new JSONArray()),
+                new JSONArray().put("default"),
+                new JSONArray().put("default")
+        };
+
+        for (int i = 0; i < actions.length; i++) {
+            final List<Thread> resolvedOn = new ArrayList<>();
+
+            // Note which thread resolves the callback
+            CallbackContext callback = new CallbackContext(actions[i]) {
+                @Override
+                public void sendPluginResult(PluginResult pluginResult) {
+                    synchronized (resolvedOn) {
+                        resolvedOn.add(Thread.currentThread());
+                    }
+
+                    super.sendPluginResult(pluginResult);
+                }
+            };
+
+            mPlugin.execute(actions[i], args[i], callback);
+
+            // Resolved by the thread pool, never on the calling (WebView) thread
+            assertEquals(actions[i], PluginResult.Status.OK.ordinal(), callback.awaitResult(5, TimeUnit.SECONDS).getStatus());
+
+            synchronized (resolvedOn) {
+                assertNotSame(actions[i], Thread.currentThread(), resolvedOn.get(0));
+            }
+        }
+    }
+
+    private static void receive() {
+        try {
+            PushyPlugin.onNotificationReceived(new JSONObject().put("seq", mNextSeq++), mContext);
+        }
+        catch (JSONException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
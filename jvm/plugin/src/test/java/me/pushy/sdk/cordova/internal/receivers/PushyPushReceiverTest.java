@@ -0,0 +1,68 @@
+package me.pushy.sdk.cordova.internal.receivers;
+
+import android.content.BroadcastReceiver;
+import android.content.Intent;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import me.pushy.sdk.cordova.internal.util.PushyMetrics;
+import me.pushy.sdk.cordova.internal.util.PushyNotificationFilters;
+import me.pushy.sdk.cordova.internal.util.PushyPersistence;
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+
+public class PushyPushReceiverTest {
+    // Filters, deduplication and metrics live in statics, so the whole class shares one app
+    private static JvmContext mContext;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        mContext = JvmContext.createTemporary();
+        PushyPersistence.setDeduplicationWindow(PushyPersistence.DEFAULT_DEDUPLICATION_WINDOW, mContext);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        mContext.delete();
+    }
+
+    @Test
+    public void duplicateIsDroppedBeforeFilters() throws Exception {
+        // Every push is stored natively by a filter rule
+        PushyNotificationFilters.setRules(new JSONArray().put(new JSONObject()
+                .put("match", new JSONObject().put("counter", "*"))
+                .put("action", PushyNotificationFilters.ACTION_STORE)), mContext);
+        PushyMetrics.reset();
+
+        // Same message via the Pushy socket and FCM
+        Intent intent = new Intent("pushy.me").putExtra("messageId", "duplicate").putExtra("counter", "1");
+        new PushyPushReceiver().onReceive(mContext, intent);
+        new PushyPushReceiver().onReceive(mContext, new Intent(intent));
+        awaitQuiet();
+
+        // The filter only saw the first copy
+        JSONObject counters = PushyMetrics.getSnapshot().getJSONObject("counters");
+        assertEquals(1, counters.getInt("duplicates"));
+        assertEquals(1, counters.getInt("filtered"));
+    }
+
+    private static void awaitQuiet() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        // Every broadcast released means the receiver work ran
+        while (BroadcastReceiver.getUnfinishedCount() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Broadcasts still pending: " + BroadcastReceiver.getUnfinishedCount());
+            }
+
+            Thread.sleep(10);
+        }
+    }
+}
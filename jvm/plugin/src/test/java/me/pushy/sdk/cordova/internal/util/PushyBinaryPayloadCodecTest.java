@@ -0,0 +1,94 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class PushyBinaryPayloadCodecTest {
+    @Test
+    public void nestedPayloadRoundTrips() throws Exception {
+        JSONObject payload = nest(31).put("message", "Hello").put("items", new JSONArray().put(1).put("two"));
+
+        byte[] encoded = PushyPayloadCodecs.encode(payload);
+        assertEquals(PushyBinaryPayloadCodec.MAGIC, encoded[0]);
+        assertEquals(payload.toString(), PushyPayloadCodecs.decode(encoded).toString());
+    }
+
+    @Test
+    public void tooDeepPayloadFallsBackToJson() throws Exception {
+        JSONObject payload = nest(40);
+
+        // Stored as JSON text, still readable
+        byte[] encoded = PushyPayloadCodecs.encode(payload);
+        assertEquals('{', encoded[0]);
+        assertEquals(payload.toString(), PushyPayloadCodecs.decode(encoded).toString());
+    }
+
+    @Test
+    public void tooDeepArraysFallBackToJson() throws Exception {
+        JSONArray array = new JSONArray();
+        JSONObject payload = new JSONObject().put("data", array);
+
+        for (int i = 0; i < 40; i++) {
+            JSONArray inner = new JSONArray();
+            array.put(inner);
+            array = inner;
+        }
+
+        assertEquals('{', PushyPayloadCodecs.encode(payload)[0]);
+    }
+
+    @Test
+    public void tooDeepBinaryDataIsRejected() throws Exception {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+        // Header and a key table with a single key
+        data.write(PushyBinaryPayloadCodec.MAGIC);
+        data.write(0);
+        data.write(new byte[]{1, 1, 'k'});
+
+        // Objects nested 10,000 levels deep, each with one key
+        for (int i = 0; i < 10000; i++) {
+            data.write(new byte[]{8, 1, 0});
+        }
+
+        data.write(new byte[]{8, 0});
+
+        try {
+            new PushyBinaryPayloadCodec().decode(data.toByteArray());
+            fail("Expected the payload to be rejected");
+        }
+        catch (IOException e) {
+            // Expected, without overflowing the stack
+        }
+
+        try {
+            PushyPayloadCodecs.decode(data.toByteArray());
+            fail("Expected the payload to be rejected");
+        }
+        catch (JSONException e) {
+            // Expected, callers skip the record
+        }
+    }
+
+    private static JSONObject nest(int depth) throws JSONException {
+        JSONObject root = new JSONObject();
+        JSONObject object = root;
+
+        // Root object is the first level
+        for (int i = 1; i < depth; i++) {
+            JSONObject inner = new JSONObject();
+            object.put("level" + i, inner);
+            object = inner;
+        }
+
+        return root;
+    }
+}
@@ -0,0 +1,100 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import me.pushy.sdk.cordova.jvm.JvmContext;
+import me.pushy.sdk.cordova.jvm.JvmPushy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PushyConfigurationTest {
+    // PushyPersistence keeps its store in a static, so the whole class shares one app
+    private static JvmContext mContext;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        mContext = JvmContext.createTemporary();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        mContext.delete();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        JvmPushy.reset();
+        PushyPersistence.setStorageBackend("sharedPreferences", mContext);
+        getJournalFile().delete();
+    }
+
+    @Test
+    public void failedBackendSwitchAppliesNothing() throws Exception {
+        // Journal can't be created (a directory is in the way)
+        assertTrue(getJournalFile().mkdirs());
+
+        try {
+            PushyConfiguration.apply(new JSONObject()
+                    .put("storageBackend", "journal")
+                    .put("appId", "app")
+                    .put("notificationIcon", "ic_notification"), mContext);
+            fail("Expected the backend switch to fail");
+        }
+        catch (IOException e) {
+            // Expected
+        }
+
+        // Neither the SDK nor the plugin settings were touched
+        assertEquals("sharedPreferences", PushyPersistence.getStorageBackend(mContext));
+        assertTrue(JvmPushy.getCalls().isEmpty());
+        assertNull(PushyPersistence.getNotificationIcon(mContext));
+    }
+
+    @Test
+    public void invalidSettingAppliesNothing() throws Exception {
+        try {
+            PushyConfiguration.apply(new JSONObject()
+                    .put("storageBackend", "journal")
+                    .put("appId", "app")
+                    .put("fcm", "yes"), mContext);
+            fail("Expected validation to fail");
+        }
+        catch (JSONException e) {
+            // Expected
+        }
+
+        assertEquals("sharedPreferences", PushyPersistence.getStorageBackend(mContext));
+        assertTrue(JvmPushy.getCalls().isEmpty());
+    }
+
+    @Test
+    public void backendSwitchIsReportedFirst() throws Exception {
+        JSONArray changed = PushyConfiguration.apply(new JSONObject()
+                .put("deduplicationWindow", 1000)
+                .put("appId", "app")
+                .put("storageBackend", "journal"), mContext);
+
+        assertEquals(new JSONArray().put("storageBackend").put("appId").put("deduplicationWindow").toString(), changed.toString());
+        assertEquals("journal", PushyPersistence.getStorageBackend(mContext));
+        assertTrue(JvmPushy.getCalls().contains("setAppId:app"));
+
+        // Nothing changed the second time around
+        assertEquals(0, PushyConfiguration.apply(new JSONObject().put("appId", "app").put("storageBackend", "journal"), mContext).length());
+    }
+
+    private static File getJournalFile() {
+        return new File(mContext.getFilesDir(), PushyPersistence.PENDING_NOTIFICATIONS_JOURNAL);
+    }
+}
@@ -0,0 +1,108 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PushyEventChannelTest {
+    // PushyPersistence keeps its store in a static, so the whole class shares one app
+    private static JvmContext mContext;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        mContext = JvmContext.createTemporary();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        mContext.delete();
+    }
+
+    @Before
+    public void setUp() {
+        PushyPersistence.clearPendingNotifications(mContext);
+    }
+
+    @Test
+    public void closeStoresUndispatchedNotifications() throws Exception {
+        PushyEventChannel channel = new PushyEventChannel(mContext);
+
+        // A stored backlog item (still in storage), a buffered one (memory only) and a live one
+        PushyPersistence.persistNotification(PushyPersistenceTest.notification(0, 16), mContext);
+        JSONArray batch = PushyPersistence.getPendingNotificationBatch(0, -1, 10, mContext);
+        batch.put(new JSONObject().put("notification", PushyPersistenceTest.notification(1, 16)));
+
+        channel.emit(PushyEventChannel.BACKLOG, batch);
+        channel.emit(PushyEventChannel.RECEIVED, PushyPersistenceTest.notification(2, 16));
+        channel.emit(PushyEventChannel.CLICKED, PushyPersistenceTest.notification(3, 16));
+        channel.close();
+
+        // Nothing left for a new JS end of the channel
+        CallbackContext callback = new CallbackContext("events");
+        channel.open(callback);
+        assertNull(callback.awaitResult(100, TimeUnit.MILLISECONDS));
+
+        // Every notification stored once, in order (the click isn't a notification to redeliver)
+        assertEquals(3, getStoredSequence().size());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, (int) getStoredSequence().get(i));
+        }
+    }
+
+    @Test
+    public void notificationsBeyondPendingLimitGoToStorage() throws Exception {
+        PushyEventChannel channel = new PushyEventChannel(mContext);
+
+        // Nobody listening yet
+        for (int i = 0; i < 600; i++) {
+            channel.emit(PushyEventChannel.RECEIVED, PushyPersistenceTest.notification(i, 16));
+        }
+
+        // Moved to storage in arrival order instead of piling up in memory
+        List<Integer> stored = getStoredSequence();
+        assertEquals(600, stored.size());
+
+        for (int i = 0; i < stored.size(); i++) {
+            assertEquals(i, (int) stored.get(i));
+        }
+
+        // Once open again, events are dispatched as usual
+        CallbackContext callback = new CallbackContext("events");
+        channel.open(callback);
+        channel.emit(PushyEventChannel.RECEIVED, PushyPersistenceTest.notification(600, 16));
+
+        PluginResult result = callback.awaitResult(5, TimeUnit.SECONDS);
+        JSONArray events = new JSONArray(result.getMessage());
+        assertEquals(1, events.length());
+        assertEquals(600, events.getJSONObject(0).getJSONObject("data").getInt("seq"));
+        assertEquals(600, getStoredSequence().size());
+    }
+
+    private static List<Integer> getStoredSequence() throws JSONException {
+        List<Integer> sequence = new ArrayList<>();
+        JSONArray batch = PushyPersistence.getPendingNotificationBatch(0, -1, 1000, mContext);
+
+        for (int i = 0; i < batch.length(); i++) {
+            sequence.add(batch.getJSONObject(i).getJSONObject("notification").getInt("seq"));
+        }
+
+        return sequence;
+    }
+}
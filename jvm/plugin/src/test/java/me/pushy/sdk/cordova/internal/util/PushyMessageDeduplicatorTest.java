@@ -0,0 +1,78 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PushyMessageDeduplicatorTest {
+    // The deduplicator keeps its ring file open in a static, so the whole class shares one app
+    private static JvmContext mContext;
+    private static int mNextId;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        mContext = JvmContext.createTemporary();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        mContext.delete();
+    }
+
+    @Before
+    public void setUp() {
+        PushyPersistence.setDeduplicationWindow(PushyPersistence.DEFAULT_DEDUPLICATION_WINDOW, mContext);
+    }
+
+    @Test
+    public void identicalPayloadsWithoutMessageIdAreDelivered() throws JSONException {
+        JSONObject notification = new JSONObject().put("message", "Your code is 1234");
+
+        assertFalse(PushyMessageDeduplicator.isDuplicate("plugin", notification, mContext));
+        assertFalse(PushyMessageDeduplicator.isDuplicate("plugin", notification, mContext));
+        assertFalse(PushyMessageDeduplicator.isDuplicate("plugin", new JSONObject(notification.toString()), mContext));
+    }
+
+    @Test
+    public void repeatedMessageIdIsDuplicate() throws JSONException {
+        JSONObject notification = next();
+
+        assertFalse(PushyMessageDeduplicator.isDuplicate("plugin", notification, mContext));
+        assertTrue(PushyMessageDeduplicator.isDuplicate("plugin", notification, mContext));
+
+        // Same message ID, different content (e.g. the FCM copy carries extra fields)
+        assertTrue(PushyMessageDeduplicator.isDuplicate("plugin", new JSONObject(notification.toString()).put("extra", 1), mContext));
+    }
+
+    @Test
+    public void consumersAreIndependent() throws JSONException {
+        JSONObject notification = next();
+
+        assertFalse(PushyMessageDeduplicator.isDuplicate("receiver", notification, mContext));
+        assertFalse(PushyMessageDeduplicator.isDuplicate("plugin", notification, mContext));
+        assertTrue(PushyMessageDeduplicator.isDuplicate("receiver", notification, mContext));
+    }
+
+    @Test
+    public void zeroWindowDisablesDeduplication() throws JSONException {
+        PushyPersistence.setDeduplicationWindow(0, mContext);
+        JSONObject notification = next();
+
+        assertFalse(PushyMessageDeduplicator.isDuplicate("plugin", notification, mContext));
+        assertFalse(PushyMessageDeduplicator.isDuplicate("plugin", notification, mContext));
+    }
+
+    private static JSONObject next() throws JSONException {
+        return new JSONObject().put("messageId", "m" + mNextId++).put("message", "Hello");
+    }
+}
@@ -0,0 +1,144 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PushyNotificationInboxTest {
+    // The inbox keeps its database helper in a static, so the whole class shares one app
+    private static JvmContext mContext;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        mContext = JvmContext.createTemporary();
+        PushyNotificationInbox.setOptions(true, 0, 0, mContext);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        mContext.delete();
+    }
+
+    @Before
+    public void setUp() {
+        PushyNotificationInbox.clear(mContext);
+    }
+
+    @Test
+    public void clickMarksReceivedRecordWithoutMessageId() throws Exception {
+        JSONObject notification = new JSONObject().put("message", "Hello").put("topic", "news");
+
+        PushyNotificationInbox.recordReceived(notification, mContext);
+        PushyNotificationInbox.recordClicked(notification, mContext);
+
+        // One record, clicked and read
+        JSONArray items = awaitItems(1, true);
+        assertTrue(items.getJSONObject(0).getBoolean("clicked"));
+        assertTrue(items.getJSONObject(0).getBoolean("read"));
+        assertEquals(0, PushyNotificationInbox.getUnreadCount(null, mContext));
+    }
+
+    @Test
+    public void distinctPayloadsKeepDistinctRecords() throws Exception {
+        // Two different payloads without a message ID, only the second one clicked
+        PushyNotificationInbox.recordReceived(new JSONObject().put("message", "first"), mContext);
+        PushyNotificationInbox.recordReceived(new JSONObject().put("message", "second"), mContext);
+        PushyNotificationInbox.recordClicked(new JSONObject().put("message", "second"), mContext);
+
+        JSONArray items = awaitItems(2, true);
+        assertEquals("second", items.getJSONObject(0).getJSONObject("notification").getString("message"));
+        assertTrue(items.getJSONObject(0).getBoolean("clicked"));
+        assertFalse(items.getJSONObject(1).getBoolean("clicked"));
+        assertEquals(1, PushyNotificationInbox.getUnreadCount(null, mContext));
+    }
+
+    @Test
+    public void sinceFollowsArrivalTimeWhenClockGoesBackwards() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            PushyNotificationInbox.recordReceived(new JSONObject().put("messageId", "clock" + i), mContext);
+        }
+
+        JSONArray items = awaitItems(3, false);
+
+        // Wall clock set back between the second and third notification
+        long[] receivedAt = {1000, 5000, 3000};
+
+        for (int i = 0; i < 3; i++) {
+            getDatabase().execSQL("UPDATE inbox SET received_at = ? WHERE id = ?", new Object[]{receivedAt[2 - i], items.getJSONObject(i).getLong("id")});
+        }
+
+        // Only the notification that arrived at or after the given time
+        JSONArray since = PushyNotificationInbox.query(new JSONObject().put("since", 4000), mContext).getJSONArray("items");
+        assertEquals(1, since.length());
+        assertEquals("clock1", since.getJSONObject(0).getJSONObject("notification").getString("messageId"));
+    }
+
+    @Test
+    public void statementsAreClosed() throws Exception {
+        SQLiteDatabase db = getDatabase();
+
+        for (int i = 0; i < 20; i++) {
+            JSONObject notification = new JSONObject().put("messageId", "m" + i).put("topic", "news");
+            PushyNotificationInbox.recordReceived(notification, mContext);
+            PushyNotificationInbox.recordClicked(notification, mContext);
+        }
+
+        awaitItems(20, true);
+
+        PushyNotificationInbox.query(new JSONObject().put("since", 0).put("topic", "news"), mContext);
+        PushyNotificationInbox.getUnreadCount("news", mContext);
+        PushyNotificationInbox.getUnreadCount(null, mContext);
+        PushyNotificationInbox.markRead(new JSONArray().put(1).put(2), mContext);
+        PushyNotificationInbox.markRead(null, mContext);
+
+        // The writer thread may still be closing its last statement
+        long deadline = System.currentTimeMillis() + 2000;
+
+        while (db.getOpenStatementCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, db.getOpenStatementCount());
+    }
+
+    private static JSONArray awaitItems(int count, boolean lastClicked) throws JSONException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        // Records are written on the inbox writer thread
+        while (true) {
+            JSONArray items = PushyNotificationInbox.query(new JSONObject().put("limit", 100), mContext).getJSONArray("items");
+
+            if (items.length() == count && items.getJSONObject(0).getBoolean("clicked") == lastClicked) {
+                return items;
+            }
+
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Expected " + count + " inbox records, got " + items);
+            }
+
+            Thread.sleep(10);
+        }
+    }
+
+    private static SQLiteDatabase getDatabase() throws Exception {
+        Method method = PushyNotificationInbox.class.getDeclaredMethod("getDatabase", Context.class);
+        method.setAccessible(true);
+        return (SQLiteDatabase) method.invoke(null, mContext);
+    }
+}
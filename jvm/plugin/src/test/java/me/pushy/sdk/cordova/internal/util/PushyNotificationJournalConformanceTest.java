@@ -0,0 +1,13 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import java.io.File;
+import java.io.IOException;
+
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+public class PushyNotificationJournalConformanceTest extends PushyNotificationStoreConformanceTest {
+    @Override
+    protected PushyNotificationStore open(JvmContext context) throws IOException {
+        return new PushyNotificationJournal(new File(context.getFilesDir(), PushyPersistence.PENDING_NOTIFICATIONS_JOURNAL));
+    }
+}
@@ -0,0 +1,231 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PushyNotificationJournalTest {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private File mFile;
+    private PushyNotificationJournal mJournal;
+
+    @Before
+    public void setUp() throws IOException {
+        mFile = new File(mFolder.getRoot(), "journal");
+        mJournal = new PushyNotificationJournal(mFile);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mJournal.close();
+    }
+
+    @Test
+    public void recordsSurviveReopen() throws IOException {
+        long first = mJournal.append(payload(1), 100, 0);
+        long second = mJournal.append(payload(2), 200, 3);
+        mJournal.remove(Collections.singletonList(first));
+
+        reopen();
+
+        List<PushyNotificationJournal.Entry> entries = mJournal.getEntries();
+        assertEquals(1, entries.size());
+        assertEquals(second, entries.get(0).id);
+        assertEquals(200, entries.get(0).timestamp);
+        assertEquals(3, entries.get(0).priority);
+        assertEquals("payload-2", read(entries.get(0)));
+    }
+
+    @Test
+    public void idsAreNotReusedAfterClear() throws IOException {
+        mJournal.append(payload(1), 100, 0);
+        long last = mJournal.append(payload(2), 100, 0);
+        mJournal.clear();
+
+        reopen();
+
+        assertTrue(mJournal.append(payload(3), 100, 0) > last);
+    }
+
+    @Test
+    public void idsAreNotReusedWhenHeaderIsStale() throws IOException {
+        long last = -1;
+
+        // Records appended after the header was last written
+        for (int i = 0; i < 5; i++) {
+            last = mJournal.append(payload(i), 100, 0);
+        }
+
+        reopen();
+
+        // Drop every record, the header must carry the recovered sequence from now on
+        List<Long> ids = new ArrayList<>();
+
+        for (PushyNotificationJournal.Entry entry : mJournal.getEntries()) {
+            ids.add(entry.id);
+        }
+
+        mJournal.remove(ids);
+        mJournal.compact();
+
+        reopen();
+
+        assertTrue(mJournal.append(payload(6), 100, 0) > last);
+    }
+
+    @Test
+    public void tornTailIsTruncated() throws IOException {
+        mJournal.append(payload(1), 100, 0);
+        mJournal.append(payload(2), 100, 0);
+        mJournal.close();
+
+        // Chop off the last bytes of the second record
+        RandomAccessFile file = new RandomAccessFile(mFile, "rw");
+
+        try {
+            file.setLength(file.length() - 3);
+        }
+        finally {
+            file.close();
+        }
+
+        mJournal = new PushyNotificationJournal(mFile);
+
+        assertEquals(1, mJournal.size());
+        assertEquals("payload-1", read(mJournal.getEntries().get(0)));
+
+        // Appends resume at a record boundary
+        mJournal.append(payload(3), 100, 0);
+
+        reopen();
+
+        assertEquals(2, mJournal.size());
+        assertEquals("payload-3", read(mJournal.getEntries().get(1)));
+    }
+
+    @Test
+    public void compactionKeepsLiveRecords() throws IOException {
+        List<Long> removed = new ArrayList<>();
+        List<Long> kept = new ArrayList<>();
+
+        // Enough dead bytes to trigger compaction on removal
+        for (int i = 0; i < 200; i++) {
+            long id = mJournal.append(payload(i, 512), i, i % 3);
+            (i % 4 == 0 ? kept : removed).add(id);
+        }
+
+        long before = mFile.length();
+        mJournal.remove(removed);
+
+        assertTrue(mFile.length() < before);
+        assertEquals(kept.size(), mJournal.size());
+
+        reopen();
+
+        // Live records read back intact and in lane order
+        List<PushyNotificationJournal.Entry> page = mJournal.getEntries(0, -1, kept.size());
+        assertEquals(kept.size(), page.size());
+
+        int lastPriority = Integer.MAX_VALUE;
+
+        for (PushyNotificationJournal.Entry entry : page) {
+            assertTrue(entry.priority <= lastPriority);
+            assertTrue(kept.contains(entry.id));
+            assertTrue(read(entry).startsWith("payload-" + entry.timestamp));
+            lastPriority = entry.priority;
+        }
+    }
+
+    @Test
+    public void staleEntriesReadByIdAfterCompaction() throws IOException {
+        for (int i = 0; i < 200; i++) {
+            mJournal.append(payload(i, 512), i, 0);
+        }
+
+        // List a page, then let a concurrent acknowledgement compact the file underneath it
+        List<PushyNotificationJournal.Entry> page = mJournal.getEntries(0, -1, 200);
+        List<Long> acknowledged = new ArrayList<>();
+
+        for (PushyNotificationJournal.Entry entry : page) {
+            if (entry.timestamp % 4 != 0) {
+                acknowledged.add(entry.id);
+            }
+        }
+
+        mJournal.remove(acknowledged);
+        mJournal.compact();
+
+        // Live records still read their own payload, removed ones read as gone
+        for (PushyNotificationJournal.Entry entry : page) {
+            byte[] data = mJournal.read(entry);
+
+            if (acknowledged.contains(entry.id)) {
+                assertNull(data);
+            }
+            else {
+                assertTrue(new String(data, UTF8).startsWith("payload-" + entry.timestamp + "-"));
+            }
+        }
+    }
+
+    @Test
+    public void evictionDropsLowestLaneFirst() throws IOException {
+        long low = mJournal.append(payload(1), 100, -1);
+        long normal = mJournal.append(payload(2), 100, 0);
+        long high = mJournal.append(payload(3), 100, 1);
+
+        assertEquals(1, mJournal.evict(2, 0, Long.MIN_VALUE));
+
+        List<Long> ids = new ArrayList<>();
+
+        for (PushyNotificationJournal.Entry entry : mJournal.getEntries()) {
+            ids.add(entry.id);
+        }
+
+        assertEquals(2, ids.size());
+        assertTrue(ids.contains(normal));
+        assertTrue(ids.contains(high));
+        assertTrue(!ids.contains(low));
+    }
+
+    private void reopen() throws IOException {
+        mJournal.close();
+        mJournal = new PushyNotificationJournal(mFile);
+    }
+
+    private String read(PushyNotificationStore.Entry entry) throws IOException {
+        return new String(mJournal.read(entry), UTF8);
+    }
+
+    private static byte[] payload(int index) {
+        return ("payload-" + index).getBytes(UTF8);
+    }
+
+    private static byte[] payload(int index, int size) {
+        StringBuilder builder = new StringBuilder("payload-" + index + "-");
+
+        while (builder.length() < size) {
+            builder.append('x');
+        }
+
+        return builder.toString().getBytes(UTF8);
+    }
+}
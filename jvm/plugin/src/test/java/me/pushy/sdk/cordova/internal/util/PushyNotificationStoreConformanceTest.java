@@ -0,0 +1,195 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Behaviour every PushyNotificationStore must share, run once per backend by its subclasses.
+ */
+public abstract class PushyNotificationStoreConformanceTest {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    protected JvmContext mContext;
+    protected PushyNotificationStore mStore;
+
+    // Open the backend over the app data in the given context
+    protected abstract PushyNotificationStore open(JvmContext context) throws IOException;
+
+    @Before
+    public void setUp() throws IOException {
+        mContext = JvmContext.createTemporary();
+        mStore = open(mContext);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mStore.close();
+        mContext.delete();
+    }
+
+    @Test
+    public void appendAssignsIncreasingIds() throws IOException {
+        long previous = Long.MIN_VALUE;
+
+        for (int i = 0; i < 10; i++) {
+            long id = mStore.append(payload(i), i, 0);
+            assertTrue(id > previous);
+            previous = id;
+        }
+
+        assertEquals(10, mStore.size());
+    }
+
+    @Test
+    public void idsAreNeverReused() throws IOException {
+        long last = mStore.append(payload(1), 1, 0);
+        mStore.remove(Collections.singletonList(last));
+        assertTrue(mStore.append(payload(2), 2, 0) > last);
+
+        last = mStore.append(payload(3), 3, 0);
+        mStore.clear();
+        assertTrue(mStore.append(payload(4), 4, 0) > last);
+
+        last = mStore.append(payload(5), 5, 0);
+        mStore.clear();
+        reopen();
+        assertTrue(mStore.append(payload(6), 6, 0) > last);
+    }
+
+    @Test
+    public void entriesFollowArrivalOrder() throws IOException {
+        List<Long> ids = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            ids.add(mStore.append(payload(i), i, i % 2 == 0 ? 1 : -1));
+        }
+
+        List<Long> listed = new ArrayList<>();
+
+        for (PushyNotificationStore.Entry entry : mStore.getEntries()) {
+            listed.add(entry.id);
+        }
+
+        assertEquals(ids, listed);
+    }
+
+    @Test
+    public void pagesDrainHighestLaneFirst() throws IOException {
+        long low = mStore.append(payload(1), 1, -1);
+        long normal1 = mStore.append(payload(2), 2, 0);
+        long high = mStore.append(payload(3), 3, 1);
+        long normal2 = mStore.append(payload(4), 4, 0);
+
+        // First page from the top
+        List<? extends PushyNotificationStore.Entry> page = mStore.getEntries(0, -1, 2);
+        assertEquals(Arrays.asList(high, normal1), ids(page));
+
+        // Resume after the cursor, crossing into the lower lane
+        PushyNotificationStore.Entry cursor = page.get(1);
+        page = mStore.getEntries(cursor.priority, cursor.id, 10);
+        assertEquals(Arrays.asList(normal2, low), ids(page));
+    }
+
+    @Test
+    public void readNeverReturnsAnotherRecordsPayload() throws IOException {
+        mStore.append(payload(1), 1, 0);
+        mStore.append(payload(2), 2, 0);
+
+        List<? extends PushyNotificationStore.Entry> entries = mStore.getEntries();
+        assertArrayEquals(payload(1), mStore.read(entries.get(0)));
+
+        // Listed entries may outlive their records (and a journal compaction moves the rest)
+        mStore.remove(Collections.singletonList(entries.get(0).id));
+
+        byte[] removed = mStore.read(entries.get(0));
+        assertTrue(removed == null || Arrays.equals(payload(1), removed));
+
+        assertArrayEquals(payload(2), mStore.read(entries.get(1)));
+    }
+
+    @Test
+    public void tracksSizeAndPayloadBytes() throws IOException {
+        long id = mStore.append(payload(1), 1, 0);
+        mStore.append(new byte[100], 2, 0);
+
+        assertEquals(2, mStore.size());
+        assertEquals(payload(1).length + 100, mStore.getPayloadBytes());
+
+        // Unknown and repeated IDs are ignored
+        assertEquals(1, mStore.remove(Arrays.asList(id, id, 12345L)));
+        assertEquals(1, mStore.size());
+        assertEquals(100, mStore.getPayloadBytes());
+    }
+
+    @Test
+    public void evictsExpiredThenLowestLane() throws IOException {
+        mStore.append(payload(1), 10, 1);
+        mStore.append(payload(2), 100, -1);
+        long normal = mStore.append(payload(3), 100, 0);
+        long high = mStore.append(payload(4), 100, 1);
+
+        // Expired record goes first even though it sits in the highest lane, then the low one
+        assertEquals(2, mStore.evict(2, 0, 50));
+        assertEquals(Arrays.asList(normal, high), ids(mStore.getEntries()));
+    }
+
+    @Test
+    public void evictsByPayloadBytes() throws IOException {
+        mStore.append(new byte[100], 1, 0);
+        mStore.append(new byte[100], 2, 0);
+        long newest = mStore.append(new byte[100], 3, 0);
+
+        assertEquals(2, mStore.evict(0, 150, Long.MIN_VALUE));
+        assertEquals(Collections.singletonList(newest), ids(mStore.getEntries()));
+    }
+
+    @Test
+    public void recordsSurviveReopen() throws IOException {
+        mStore.append(payload(1), 1, 1);
+        long kept = mStore.append(payload(2), 2, -1);
+        mStore.remove(Collections.singletonList(mStore.getEntries().get(0).id));
+
+        reopen();
+
+        List<? extends PushyNotificationStore.Entry> entries = mStore.getEntries();
+        assertEquals(1, entries.size());
+        assertEquals(kept, entries.get(0).id);
+        assertEquals(2, entries.get(0).timestamp);
+        assertEquals(-1, entries.get(0).priority);
+        assertArrayEquals(payload(2), mStore.read(entries.get(0)));
+        assertEquals(payload(2).length, mStore.getPayloadBytes());
+    }
+
+    protected void reopen() throws IOException {
+        mStore.close();
+        mStore = open(mContext);
+    }
+
+    protected static byte[] payload(int index) {
+        return ("{\"seq\":" + index + "}").getBytes(UTF8);
+    }
+
+    private static List<Long> ids(List<? extends PushyNotificationStore.Entry> entries) {
+        List<Long> ids = new ArrayList<>();
+
+        for (PushyNotificationStore.Entry entry : entries) {
+            ids.add(entry.id);
+        }
+
+        return ids;
+    }
+}
@@ -0,0 +1,186 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.app.job.JobParameters;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import me.pushy.sdk.cordova.internal.PushyPlugin;
+import me.pushy.sdk.cordova.internal.services.PushyOperationJobService;
+import me.pushy.sdk.cordova.jvm.JvmContext;
+import me.pushy.sdk.cordova.jvm.JvmCordova;
+import me.pushy.sdk.cordova.jvm.JvmPushy;
+import me.pushy.sdk.util.exceptions.PushyException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PushyOperationQueueTest {
+    // The queue keeps its state and waiters in statics, so the whole class shares one app
+    private static JvmContext mContext;
+
+    private JvmCordova mCordova;
+    private PushyPlugin mPlugin;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        mContext = JvmContext.createTemporary();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        mContext.delete();
+    }
+
+    @Before
+    public void setUp() {
+        JvmPushy.reset();
+        mContext.getConnectivityManager().setConnected(true);
+        PushyPersistence.removeSubscribedTopics(PushyPersistence.getSubscribedTopics(mContext), mContext);
+
+        // Start from an empty queue
+        PushyOperationQueue.setEnabled(false, mContext);
+        PushyOperationQueue.setEnabled(true, mContext);
+
+        mCordova = new JvmCordova(mContext);
+        mPlugin = new PushyPlugin();
+        mPlugin.initialize(mCordova, null);
+    }
+
+    @After
+    public void tearDown() {
+        mPlugin.onDestroy();
+        mCordova.shutdown();
+    }
+
+    @Test
+    public void oppositeOperationCancelsQueuedOne() throws Exception {
+        mContext.getConnectivityManager().setConnected(false);
+
+        CallbackContext subscribe = execute("subscribe", new JSONArray().put("news"));
+        assertNull(subscribe.awaitResult(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, getQueued("subscribe").length());
+
+        // Back to the server-side state, both calls resolve without a request
+        CallbackContext unsubscribe = execute("unsubscribe", new JSONArray().put("news"));
+        assertOk(subscribe);
+        assertOk(unsubscribe);
+        assertEquals(0, getQueued("subscribe").length());
+        assertEquals(0, getQueued("unsubscribe").length());
+        assertTrue(JvmPushy.getCalls().isEmpty());
+    }
+
+    @Test
+    public void laterOperationSupersedesQueuedOne() throws Exception {
+        PushyPersistence.addSubscribedTopics(Collections.singletonList("sports"), mContext);
+        mContext.getConnectivityManager().setConnected(false);
+
+        CallbackContext first = execute("unsubscribe", new JSONArray().put("sports"));
+        CallbackContext second = execute("subscribeMany", new JSONArray().put(new JSONArray().put("sports").put("news")));
+
+        // Sports is already subscribed server-side, only news is left to do
+        assertOk(first);
+        assertEquals(0, getQueued("unsubscribe").length());
+        assertEquals("news", getQueued("subscribe").getString(0));
+
+        replay();
+        assertOk(second);
+        assertEquals(new HashSet<>(Arrays.asList("sports", "news")), PushyPersistence.getSubscribedTopics(mContext));
+        assertEquals(Collections.singletonList("subscribe:[news]"), JvmPushy.getCalls());
+    }
+
+    @Test
+    public void setTopicsMergesWithQueuedOperations() throws Exception {
+        PushyPersistence.addSubscribedTopics(Collections.singletonList("sports"), mContext);
+        mContext.getConnectivityManager().setConnected(false);
+
+        // News is queued, so setTopics only needs to add weather and drop sports
+        CallbackContext subscribe = execute("subscribe", new JSONArray().put("news"));
+        CallbackContext setTopics = execute("setTopics", new JSONArray().put(new JSONArray().put("news").put("weather")));
+
+        assertNull(setTopics.awaitResult(100, TimeUnit.MILLISECONDS));
+        assertEquals(new HashSet<>(Arrays.asList("news", "weather")), PushyOperationQueue.getEffectiveTopics(mContext));
+        assertTrue(JvmPushy.getCalls().isEmpty());
+
+        replay();
+        assertOk(subscribe);
+        assertOk(setTopics);
+        assertEquals(new HashSet<>(Arrays.asList("news", "weather")), PushyPersistence.getSubscribedTopics(mContext));
+    }
+
+    @Test
+    public void wrappedIOExceptionIsRetried() throws Exception {
+        // Online, but the request fails deep down with an I/O error
+        JvmPushy.setFailure(new PushyException("Request failed", new RuntimeException(new IOException("Connection reset"))));
+
+        CallbackContext subscribe = execute("subscribe", new JSONArray().put("news"));
+        assertNull(subscribe.awaitResult(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, getQueued("subscribe").length());
+
+        JvmPushy.setFailure(null);
+        replay();
+        assertOk(subscribe);
+    }
+
+    @Test
+    public void otherFailuresAreNotRetried() throws Exception {
+        JvmPushy.setFailure(new PushyException("Invalid topic", new IllegalArgumentException()));
+
+        CallbackContext subscribe = execute("subscribe", new JSONArray().put("news"));
+        assertEquals(PluginResult.Status.ERROR.ordinal(), subscribe.awaitResult(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(0, getQueued("subscribe").length());
+    }
+
+    private CallbackContext execute(String action, JSONArray args) throws Exception {
+        CallbackContext callback = new CallbackContext(action);
+        mPlugin.execute(action, args, callback);
+
+        // Network actions run on the plugin's network executor
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) PushyPlugin.getNetworkExecutor();
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (executor.getCompletedTaskCount() < executor.getTaskCount() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+
+        return callback;
+    }
+
+    private static void replay() throws InterruptedException {
+        mContext.getConnectivityManager().setConnected(true);
+
+        // Run the replay job like JobScheduler would
+        PushyOperationJobService service = new PushyOperationJobService();
+        service.attach(mContext);
+
+        assertTrue(service.onStartJob(new JobParameters(0)));
+        assertTrue(service.awaitFinished(5, TimeUnit.SECONDS));
+        assertFalse(service.wantsReschedule());
+    }
+
+    private static JSONArray getQueued(String operation) throws Exception {
+        JSONObject status = PushyOperationQueue.getStatus(mContext);
+        return status.getJSONArray(operation);
+    }
+
+    private static void assertOk(CallbackContext callback) throws InterruptedException {
+        PluginResult result = callback.awaitResult(5, TimeUnit.SECONDS);
+        assertEquals(result != null ? result.getMessage() : "no result", PluginResult.Status.OK.ordinal(), result.getStatus());
+    }
+}
@@ -0,0 +1,124 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.Intent;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.Random;
+
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PushyPayloadTest {
+    // PushyPayload keeps its caches in statics, so the whole class shares one app
+    private static JvmContext mContext;
+    private static int mNextId;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        mContext = JvmContext.createTemporary();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        mContext.delete();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        getClickPayloads().clear();
+    }
+
+    @Test
+    public void consumersShareOneConversion() throws JSONException {
+        Intent intent = push(10);
+
+        // Both receivers get their own copy of the same broadcast
+        JSONObject first = PushyPayload.fromIntent(intent).getJSON();
+        JSONObject second = PushyPayload.fromIntent(new Intent(intent)).getJSON();
+
+        assertSame(first, second);
+        assertEquals("Hello", second.getString("message"));
+    }
+
+    @Test
+    public void largeClickPayloadFileIsDeletedAfterReading() throws Exception {
+        Intent launchIntent = click(push(32 * 1024));
+        assertEquals(1, countClickPayloadFiles());
+
+        // Process restarted before the click, only the file is left
+        getClickPayloads().clear();
+
+        JSONObject notification = PushyPayload.fromClickIntent(launchIntent, mContext);
+        assertNotNull(notification);
+        assertEquals(32 * 1024, notification.getString("data").length());
+        assertEquals(0, countClickPayloadFiles());
+
+        // Already consumed
+        assertNull(PushyPayload.fromClickIntent(launchIntent, mContext));
+    }
+
+    @Test
+    public void largeClickPayloadFileIsDeletedOnInMemoryClick() throws Exception {
+        Intent launchIntent = click(push(32 * 1024));
+        assertEquals(1, countClickPayloadFiles());
+
+        assertNotNull(PushyPayload.fromClickIntent(launchIntent, mContext));
+        assertEquals(0, countClickPayloadFiles());
+    }
+
+    @Test
+    public void clickResolvesToTheReceivedConversion() throws JSONException {
+        Intent push = push(10);
+        Intent launchIntent = click(push);
+
+        // No re-parse while the payload is still in memory
+        assertSame(PushyPayload.fromIntent(push).getJSON(), PushyPayload.fromClickIntent(launchIntent, mContext));
+    }
+
+    private static Intent push(int size) {
+        StringBuilder data = new StringBuilder();
+        Random random = new Random(size);
+
+        // Random text, so the payload stays large once encoded
+        for (int i = 0; i < size; i++) {
+            data.append((char) ('a' + random.nextInt(26)));
+        }
+
+        return new Intent("pushy.me")
+                .putExtra("messageId", "m" + mNextId++)
+                .putExtra("message", "Hello")
+                .putExtra("data", data.toString());
+    }
+
+    private static Intent click(Intent push) {
+        Intent launchIntent = new Intent();
+        PushyPayload.putClickExtras(launchIntent, PushyPayload.fromIntent(push), mContext);
+        return launchIntent;
+    }
+
+    private static int countClickPayloadFiles() {
+        File[] files = new File(mContext.getCacheDir(), "pushy-click-payloads").listFiles();
+        return files != null ? files.length : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, PushyPayload> getClickPayloads() throws Exception {
+        Field field = PushyPayload.class.getDeclaredField("mClickPayloads");
+        field.setAccessible(true);
+        return (Map<Long, PushyPayload>) field.get(null);
+    }
+}
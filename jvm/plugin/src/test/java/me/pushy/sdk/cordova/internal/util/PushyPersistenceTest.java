@@ -0,0 +1,93 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+
+public class PushyPersistenceTest {
+    // PushyPersistence keeps its store in a static, so the whole class shares one app
+    private static JvmContext mContext;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        mContext = JvmContext.createTemporary();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        mContext.delete();
+    }
+
+    @Before
+    public void setUp() {
+        PushyPersistence.clearPendingNotifications(mContext);
+    }
+
+    @Test
+    public void defaultLimitsKeepEveryNotification() throws JSONException {
+        // Well past the old 500 notification and 1MB defaults
+        for (int i = 0; i < 600; i++) {
+            PushyPersistence.persistNotification(notification(i, 4096), mContext);
+        }
+
+        JSONObject stats = PushyPersistence.getPendingNotificationStats(mContext);
+        assertEquals(600, stats.getInt("count"));
+        assertEquals(0, stats.getInt("evicted"));
+    }
+
+    @Test
+    public void batchesFollowArrivalOrder() throws JSONException {
+        for (int i = 0; i < 25; i++) {
+            PushyPersistence.persistNotification(notification(i, 64), mContext);
+        }
+
+        // Page through the backlog and acknowledge each batch
+        List<Integer> sequence = new ArrayList<>();
+        JSONArray batch = PushyPersistence.getPendingNotificationBatch(0, -1, 10, mContext);
+
+        while (batch.length() > 0) {
+            List<Long> ids = new ArrayList<>();
+
+            for (int i = 0; i < batch.length(); i++) {
+                JSONObject item = batch.getJSONObject(i);
+                ids.add(item.getLong("id"));
+                sequence.add(item.getJSONObject("notification").getInt("seq"));
+            }
+
+            PushyPersistence.removePendingNotifications(ids, mContext);
+            batch = PushyPersistence.getPendingNotificationBatch(0, -1, 10, mContext);
+        }
+
+        assertEquals(25, sequence.size());
+
+        for (int i = 0; i < sequence.size(); i++) {
+            assertEquals(i, (int) sequence.get(i));
+        }
+    }
+
+    static JSONObject notification(int seq, int size) throws JSONException {
+        StringBuilder body = new StringBuilder();
+
+        while (body.length() < size) {
+            body.append('x');
+        }
+
+        JSONObject notification = new JSONObject();
+        notification.put("seq", seq);
+        notification.put("message", body.toString());
+
+        return notification;
+    }
+}
@@ -0,0 +1,12 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import java.io.IOException;
+
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+public class PushyPreferencesNotificationStoreConformanceTest extends PushyNotificationStoreConformanceTest {
+    @Override
+    protected PushyNotificationStore open(JvmContext context) throws IOException {
+        return new PushyPreferencesNotificationStore(context);
+    }
+}
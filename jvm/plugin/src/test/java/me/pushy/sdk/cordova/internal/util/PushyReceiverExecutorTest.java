@@ -0,0 +1,90 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PushyReceiverExecutorTest {
+    @Test
+    public void burstKeepsArrivalOrder() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> order = new ArrayList<>();
+        BroadcastReceiver receiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                // Not used, work is handed to the executor directly
+            }
+        };
+
+        // Hold the worker so the burst piles up in the queue
+        PushyReceiverExecutor.execute(receiver, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        // Release the worker while the burst is still coming in
+        Thread releaser = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+
+                release.countDown();
+            }
+        });
+
+        releaser.start();
+
+        for (int i = 0; i < 3000; i++) {
+            final int seq = i;
+
+            PushyReceiverExecutor.execute(receiver, new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (order) {
+                        order.add(seq);
+                    }
+                }
+            });
+        }
+
+        releaser.join();
+        long deadline = System.currentTimeMillis() + 5000;
+
+        // Every broadcast released means all work ran
+        while (BroadcastReceiver.getUnfinishedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(BroadcastReceiver.getUnfinishedCount() == 0);
+
+        // Nothing ran ahead of queued work
+        synchronized (order) {
+            assertEquals(3000, order.size());
+
+            for (int i = 0; i < order.size(); i++) {
+                assertEquals(i, (int) order.get(i));
+            }
+        }
+    }
+}
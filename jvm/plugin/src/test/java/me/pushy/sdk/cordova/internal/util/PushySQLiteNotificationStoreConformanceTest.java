@@ -0,0 +1,46 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Collections;
+
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+
+public class PushySQLiteNotificationStoreConformanceTest extends PushyNotificationStoreConformanceTest {
+    @Override
+    protected PushyNotificationStore open(JvmContext context) throws IOException {
+        return new PushySQLiteNotificationStore(context);
+    }
+
+    @Test
+    public void statementsAreNotLeaked() throws Exception {
+        SQLiteDatabase database = getDatabase();
+        int open = database.getOpenStatementCount();
+
+        for (int i = 0; i < 50; i++) {
+            long id = mStore.append(payload(i), i, 0);
+            mStore.remove(Collections.singletonList(id));
+            mStore.evict(1, 0, Long.MIN_VALUE);
+        }
+
+        assertEquals(open, database.getOpenStatementCount());
+
+        // Closing the store releases its cached statements too
+        mStore.close();
+        assertEquals(0, database.getOpenStatementCount());
+
+        mStore = open(mContext);
+    }
+
+    private SQLiteDatabase getDatabase() throws Exception {
+        Field field = PushySQLiteNotificationStore.class.getDeclaredField("mDatabase");
+        field.setAccessible(true);
+        return (SQLiteDatabase) field.get(mStore);
+    }
+}
@@ -0,0 +1,133 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import me.pushy.sdk.cordova.jvm.JvmContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PushyStorageBackendSwitchTest {
+    private static final int WRITERS = 4;
+    private static final int NOTIFICATIONS_PER_WRITER = 150;
+
+    private static JvmContext mContext;
+
+    @BeforeClass
+    public static void setUpClass() throws IOException {
+        mContext = JvmContext.createTemporary();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        mContext.delete();
+    }
+
+    @Test
+    public void switchingUnderConcurrentWritesLosesNothing() throws Exception {
+        PushyPersistence.clearPendingNotifications(mContext);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+
+        // Writers persist notifications while the backend keeps changing underneath them
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+
+                        for (int i = 0; i < NOTIFICATIONS_PER_WRITER; i++) {
+                            PushyPersistence.persistNotification(PushyPersistenceTest.notification(writer * NOTIFICATIONS_PER_WRITER + i, 32), mContext);
+                        }
+                    }
+                    catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+
+            thread.start();
+            writers.add(thread);
+        }
+
+        String[] backends = new String[]{PushyNotificationStore.SQLITE, PushyNotificationStore.SHARED_PREFERENCES, PushyNotificationStore.JOURNAL};
+        start.countDown();
+
+        for (int i = 0; i < 12; i++) {
+            PushyPersistence.setStorageBackend(backends[i % backends.length], mContext);
+        }
+
+        for (Thread thread : writers) {
+            thread.join();
+        }
+
+        // Every notification made it into the active store exactly once
+        assertEquals(WRITERS * NOTIFICATIONS_PER_WRITER, drain().size());
+    }
+
+    @Test
+    public void switchKeepsArrivalOrderAndLanes() throws Exception {
+        PushyPersistence.clearPendingNotifications(mContext);
+
+        for (int i = 0; i < 20; i++) {
+            JSONObject notification = PushyPersistenceTest.notification(i, 16);
+            notification.put("priority", i % 5 == 0 ? "high" : "normal");
+            PushyPersistence.persistNotification(notification, mContext);
+        }
+
+        PushyPersistence.setStorageBackend(PushyNotificationStore.SQLITE, mContext);
+        PushyPersistence.setStorageBackend(PushyNotificationStore.SHARED_PREFERENCES, mContext);
+
+        // High lane first, arrival order within each lane
+        List<Integer> sequence = drain();
+        assertEquals(20, sequence.size());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i * 5, (int) sequence.get(i));
+        }
+
+        for (int i = 5; i < sequence.size(); i++) {
+            assertTrue(sequence.get(i) > sequence.get(i - 1));
+        }
+    }
+
+    private static List<Integer> drain() throws JSONException {
+        List<Integer> sequence = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        JSONArray batch = PushyPersistence.getPendingNotificationBatch(0, -1, 100, mContext);
+
+        while (batch.length() > 0) {
+            List<Long> ids = new ArrayList<>();
+
+            for (int i = 0; i < batch.length(); i++) {
+                JSONObject item = batch.getJSONObject(i);
+                int seq = item.getJSONObject("notification").getInt("seq");
+
+                assertTrue("Duplicate notification " + seq, seen.add(seq));
+                ids.add(item.getLong("id"));
+                sequence.add(seq);
+            }
+
+            PushyPersistence.removePendingNotifications(ids, mContext);
+            batch = PushyPersistence.getPendingNotificationBatch(0, -1, 100, mContext);
+        }
+
+        return sequence;
+    }
+}
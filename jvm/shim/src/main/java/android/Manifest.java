@@ -0,0 +1,11 @@
+package android;
+
+/**
+ * JVM stand-in for android.Manifest.
+ */
+public final class Manifest {
+    public static final class permission {
+        public static final String VIBRATE = "android.permission.VIBRATE";
+        public static final String WRITE_EXTERNAL_STORAGE = "android.permission.WRITE_EXTERNAL_STORAGE";
+    }
+}
@@ -0,0 +1,10 @@
+package android;
+
+/**
+ * JVM stand-in for android.R (framework resource IDs used by the plugin).
+ */
+public final class R {
+    public static final class drawable {
+        public static final int ic_dialog_info = 0x01080093;
+    }
+}
@@ -0,0 +1,47 @@
+package android.app;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.Intent;
+
+/**
+ * JVM stand-in for android.app.Activity: a context with a launch intent and a finishing state.
+ */
+public class Activity extends ContextWrapper {
+    private volatile Intent mIntent;
+    private volatile boolean mFinishing;
+    private volatile boolean mDestroyed;
+
+    public Activity() {
+        super(null);
+    }
+
+    public Activity(Context base, Intent intent) {
+        super(base);
+        mIntent = intent;
+    }
+
+    public Intent getIntent() {
+        return mIntent;
+    }
+
+    public void setIntent(Intent intent) {
+        mIntent = intent;
+    }
+
+    public void finish() {
+        mFinishing = true;
+    }
+
+    public boolean isFinishing() {
+        return mFinishing;
+    }
+
+    public void onDestroyed() {
+        mDestroyed = true;
+    }
+
+    public boolean isDestroyed() {
+        return mDestroyed;
+    }
+}
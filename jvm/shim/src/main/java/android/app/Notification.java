@@ -0,0 +1,182 @@
+package android.app;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM stand-in for android.app.Notification and its builder.
+ */
+public class Notification {
+    public static final int GROUP_ALERT_ALL = 0;
+    public static final int GROUP_ALERT_SUMMARY = 1;
+    public static final int GROUP_ALERT_CHILDREN = 2;
+
+    public static final int FLAG_ONLY_ALERT_ONCE = 0x00000008;
+    public static final int FLAG_AUTO_CANCEL = 0x00000010;
+    public static final int FLAG_GROUP_SUMMARY = 0x00000200;
+
+    public static final String EXTRA_TITLE = "android.title";
+    public static final String EXTRA_TEXT = "android.text";
+    public static final String EXTRA_TEXT_LINES = "android.textLines";
+
+    public int icon;
+    public int number;
+    public int flags;
+    public long[] vibrate;
+    public Uri sound;
+    public PendingIntent contentIntent;
+    public Bundle extras = new Bundle();
+
+    private String mGroup;
+    private String mChannelId;
+    private int mGroupAlertBehavior = GROUP_ALERT_ALL;
+
+    public String getGroup() {
+        return mGroup;
+    }
+
+    public String getChannelId() {
+        return mChannelId;
+    }
+
+    public int getGroupAlertBehavior() {
+        return mGroupAlertBehavior;
+    }
+
+    public static class Builder {
+        private final Notification mNotification = new Notification();
+        private Style mStyle;
+
+        public Builder(Context context) {
+        }
+
+        public Builder setAutoCancel(boolean autoCancel) {
+            return setFlag(FLAG_AUTO_CANCEL, autoCancel);
+        }
+
+        public Builder setOnlyAlertOnce(boolean onlyAlertOnce) {
+            return setFlag(FLAG_ONLY_ALERT_ONCE, onlyAlertOnce);
+        }
+
+        public Builder setGroupSummary(boolean groupSummary) {
+            return setFlag(FLAG_GROUP_SUMMARY, groupSummary);
+        }
+
+        public Builder setContentTitle(CharSequence title) {
+            mNotification.extras.putString(EXTRA_TITLE, title != null ? title.toString() : null);
+            return this;
+        }
+
+        public Builder setContentText(CharSequence text) {
+            mNotification.extras.putString(EXTRA_TEXT, text != null ? text.toString() : null);
+            return this;
+        }
+
+        public Builder setSmallIcon(int icon) {
+            mNotification.icon = icon;
+            return this;
+        }
+
+        public Builder setNumber(int number) {
+            mNotification.number = number;
+            return this;
+        }
+
+        public Builder setVibrate(long[] pattern) {
+            mNotification.vibrate = pattern;
+            return this;
+        }
+
+        public Builder setSound(Uri sound) {
+            mNotification.sound = sound;
+            return this;
+        }
+
+        public Builder setContentIntent(PendingIntent intent) {
+            mNotification.contentIntent = intent;
+            return this;
+        }
+
+        public Builder setGroup(String group) {
+            mNotification.mGroup = group;
+            return this;
+        }
+
+        public Builder setGroupAlertBehavior(int behavior) {
+            mNotification.mGroupAlertBehavior = behavior;
+            return this;
+        }
+
+        public Builder setChannelId(String channelId) {
+            mNotification.mChannelId = channelId;
+            return this;
+        }
+
+        public Builder setStyle(Style style) {
+            mStyle = style;
+            return this;
+        }
+
+        public Notification build() {
+            // Apply the style to a copy so the builder can keep being used
+            Notification notification = new Notification();
+            notification.icon = mNotification.icon;
+            notification.number = mNotification.number;
+            notification.flags = mNotification.flags;
+            notification.vibrate = mNotification.vibrate;
+            notification.sound = mNotification.sound;
+            notification.contentIntent = mNotification.contentIntent;
+            notification.extras = new Bundle(mNotification.extras);
+            notification.mGroup = mNotification.mGroup;
+            notification.mChannelId = mNotification.mChannelId;
+            notification.mGroupAlertBehavior = mNotification.mGroupAlertBehavior;
+
+            if (mStyle != null) {
+                mStyle.apply(notification.extras);
+            }
+
+            return notification;
+        }
+
+        private Builder setFlag(int flag, boolean value) {
+            mNotification.flags = value ? mNotification.flags | flag : mNotification.flags & ~flag;
+            return this;
+        }
+    }
+
+    public static abstract class Style {
+        abstract void apply(Bundle extras);
+    }
+
+    public static class InboxStyle extends Style {
+        private final List<CharSequence> mLines = new ArrayList<>();
+        private CharSequence mBigContentTitle;
+
+        public InboxStyle setBigContentTitle(CharSequence title) {
+            mBigContentTitle = title;
+            return this;
+        }
+
+        public InboxStyle setSummaryText(CharSequence text) {
+            return this;
+        }
+
+        public InboxStyle addLine(CharSequence line) {
+            mLines.add(line);
+            return this;
+        }
+
+        @Override
+        void apply(Bundle extras) {
+            extras.putCharSequenceArray(EXTRA_TEXT_LINES, mLines.toArray(new CharSequence[mLines.size()]));
+
+            if (mBigContentTitle != null) {
+                extras.putString(EXTRA_TITLE + ".big", mBigContentTitle.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package android.app;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JVM stand-in for android.app.NotificationManager, recording what was posted.
+ */
+public class NotificationManager {
+    private final Map<Integer, Notification> mActive = new LinkedHashMap<>();
+    private final List<Notification> mPosted = new ArrayList<>();
+
+    public synchronized void notify(int id, Notification notification) {
+        mActive.put(id, notification);
+        mPosted.add(notification);
+    }
+
+    public synchronized void cancel(int id) {
+        mActive.remove(id);
+    }
+
+    public synchronized Map<Integer, Notification> getActiveNotifications() {
+        return new LinkedHashMap<>(mActive);
+    }
+
+    public synchronized List<Notification> getPostedNotifications() {
+        return new ArrayList<>(mPosted);
+    }
+}
@@ -0,0 +1,39 @@
+package android.app;
+
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * JVM stand-in for android.app.PendingIntent, keeping the wrapped intent for inspection.
+ */
+public final class PendingIntent {
+    public static final int FLAG_UPDATE_CURRENT = 0x08000000;
+    public static final int FLAG_IMMUTABLE = 0x04000000;
+
+    private final int mRequestCode;
+    private final Intent mIntent;
+    private final int mFlags;
+
+    private PendingIntent(int requestCode, Intent intent, int flags) {
+        mRequestCode = requestCode;
+        mIntent = intent;
+        mFlags = flags;
+    }
+
+    public static PendingIntent getActivity(Context context, int requestCode, Intent intent, int flags) {
+        // Snapshot of the intent at creation time
+        return new PendingIntent(requestCode, new Intent(intent), flags);
+    }
+
+    public int getRequestCode() {
+        return mRequestCode;
+    }
+
+    public Intent getIntent() {
+        return mIntent;
+    }
+
+    public int getFlags() {
+        return mFlags;
+    }
+}
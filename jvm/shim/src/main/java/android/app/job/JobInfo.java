@@ -0,0 +1,71 @@
+package android.app.job;
+
+import android.content.ComponentName;
+
+/**
+ * JVM stand-in for android.app.job.JobInfo.
+ */
+public class JobInfo {
+    public static final int NETWORK_TYPE_NONE = 0;
+    public static final int NETWORK_TYPE_ANY = 1;
+    public static final int BACKOFF_POLICY_LINEAR = 0;
+    public static final int BACKOFF_POLICY_EXPONENTIAL = 1;
+
+    private final int mId;
+    private final ComponentName mService;
+    private int mNetworkType;
+    private long mMinLatency;
+    private boolean mPersisted;
+
+    private JobInfo(int id, ComponentName service) {
+        mId = id;
+        mService = service;
+    }
+
+    public int getId() {
+        return mId;
+    }
+
+    public ComponentName getService() {
+        return mService;
+    }
+
+    public int getNetworkType() {
+        return mNetworkType;
+    }
+
+    public long getMinLatencyMillis() {
+        return mMinLatency;
+    }
+
+    public boolean isPersisted() {
+        return mPersisted;
+    }
+
+    public static final class Builder {
+        private final JobInfo mJob;
+
+        public Builder(int jobId, ComponentName service) {
+            mJob = new JobInfo(jobId, service);
+        }
+
+        public Builder setRequiredNetworkType(int networkType) {
+            mJob.mNetworkType = networkType;
+            return this;
+        }
+
+        public Builder setMinimumLatency(long minLatencyMillis) {
+            mJob.mMinLatency = minLatencyMillis;
+            return this;
+        }
+
+        public Builder setPersisted(boolean persisted) {
+            mJob.mPersisted = persisted;
+            return this;
+        }
+
+        public JobInfo build() {
+            return mJob;
+        }
+    }
+}
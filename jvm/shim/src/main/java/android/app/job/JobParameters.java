@@ -0,0 +1,16 @@
+package android.app.job;
+
+/**
+ * JVM stand-in for android.app.job.JobParameters.
+ */
+public class JobParameters {
+    private final int mJobId;
+
+    public JobParameters(int jobId) {
+        mJobId = jobId;
+    }
+
+    public int getJobId() {
+        return mJobId;
+    }
+}
@@ -0,0 +1,27 @@
+package android.app.job;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JVM stand-in for android.app.job.JobScheduler, remembering scheduled jobs (nothing runs them).
+ */
+public class JobScheduler {
+    public static final int RESULT_FAILURE = 0;
+    public static final int RESULT_SUCCESS = 1;
+
+    private final Map<Integer, JobInfo> mJobs = new HashMap<>();
+
+    public synchronized int schedule(JobInfo job) {
+        mJobs.put(job.getId(), job);
+        return RESULT_SUCCESS;
+    }
+
+    public synchronized void cancel(int jobId) {
+        mJobs.remove(jobId);
+    }
+
+    public synchronized JobInfo getPendingJob(int jobId) {
+        return mJobs.get(jobId);
+    }
+}
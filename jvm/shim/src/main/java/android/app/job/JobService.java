@@ -0,0 +1,40 @@
+package android.app.job;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM stand-in for android.app.job.JobService.
+ */
+public abstract class JobService extends ContextWrapper {
+    private final CountDownLatch mFinished = new CountDownLatch(1);
+    private volatile boolean mRescheduled;
+
+    public JobService() {
+        super(null);
+    }
+
+    public void attach(Context base) {
+        attachBaseContext(base);
+    }
+
+    public abstract boolean onStartJob(JobParameters params);
+
+    public abstract boolean onStopJob(JobParameters params);
+
+    public final void jobFinished(JobParameters params, boolean wantsReschedule) {
+        mRescheduled = wantsReschedule;
+        mFinished.countDown();
+    }
+
+    public boolean awaitFinished(long timeout, TimeUnit unit) throws InterruptedException {
+        return mFinished.await(timeout, unit);
+    }
+
+    public boolean wantsReschedule() {
+        return mRescheduled;
+    }
+}
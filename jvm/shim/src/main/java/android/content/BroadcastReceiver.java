@@ -0,0 +1,39 @@
+package android.content;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JVM stand-in for android.content.BroadcastReceiver.
+ *
+ * goAsync() hands out a pending result that just records whether it was finished, and keeps
+ * count of the ones still outstanding.
+ */
+public abstract class BroadcastReceiver {
+    private static final AtomicInteger mUnfinished = new AtomicInteger();
+
+    public abstract void onReceive(Context context, Intent intent);
+
+    public final PendingResult goAsync() {
+        mUnfinished.incrementAndGet();
+        return new PendingResult();
+    }
+
+    public static int getUnfinishedCount() {
+        // Broadcasts kept alive with goAsync() and not finished yet
+        return mUnfinished.get();
+    }
+
+    public static class PendingResult {
+        private final AtomicBoolean mFinished = new AtomicBoolean();
+
+        public final void finish() {
+            // Finishing twice is a bug on the platform
+            if (!mFinished.compareAndSet(false, true)) {
+                throw new IllegalStateException("Broadcast already finished");
+            }
+
+            mUnfinished.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package android.content;
+
+import android.content.res.Configuration;
+
+/**
+ * JVM stand-in for android.content.ComponentCallbacks.
+ */
+public interface ComponentCallbacks {
+    void onConfigurationChanged(Configuration configuration);
+
+    void onLowMemory();
+}
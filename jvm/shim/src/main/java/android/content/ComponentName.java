@@ -0,0 +1,36 @@
+package android.content;
+
+/**
+ * JVM stand-in for android.content.ComponentName.
+ */
+public final class ComponentName {
+    private final String mPackage;
+    private final String mClass;
+
+    public ComponentName(String pkg, String cls) {
+        mPackage = pkg;
+        mClass = cls;
+    }
+
+    public ComponentName(Context context, Class<?> cls) {
+        this(context.getPackageName(), cls.getName());
+    }
+
+    public String getPackageName() {
+        return mPackage;
+    }
+
+    public String getClassName() {
+        return mClass;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ComponentName && mPackage.equals(((ComponentName) other).mPackage) && mClass.equals(((ComponentName) other).mClass);
+    }
+
+    @Override
+    public int hashCode() {
+        return mPackage.hashCode() * 31 + mClass.hashCode();
+    }
+}
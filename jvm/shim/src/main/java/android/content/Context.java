@@ -0,0 +1,39 @@
+package android.content;
+
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.content.res.Resources;
+
+import java.io.File;
+
+/**
+ * JVM stand-in for android.content.Context (the subset used by the plugin).
+ */
+public abstract class Context {
+    public static final String NOTIFICATION_SERVICE = "notification";
+    public static final String JOB_SCHEDULER_SERVICE = "jobscheduler";
+    public static final String CONNECTIVITY_SERVICE = "connectivity";
+    public static final int MODE_PRIVATE = 0;
+
+    public abstract Context getApplicationContext();
+
+    public abstract File getFilesDir();
+
+    public abstract File getCacheDir();
+
+    public abstract File getDatabasePath(String name);
+
+    public abstract String getPackageName();
+
+    public abstract Resources getResources();
+
+    public abstract PackageManager getPackageManager();
+
+    public abstract ApplicationInfo getApplicationInfo();
+
+    public abstract Object getSystemService(String name);
+
+    public abstract SharedPreferences getSharedPreferences(String name, int mode);
+
+    public abstract void registerComponentCallbacks(ComponentCallbacks callback);
+}
@@ -0,0 +1,140 @@
+package android.content;
+
+import android.os.Bundle;
+
+/**
+ * JVM stand-in for android.content.Intent (action, component, flags and extras).
+ */
+public class Intent {
+    public static final int FLAG_ACTIVITY_NEW_TASK = 0x10000000;
+    public static final int FLAG_ACTIVITY_SINGLE_TOP = 0x20000000;
+    public static final int FLAG_ACTIVITY_CLEAR_TOP = 0x04000000;
+
+    private String mAction;
+    private ComponentName mComponent;
+    private int mFlags;
+    private Bundle mExtras;
+
+    public Intent() {
+    }
+
+    public Intent(String action) {
+        mAction = action;
+    }
+
+    public Intent(Intent other) {
+        mAction = other.mAction;
+        mComponent = other.mComponent;
+        mFlags = other.mFlags;
+        mExtras = other.mExtras != null ? new Bundle(other.mExtras) : null;
+    }
+
+    public Intent(Context context, Class<?> cls) {
+        mComponent = new ComponentName(context, cls);
+    }
+
+    public String getAction() {
+        return mAction;
+    }
+
+    public Intent setAction(String action) {
+        mAction = action;
+        return this;
+    }
+
+    public ComponentName getComponent() {
+        return mComponent;
+    }
+
+    public Intent setComponent(ComponentName component) {
+        mComponent = component;
+        return this;
+    }
+
+    public int getFlags() {
+        return mFlags;
+    }
+
+    public Intent addFlags(int flags) {
+        mFlags |= flags;
+        return this;
+    }
+
+    public Intent setFlags(int flags) {
+        mFlags = flags;
+        return this;
+    }
+
+    public Bundle getExtras() {
+        // A copy, like the platform
+        return mExtras != null ? new Bundle(mExtras) : null;
+    }
+
+    public boolean hasExtra(String name) {
+        return mExtras != null && mExtras.containsKey(name);
+    }
+
+    public Intent putExtras(Bundle extras) {
+        getOrCreateExtras().putAll(extras);
+        return this;
+    }
+
+    public Intent putExtra(String name, String value) {
+        getOrCreateExtras().putString(name, value);
+        return this;
+    }
+
+    public Intent putExtra(String name, boolean value) {
+        getOrCreateExtras().putBoolean(name, value);
+        return this;
+    }
+
+    public Intent putExtra(String name, int value) {
+        getOrCreateExtras().putInt(name, value);
+        return this;
+    }
+
+    public Intent putExtra(String name, long value) {
+        getOrCreateExtras().putLong(name, value);
+        return this;
+    }
+
+    public Intent putExtra(String name, byte[] value) {
+        getOrCreateExtras().putByteArray(name, value);
+        return this;
+    }
+
+    public void removeExtra(String name) {
+        if (mExtras != null) {
+            mExtras.remove(name);
+        }
+    }
+
+    public String getStringExtra(String name) {
+        return mExtras != null ? mExtras.getString(name) : null;
+    }
+
+    public boolean getBooleanExtra(String name, boolean defaultValue) {
+        return mExtras != null ? mExtras.getBoolean(name, defaultValue) : defaultValue;
+    }
+
+    public int getIntExtra(String name, int defaultValue) {
+        return mExtras != null ? mExtras.getInt(name, defaultValue) : defaultValue;
+    }
+
+    public long getLongExtra(String name, long defaultValue) {
+        return mExtras != null ? mExtras.getLong(name, defaultValue) : defaultValue;
+    }
+
+    public byte[] getByteArrayExtra(String name) {
+        return mExtras != null ? mExtras.getByteArray(name) : null;
+    }
+
+    private Bundle getOrCreateExtras() {
+        if (mExtras == null) {
+            mExtras = new Bundle();
+        }
+
+        return mExtras;
+    }
+}
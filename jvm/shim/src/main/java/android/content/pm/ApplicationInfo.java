@@ -0,0 +1,8 @@
+package android.content.pm;
+
+/**
+ * JVM stand-in for android.content.pm.ApplicationInfo.
+ */
+public class ApplicationInfo {
+    public String packageName;
+}
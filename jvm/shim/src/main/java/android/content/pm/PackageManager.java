@@ -0,0 +1,12 @@
+package android.content.pm;
+
+import android.content.Intent;
+
+/**
+ * JVM stand-in for android.content.pm.PackageManager.
+ */
+public abstract class PackageManager {
+    public abstract CharSequence getApplicationLabel(ApplicationInfo info);
+
+    public abstract Intent getLaunchIntentForPackage(String packageName);
+}
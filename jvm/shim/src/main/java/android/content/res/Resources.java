@@ -0,0 +1,20 @@
+package android.content.res;
+
+/**
+ * JVM stand-in for android.content.res.Resources (no app resources exist on the JVM).
+ */
+public class Resources {
+    public int getIdentifier(String name, String defType, String defPackage) {
+        return 0;
+    }
+
+    public String getQuantityString(int id, int quantity, Object... formatArgs) {
+        throw new NotFoundException("Resource ID #0x" + Integer.toHexString(id));
+    }
+
+    public static class NotFoundException extends RuntimeException {
+        public NotFoundException(String name) {
+            super(name);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package android.database;
+
+import java.io.Closeable;
+
+/**
+ * JVM stand-in for android.database.Cursor (forward iteration over a materialized result).
+ */
+public interface Cursor extends Closeable {
+    int getCount();
+
+    int getPosition();
+
+    boolean moveToFirst();
+
+    boolean moveToNext();
+
+    int getColumnCount();
+
+    int getColumnIndex(String columnName);
+
+    boolean isNull(int column);
+
+    int getInt(int column);
+
+    long getLong(int column);
+
+    double getDouble(int column);
+
+    String getString(int column);
+
+    byte[] getBlob(int column);
+
+    boolean isClosed();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,142 @@
+package android.database;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JVM stand-in for android.database.MatrixCursor, a cursor over in-memory rows.
+ */
+public class MatrixCursor implements Cursor {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final String[] mColumns;
+    private final List<Object[]> mRows = new ArrayList<>();
+    private int mPosition = -1;
+    private boolean mClosed;
+
+    public MatrixCursor(String[] columnNames) {
+        mColumns = columnNames;
+    }
+
+    public void addRow(Object[] columnValues) {
+        mRows.add(Arrays.copyOf(columnValues, mColumns.length));
+    }
+
+    @Override
+    public int getCount() {
+        return mRows.size();
+    }
+
+    @Override
+    public int getPosition() {
+        return mPosition;
+    }
+
+    @Override
+    public boolean moveToFirst() {
+        mPosition = 0;
+        return !mRows.isEmpty();
+    }
+
+    @Override
+    public boolean moveToNext() {
+        if (mPosition >= mRows.size()) {
+            return false;
+        }
+
+        mPosition++;
+        return mPosition < mRows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return mColumns.length;
+    }
+
+    @Override
+    public int getColumnIndex(String columnName) {
+        return Arrays.asList(mColumns).indexOf(columnName);
+    }
+
+    @Override
+    public boolean isNull(int column) {
+        return get(column) == null;
+    }
+
+    @Override
+    public int getInt(int column) {
+        return (int) getLong(column);
+    }
+
+    @Override
+    public long getLong(int column) {
+        Object value = get(column);
+
+        if (value == null) {
+            return 0;
+        }
+
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+
+        return Long.parseLong(value.toString());
+    }
+
+    @Override
+    public double getDouble(int column) {
+        Object value = get(column);
+
+        if (value == null) {
+            return 0;
+        }
+
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+    }
+
+    @Override
+    public String getString(int column) {
+        Object value = get(column);
+
+        if (value == null) {
+            return null;
+        }
+
+        return value instanceof byte[] ? new String((byte[]) value, UTF8) : value.toString();
+    }
+
+    @Override
+    public byte[] getBlob(int column) {
+        Object value = get(column);
+
+        if (value == null) {
+            return null;
+        }
+
+        return value instanceof byte[] ? (byte[]) value : value.toString().getBytes(UTF8);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return mClosed;
+    }
+
+    @Override
+    public void close() {
+        mClosed = true;
+    }
+
+    private Object get(int column) {
+        if (mClosed) {
+            throw new IllegalStateException("Cursor is closed");
+        }
+
+        if (mPosition < 0 || mPosition >= mRows.size()) {
+            throw new IllegalStateException("Cursor index out of bounds: " + mPosition);
+        }
+
+        return mRows.get(mPosition)[column];
+    }
+}
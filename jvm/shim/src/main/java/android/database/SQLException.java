@@ -0,0 +1,14 @@
+package android.database;
+
+/**
+ * JVM stand-in for android.database.SQLException.
+ */
+public class SQLException extends RuntimeException {
+    public SQLException(String message) {
+        super(message);
+    }
+
+    public SQLException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
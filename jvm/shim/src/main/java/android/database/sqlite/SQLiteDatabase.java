@@ -0,0 +1,357 @@
+package android.database.sqlite;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JVM stand-in for android.database.sqlite.SQLiteDatabase on top of sqlite-jdbc.
+ *
+ * Like the platform, a transaction holds the database exclusively for its thread; every other
+ * call from other threads waits for it to end. Compiled statements are counted until closed so
+ * tests can catch leaks.
+ */
+public final class SQLiteDatabase {
+    private final Connection mConnection;
+    private final ReentrantLock mLock = new ReentrantLock();
+    private final AtomicInteger mOpenStatements = new AtomicInteger();
+    private int mTransactionDepth;
+    private boolean mTransactionFailed;
+    private final ArrayDeque<Boolean> mLevels = new ArrayDeque<>();
+
+    public interface CursorFactory {
+    }
+
+    SQLiteDatabase(Connection connection) {
+        mConnection = connection;
+    }
+
+    public void execSQL(String sql) {
+        lock();
+
+        try {
+            Statement statement = mConnection.createStatement();
+
+            try {
+                statement.execute(sql);
+            }
+            finally {
+                statement.close();
+            }
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+        finally {
+            mLock.unlock();
+        }
+    }
+
+    public void execSQL(String sql, Object[] bindArgs) {
+        lock();
+
+        try {
+            PreparedStatement statement = mConnection.prepareStatement(sql);
+
+            try {
+                for (int i = 0; i < bindArgs.length; i++) {
+                    statement.setObject(i + 1, bindArgs[i]);
+                }
+
+                statement.execute();
+            }
+            finally {
+                statement.close();
+            }
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+        finally {
+            mLock.unlock();
+        }
+    }
+
+    public Cursor rawQuery(String sql, String[] selectionArgs) {
+        lock();
+
+        try {
+            PreparedStatement statement = mConnection.prepareStatement(sql);
+
+            try {
+                // String arguments, like the platform (column affinity converts them)
+                if (selectionArgs != null) {
+                    for (int i = 0; i < selectionArgs.length; i++) {
+                        statement.setString(i + 1, selectionArgs[i]);
+                    }
+                }
+
+                return materialize(statement.executeQuery());
+            }
+            finally {
+                statement.close();
+            }
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+        finally {
+            mLock.unlock();
+        }
+    }
+
+    public SQLiteStatement compileStatement(String sql) {
+        lock();
+
+        try {
+            SQLiteStatement statement = new SQLiteStatement(this, mConnection.prepareStatement(sql));
+            mOpenStatements.incrementAndGet();
+            return statement;
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+        finally {
+            mLock.unlock();
+        }
+    }
+
+    public long insert(String table, String nullColumnHack, ContentValues values) {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder placeholders = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+
+        for (Map.Entry<String, Object> value : values.valueSet()) {
+            columns.append(columns.length() > 0 ? ", " : "").append(value.getKey());
+            placeholders.append(placeholders.length() > 0 ? ", " : "").append('?');
+            args.add(value.getValue());
+        }
+
+        SQLiteStatement statement = compileStatement("INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")");
+
+        try {
+            bindAll(statement, args);
+            return statement.executeInsert();
+        }
+        finally {
+            statement.close();
+        }
+    }
+
+    public int update(String table, ContentValues values, String whereClause, String[] whereArgs) {
+        StringBuilder assignments = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+
+        for (Map.Entry<String, Object> value : values.valueSet()) {
+            assignments.append(assignments.length() > 0 ? ", " : "").append(value.getKey()).append(" = ?");
+            args.add(value.getValue());
+        }
+
+        if (whereArgs != null) {
+            for (String arg : whereArgs) {
+                args.add(arg);
+            }
+        }
+
+        SQLiteStatement statement = compileStatement("UPDATE " + table + " SET " + assignments + (whereClause != null ? " WHERE " + whereClause : ""));
+
+        try {
+            bindAll(statement, args);
+            return statement.executeUpdateDelete();
+        }
+        finally {
+            statement.close();
+        }
+    }
+
+    public int delete(String table, String whereClause, String[] whereArgs) {
+        SQLiteStatement statement = compileStatement("DELETE FROM " + table + (whereClause != null ? " WHERE " + whereClause : ""));
+
+        try {
+            if (whereArgs != null) {
+                for (int i = 0; i < whereArgs.length; i++) {
+                    statement.bindString(i + 1, whereArgs[i]);
+                }
+            }
+
+            return statement.executeUpdateDelete();
+        }
+        finally {
+            statement.close();
+        }
+    }
+
+    public void beginTransaction() {
+        // Held until the matching endTransaction()
+        lock();
+
+        try {
+            if (mTransactionDepth == 0) {
+                mConnection.setAutoCommit(false);
+                mTransactionFailed = false;
+            }
+
+            mTransactionDepth++;
+            mLevels.push(false);
+        }
+        catch (SQLException e) {
+            mLock.unlock();
+            throw new SQLiteException(e.getMessage(), e);
+        }
+    }
+
+    public void setTransactionSuccessful() {
+        checkTransaction();
+        mLevels.pop();
+        mLevels.push(true);
+    }
+
+    public void endTransaction() {
+        checkTransaction();
+
+        try {
+            // Any level that didn't succeed rolls back the whole transaction
+            if (!mLevels.pop()) {
+                mTransactionFailed = true;
+            }
+
+            if (--mTransactionDepth == 0) {
+                if (mTransactionFailed) {
+                    mConnection.rollback();
+                }
+                else {
+                    mConnection.commit();
+                }
+
+                mConnection.setAutoCommit(true);
+            }
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+        finally {
+            mLock.unlock();
+        }
+    }
+
+    public boolean inTransaction() {
+        return mLock.isHeldByCurrentThread() && mTransactionDepth > 0;
+    }
+
+    public boolean isOpen() {
+        try {
+            return !mConnection.isClosed();
+        }
+        catch (SQLException e) {
+            return false;
+        }
+    }
+
+    public int getOpenStatementCount() {
+        return mOpenStatements.get();
+    }
+
+    void close() {
+        lock();
+
+        try {
+            mConnection.close();
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+        finally {
+            mLock.unlock();
+        }
+    }
+
+    void lock() {
+        mLock.lock();
+
+        // Closed databases throw like the platform
+        try {
+            if (mConnection.isClosed()) {
+                mLock.unlock();
+                throw new IllegalStateException("attempt to re-open an already-closed object: SQLiteDatabase");
+            }
+        }
+        catch (SQLException e) {
+            mLock.unlock();
+            throw new SQLiteException(e.getMessage(), e);
+        }
+    }
+
+    void unlock() {
+        mLock.unlock();
+    }
+
+    void onStatementClosed() {
+        mOpenStatements.decrementAndGet();
+    }
+
+    private void checkTransaction() {
+        if (!mLock.isHeldByCurrentThread() || mTransactionDepth == 0) {
+            throw new IllegalStateException("no transaction pending");
+        }
+    }
+
+    private static void bindAll(SQLiteStatement statement, List<Object> args) {
+        for (int i = 0; i < args.size(); i++) {
+            Object arg = args.get(i);
+
+            if (arg == null) {
+                statement.bindNull(i + 1);
+            }
+            else if (arg instanceof byte[]) {
+                statement.bindBlob(i + 1, (byte[]) arg);
+            }
+            else if (arg instanceof Number) {
+                statement.bindLong(i + 1, ((Number) arg).longValue());
+            }
+            else {
+                statement.bindString(i + 1, arg.toString());
+            }
+        }
+    }
+
+    private static Cursor materialize(ResultSet results) throws SQLException {
+        try {
+            ResultSetMetaData metadata = results.getMetaData();
+            String[] columns = new String[metadata.getColumnCount()];
+
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = metadata.getColumnLabel(i + 1);
+            }
+
+            MatrixCursor cursor = new MatrixCursor(columns);
+
+            while (results.next()) {
+                Object[] row = new Object[columns.length];
+
+                for (int i = 0; i < columns.length; i++) {
+                    row[i] = results.getObject(i + 1);
+                }
+
+                cursor.addRow(row);
+            }
+
+            return cursor;
+        }
+        finally {
+            results.close();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package android.database.sqlite;
+
+/**
+ * JVM stand-in for android.database.sqlite.SQLiteDoneException (a simple query returned no rows).
+ */
+public class SQLiteDoneException extends SQLiteException {
+    public SQLiteDoneException() {
+        super("No rows");
+    }
+}
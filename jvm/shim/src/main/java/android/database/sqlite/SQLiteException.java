@@ -0,0 +1,16 @@
+package android.database.sqlite;
+
+import android.database.SQLException;
+
+/**
+ * JVM stand-in for android.database.sqlite.SQLiteException.
+ */
+public class SQLiteException extends SQLException {
+    public SQLiteException(String message) {
+        super(message);
+    }
+
+    public SQLiteException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
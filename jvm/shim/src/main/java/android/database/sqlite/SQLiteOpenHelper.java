@@ -0,0 +1,100 @@
+package android.database.sqlite;
+
+import android.content.Context;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * JVM stand-in for android.database.sqlite.SQLiteOpenHelper, opening a sqlite-jdbc connection
+ * to the context's database path and running onCreate/onUpgrade against PRAGMA user_version.
+ */
+public abstract class SQLiteOpenHelper {
+    private final Context mContext;
+    private final String mName;
+    private final int mVersion;
+    private boolean mWriteAheadLogging;
+    private SQLiteDatabase mDatabase;
+
+    public SQLiteOpenHelper(Context context, String name, SQLiteDatabase.CursorFactory factory, int version) {
+        mContext = context;
+        mName = name;
+        mVersion = version;
+    }
+
+    public abstract void onCreate(SQLiteDatabase db);
+
+    public abstract void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion);
+
+    public void onConfigure(SQLiteDatabase db) {
+    }
+
+    public synchronized void setWriteAheadLoggingEnabled(boolean enabled) {
+        mWriteAheadLogging = enabled;
+    }
+
+    public synchronized SQLiteDatabase getReadableDatabase() {
+        return getWritableDatabase();
+    }
+
+    public synchronized SQLiteDatabase getWritableDatabase() {
+        // Already open?
+        if (mDatabase != null && mDatabase.isOpen()) {
+            return mDatabase;
+        }
+
+        File file = mContext.getDatabasePath(mName);
+        file.getParentFile().mkdirs();
+
+        try {
+            Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+            SQLiteDatabase db = new SQLiteDatabase(connection);
+
+            if (mWriteAheadLogging) {
+                db.rawQuery("PRAGMA journal_mode=WAL", null).close();
+            }
+
+            onConfigure(db);
+
+            // Create or upgrade the schema
+            android.database.Cursor cursor = db.rawQuery("PRAGMA user_version", null);
+            int version = cursor.moveToNext() ? cursor.getInt(0) : 0;
+            cursor.close();
+
+            if (version != mVersion) {
+                db.beginTransaction();
+
+                try {
+                    if (version == 0) {
+                        onCreate(db);
+                    }
+                    else {
+                        onUpgrade(db, version, mVersion);
+                    }
+
+                    db.execSQL("PRAGMA user_version = " + mVersion);
+                    db.setTransactionSuccessful();
+                }
+                finally {
+                    db.endTransaction();
+                }
+            }
+
+            mDatabase = db;
+            return db;
+        }
+        catch (SQLException e) {
+            throw new SQLiteException("Failed to open database " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized void close() {
+        if (mDatabase != null && mDatabase.isOpen()) {
+            mDatabase.close();
+        }
+
+        mDatabase = null;
+    }
+}
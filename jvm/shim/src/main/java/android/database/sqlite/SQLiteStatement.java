@@ -0,0 +1,179 @@
+package android.database.sqlite;
+
+import java.io.Closeable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * JVM stand-in for android.database.sqlite.SQLiteStatement, a compiled statement that can be
+ * re-bound and executed many times until closed.
+ */
+public final class SQLiteStatement implements Closeable {
+    private final SQLiteDatabase mDatabase;
+    private final PreparedStatement mStatement;
+    private boolean mClosed;
+
+    SQLiteStatement(SQLiteDatabase database, PreparedStatement statement) {
+        mDatabase = database;
+        mStatement = statement;
+    }
+
+    public void bindNull(int index) {
+        try {
+            mStatement.setNull(index, Types.NULL);
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+    }
+
+    public void bindLong(int index, long value) {
+        try {
+            mStatement.setLong(index, value);
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+    }
+
+    public void bindString(int index, String value) {
+        // Null is rejected, like the platform
+        if (value == null) {
+            throw new IllegalArgumentException("the bind value at index " + index + " is null");
+        }
+
+        try {
+            mStatement.setString(index, value);
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+    }
+
+    public void bindBlob(int index, byte[] value) {
+        if (value == null) {
+            throw new IllegalArgumentException("the bind value at index " + index + " is null");
+        }
+
+        try {
+            mStatement.setBytes(index, value);
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+    }
+
+    public void clearBindings() {
+        try {
+            mStatement.clearParameters();
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+    }
+
+    public void execute() {
+        executeUpdateDelete();
+    }
+
+    public int executeUpdateDelete() {
+        mDatabase.lock();
+
+        try {
+            checkOpen();
+            return mStatement.executeUpdate();
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+        finally {
+            mDatabase.unlock();
+        }
+    }
+
+    public long executeInsert() {
+        mDatabase.lock();
+
+        try {
+            checkOpen();
+
+            // -1 if nothing was inserted
+            if (mStatement.executeUpdate() == 0) {
+                return -1;
+            }
+
+            Statement rowId = mStatement.getConnection().createStatement();
+
+            try {
+                ResultSet results = rowId.executeQuery("SELECT last_insert_rowid()");
+                results.next();
+                return results.getLong(1);
+            }
+            finally {
+                rowId.close();
+            }
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+        finally {
+            mDatabase.unlock();
+        }
+    }
+
+    public long simpleQueryForLong() {
+        mDatabase.lock();
+
+        try {
+            checkOpen();
+            ResultSet results = mStatement.executeQuery();
+
+            try {
+                if (!results.next()) {
+                    throw new SQLiteDoneException();
+                }
+
+                return results.getLong(1);
+            }
+            finally {
+                results.close();
+            }
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+        finally {
+            mDatabase.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (mClosed) {
+                return;
+            }
+
+            mClosed = true;
+        }
+
+        try {
+            mStatement.close();
+        }
+        catch (SQLException e) {
+            throw new SQLiteException(e.getMessage(), e);
+        }
+        finally {
+            mDatabase.onStatementClosed();
+        }
+    }
+
+    private void checkOpen() {
+        if (mClosed) {
+            throw new IllegalStateException("attempt to re-open an already-closed object: SQLiteStatement");
+        }
+    }
+}
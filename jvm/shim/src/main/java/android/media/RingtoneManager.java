@@ -0,0 +1,14 @@
+package android.media;
+
+import android.net.Uri;
+
+/**
+ * JVM stand-in for android.media.RingtoneManager.
+ */
+public class RingtoneManager {
+    public static final int TYPE_NOTIFICATION = 2;
+
+    public static Uri getDefaultUri(int type) {
+        return Uri.parse("content://settings/system/notification_sound");
+    }
+}
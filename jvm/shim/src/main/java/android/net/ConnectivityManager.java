@@ -0,0 +1,16 @@
+package android.net;
+
+/**
+ * JVM stand-in for android.net.ConnectivityManager with a switchable connection state.
+ */
+public class ConnectivityManager {
+    private volatile boolean mConnected = true;
+
+    public NetworkInfo getActiveNetworkInfo() {
+        return mConnected ? new NetworkInfo(true) : null;
+    }
+
+    public void setConnected(boolean connected) {
+        mConnected = connected;
+    }
+}
@@ -0,0 +1,16 @@
+package android.net;
+
+/**
+ * JVM stand-in for android.net.NetworkInfo.
+ */
+public class NetworkInfo {
+    private final boolean mConnected;
+
+    public NetworkInfo(boolean connected) {
+        mConnected = connected;
+    }
+
+    public boolean isConnected() {
+        return mConnected;
+    }
+}
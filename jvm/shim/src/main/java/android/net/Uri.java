@@ -0,0 +1,21 @@
+package android.net;
+
+/**
+ * JVM stand-in for android.net.Uri.
+ */
+public final class Uri {
+    private final String mValue;
+
+    private Uri(String value) {
+        mValue = value;
+    }
+
+    public static Uri parse(String value) {
+        return new Uri(value);
+    }
+
+    @Override
+    public String toString() {
+        return mValue;
+    }
+}
@@ -0,0 +1,18 @@
+package android.os;
+
+/**
+ * JVM stand-in for android.os.Build. SDK_INT is writable so tests can emulate older releases.
+ */
+public class Build {
+    public static class VERSION {
+        public static int SDK_INT = VERSION_CODES.O;
+    }
+
+    public static class VERSION_CODES {
+        public static final int KITKAT = 19;
+        public static final int LOLLIPOP = 21;
+        public static final int M = 23;
+        public static final int N = 24;
+        public static final int O = 26;
+    }
+}
@@ -0,0 +1,106 @@
+package android.os;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JVM stand-in for android.os.Bundle, a typed map of values.
+ */
+public final class Bundle {
+    private final Map<String, Object> mMap;
+
+    public Bundle() {
+        mMap = new LinkedHashMap<>();
+    }
+
+    public Bundle(Bundle other) {
+        mMap = new LinkedHashMap<>(other.mMap);
+    }
+
+    public int size() {
+        return mMap.size();
+    }
+
+    public boolean isEmpty() {
+        return mMap.isEmpty();
+    }
+
+    public Set<String> keySet() {
+        return mMap.keySet();
+    }
+
+    public boolean containsKey(String key) {
+        return mMap.containsKey(key);
+    }
+
+    public Object get(String key) {
+        return mMap.get(key);
+    }
+
+    public void remove(String key) {
+        mMap.remove(key);
+    }
+
+    public void putAll(Bundle bundle) {
+        mMap.putAll(bundle.mMap);
+    }
+
+    public void putString(String key, String value) {
+        mMap.put(key, value);
+    }
+
+    public void putBoolean(String key, boolean value) {
+        mMap.put(key, value);
+    }
+
+    public void putInt(String key, int value) {
+        mMap.put(key, value);
+    }
+
+    public void putLong(String key, long value) {
+        mMap.put(key, value);
+    }
+
+    public void putDouble(String key, double value) {
+        mMap.put(key, value);
+    }
+
+    public void putByteArray(String key, byte[] value) {
+        mMap.put(key, value);
+    }
+
+    public void putCharSequenceArray(String key, CharSequence[] value) {
+        mMap.put(key, value);
+    }
+
+    public String getString(String key) {
+        Object value = mMap.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object value = mMap.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Object value = mMap.get(key);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        Object value = mMap.get(key);
+        return value instanceof Long ? (Long) value : defaultValue;
+    }
+
+    public byte[] getByteArray(String key) {
+        Object value = mMap.get(key);
+        return value instanceof byte[] ? (byte[]) value : null;
+    }
+
+    public CharSequence[] getCharSequenceArray(String key) {
+        Object value = mMap.get(key);
+        return value instanceof CharSequence[] ? (CharSequence[]) value : null;
+    }
+}
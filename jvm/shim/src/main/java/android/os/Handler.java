@@ -0,0 +1,78 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM stand-in for android.os.Handler, posting to its looper's thread.
+ */
+public class Handler {
+    private final Looper mLooper;
+    private final Map<Runnable, List<Future<?>>> mPending = new HashMap<>();
+
+    public Handler(Looper looper) {
+        mLooper = looper;
+    }
+
+    public final Looper getLooper() {
+        return mLooper;
+    }
+
+    public final boolean post(Runnable runnable) {
+        return postDelayed(runnable, 0);
+    }
+
+    public final boolean postDelayed(final Runnable runnable, long delayMillis) {
+        final Future<?>[] self = new Future<?>[1];
+
+        synchronized (mPending) {
+            self[0] = mLooper.getQueue().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (mPending) {
+                        forget(runnable, self[0]);
+                    }
+
+                    runnable.run();
+                }
+            }, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+
+            List<Future<?>> futures = mPending.get(runnable);
+
+            if (futures == null) {
+                futures = new ArrayList<>();
+                mPending.put(runnable, futures);
+            }
+
+            futures.add(self[0]);
+        }
+
+        return true;
+    }
+
+    public final void removeCallbacks(Runnable runnable) {
+        synchronized (mPending) {
+            List<Future<?>> futures = mPending.remove(runnable);
+
+            if (futures == null) {
+                return;
+            }
+
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private void forget(Runnable runnable, Future<?> future) {
+        List<Future<?>> futures = mPending.get(runnable);
+
+        if (futures != null && futures.remove(future) && futures.isEmpty()) {
+            mPending.remove(runnable);
+        }
+    }
+}
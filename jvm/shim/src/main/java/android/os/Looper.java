@@ -0,0 +1,46 @@
+package android.os;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * JVM stand-in for android.os.Looper. The main looper is a single daemon thread named "main".
+ */
+public final class Looper {
+    private static final Looper mMainLooper = new Looper("main");
+
+    final ScheduledThreadPoolExecutor mQueue;
+    private volatile Thread mThread;
+
+    private Looper(final String name) {
+        mQueue = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                mThread = thread;
+                return thread;
+            }
+        });
+
+        // Cancelled callbacks must not pile up in the queue
+        mQueue.setRemoveOnCancelPolicy(true);
+    }
+
+    public static Looper getMainLooper() {
+        return mMainLooper;
+    }
+
+    public static Looper myLooper() {
+        return Thread.currentThread() == mMainLooper.mThread ? mMainLooper : null;
+    }
+
+    public Thread getThread() {
+        return mThread;
+    }
+
+    ScheduledExecutorService getQueue() {
+        return mQueue;
+    }
+}
@@ -0,0 +1,7 @@
+package android.os;
+
+/**
+ * JVM stand-in for android.os.PersistableBundle.
+ */
+public final class PersistableBundle {
+}
@@ -0,0 +1,26 @@
+package android.os;
+
+/**
+ * JVM stand-in for android.os.SystemClock, backed by the monotonic JVM clock. Tests can move it
+ * forward with advance() instead of sleeping through timeouts.
+ */
+public final class SystemClock {
+    private static final long START = System.nanoTime();
+    private static volatile long mOffsetNanos;
+
+    public static long uptimeMillis() {
+        return elapsedRealtimeNanos() / 1000000;
+    }
+
+    public static long elapsedRealtime() {
+        return uptimeMillis();
+    }
+
+    public static long elapsedRealtimeNanos() {
+        return System.nanoTime() - START + mOffsetNanos;
+    }
+
+    public static synchronized void advance(long millis) {
+        mOffsetNanos += millis * 1000000;
+    }
+}
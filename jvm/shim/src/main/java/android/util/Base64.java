@@ -0,0 +1,20 @@
+package android.util;
+
+/**
+ * JVM stand-in for android.util.Base64 (standard alphabet).
+ */
+public class Base64 {
+    public static final int DEFAULT = 0;
+    public static final int NO_PADDING = 1;
+    public static final int NO_WRAP = 2;
+
+    public static String encodeToString(byte[] input, int flags) {
+        java.util.Base64.Encoder encoder = (flags & NO_WRAP) != 0 ? java.util.Base64.getEncoder() : java.util.Base64.getMimeEncoder();
+        return (flags & NO_PADDING) != 0 ? encoder.withoutPadding().encodeToString(input) : encoder.encodeToString(input);
+    }
+
+    public static byte[] decode(String input, int flags) {
+        // Bad input throws IllegalArgumentException, like the platform
+        return java.util.Base64.getMimeDecoder().decode(input);
+    }
+}
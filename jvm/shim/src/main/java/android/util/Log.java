@@ -0,0 +1,45 @@
+package android.util;
+
+/**
+ * JVM stand-in for android.util.Log. Warnings and errors go to stderr, the rest only with
+ * -Dpushy.log.verbose=true.
+ */
+public final class Log {
+    private static final boolean VERBOSE = Boolean.getBoolean("pushy.log.verbose");
+    private static final boolean QUIET = Boolean.getBoolean("pushy.log.quiet");
+
+    public static int d(String tag, String message) {
+        return VERBOSE ? print("D", tag, message, null) : 0;
+    }
+
+    public static int i(String tag, String message) {
+        return VERBOSE ? print("I", tag, message, null) : 0;
+    }
+
+    public static int w(String tag, String message) {
+        return print("W", tag, message, null);
+    }
+
+    public static int e(String tag, String message) {
+        return print("E", tag, message, null);
+    }
+
+    public static int e(String tag, String message, Throwable throwable) {
+        return print("E", tag, message, throwable);
+    }
+
+    private static int print(String level, String tag, String message, Throwable throwable) {
+        if (QUIET) {
+            return 0;
+        }
+
+        System.err.println(level + "/" + tag + ": " + message + (throwable != null && VERBOSE ? "\n" + stackTrace(throwable) : ""));
+        return message.length();
+    }
+
+    private static String stackTrace(Throwable throwable) {
+        java.io.StringWriter writer = new java.io.StringWriter();
+        throwable.printStackTrace(new java.io.PrintWriter(writer));
+        return writer.toString();
+    }
+}
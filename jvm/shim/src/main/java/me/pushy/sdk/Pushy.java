@@ -0,0 +1,75 @@
+package me.pushy.sdk;
+
+import android.content.Context;
+
+import me.pushy.sdk.cordova.jvm.JvmPushy;
+import me.pushy.sdk.util.exceptions.PushyException;
+
+/**
+ * JVM stand-in for the Pushy SDK entry point. Calls are recorded by JvmPushy, which also decides
+ * whether they fail.
+ */
+public class Pushy {
+    public static void listen(Context context) {
+        JvmPushy.record("listen");
+    }
+
+    public static String register(Context context) throws PushyException {
+        return JvmPushy.register();
+    }
+
+    public static boolean isRegistered(Context context) {
+        return JvmPushy.isRegistered();
+    }
+
+    public static void unregister(Context context) {
+        JvmPushy.unregister();
+    }
+
+    public static void subscribe(String topic, Context context) throws PushyException {
+        subscribe(new String[]{topic}, context);
+    }
+
+    public static void subscribe(String[] topics, Context context) throws PushyException {
+        JvmPushy.subscribe(topics, true);
+    }
+
+    public static void unsubscribe(String topic, Context context) throws PushyException {
+        unsubscribe(new String[]{topic}, context);
+    }
+
+    public static void unsubscribe(String[] topics, Context context) throws PushyException {
+        JvmPushy.subscribe(topics, false);
+    }
+
+    public static void setAppId(String appId, Context context) {
+        JvmPushy.record("setAppId:" + appId);
+    }
+
+    public static void setEnterpriseConfig(String apiEndpoint, String mqttEndpoint, Context context) {
+        JvmPushy.record("setEnterpriseConfig:" + apiEndpoint + "," + mqttEndpoint);
+    }
+
+    public static void setEnterpriseCertificate(String certificate, Context context) {
+        JvmPushy.record("setEnterpriseCertificate:" + certificate);
+    }
+
+    public static void setProxyEndpoint(String endpoint, Context context) {
+        JvmPushy.record("setProxyEndpoint:" + endpoint);
+    }
+
+    public static void toggleFCM(boolean value, Context context) {
+        JvmPushy.record("toggleFCM:" + value);
+    }
+
+    public static void toggleForegroundService(boolean value, Context context) {
+        JvmPushy.record("toggleForegroundService:" + value);
+    }
+
+    public static void setNotificationChannel(Object builder, Context context) {
+        // Same channel the SDK creates by default
+        if (builder instanceof android.app.Notification.Builder) {
+            ((android.app.Notification.Builder) builder).setChannelId("pushy_channel_id");
+        }
+    }
+}
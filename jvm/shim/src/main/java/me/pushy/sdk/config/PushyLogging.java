@@ -0,0 +1,8 @@
+package me.pushy.sdk.config;
+
+/**
+ * JVM stand-in for the Pushy SDK's logging config.
+ */
+public class PushyLogging {
+    public static final String TAG = "Pushy";
+}
@@ -0,0 +1,169 @@
+package me.pushy.sdk.cordova.jvm;
+
+import android.app.NotificationManager;
+import android.app.job.JobScheduler;
+import android.content.ComponentCallbacks;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.content.res.Resources;
+import android.net.ConnectivityManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Application context for the JVM: private directories under a root directory, in-memory
+ * SharedPreferences and recording system services.
+ */
+public class JvmContext extends Context {
+    public static final String PACKAGE_NAME = "me.pushy.sdk.cordova.jvm";
+    public static final String APP_NAME = "Pushy JVM";
+
+    private final File mRoot;
+    private final Map<String, SharedPreferences> mPreferences = new HashMap<>();
+    private final NotificationManager mNotificationManager = new NotificationManager();
+    private final JobScheduler mJobScheduler = new JobScheduler();
+    private final ConnectivityManager mConnectivityManager = new ConnectivityManager();
+    private final ApplicationInfo mApplicationInfo = new ApplicationInfo();
+    private final Resources mResources = new Resources();
+
+    private final PackageManager mPackageManager = new PackageManager() {
+        @Override
+        public CharSequence getApplicationLabel(ApplicationInfo info) {
+            return APP_NAME;
+        }
+
+        @Override
+        public Intent getLaunchIntentForPackage(String packageName) {
+            return new Intent("android.intent.action.MAIN").setComponent(new ComponentName(packageName, packageName + ".MainActivity"));
+        }
+    };
+
+    public JvmContext(File root) {
+        mRoot = root;
+        mApplicationInfo.packageName = PACKAGE_NAME;
+    }
+
+    public static JvmContext createTemporary() throws IOException {
+        // Fresh app data in a temp dir
+        return new JvmContext(Files.createTempDirectory("pushy-jvm").toFile());
+    }
+
+    public File getRoot() {
+        return mRoot;
+    }
+
+    public NotificationManager getNotificationManager() {
+        return mNotificationManager;
+    }
+
+    public JobScheduler getJobScheduler() {
+        return mJobScheduler;
+    }
+
+    public ConnectivityManager getConnectivityManager() {
+        return mConnectivityManager;
+    }
+
+    @Override
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    @Override
+    public File getFilesDir() {
+        return dir("files");
+    }
+
+    @Override
+    public File getCacheDir() {
+        return dir("cache");
+    }
+
+    @Override
+    public File getDatabasePath(String name) {
+        return new File(dir("databases"), name);
+    }
+
+    @Override
+    public String getPackageName() {
+        return PACKAGE_NAME;
+    }
+
+    @Override
+    public Resources getResources() {
+        return mResources;
+    }
+
+    @Override
+    public PackageManager getPackageManager() {
+        return mPackageManager;
+    }
+
+    @Override
+    public ApplicationInfo getApplicationInfo() {
+        return mApplicationInfo;
+    }
+
+    @Override
+    public Object getSystemService(String name) {
+        if (NOTIFICATION_SERVICE.equals(name)) {
+            return mNotificationManager;
+        }
+        else if (JOB_SCHEDULER_SERVICE.equals(name)) {
+            return mJobScheduler;
+        }
+        else if (CONNECTIVITY_SERVICE.equals(name)) {
+            return mConnectivityManager;
+        }
+
+        return null;
+    }
+
+    @Override
+    public synchronized SharedPreferences getSharedPreferences(String name, int mode) {
+        SharedPreferences preferences = mPreferences.get(name);
+
+        if (preferences == null) {
+            preferences = new JvmSharedPreferences();
+            mPreferences.put(name, preferences);
+        }
+
+        return preferences;
+    }
+
+    @Override
+    public void registerComponentCallbacks(ComponentCallbacks callback) {
+        // Configuration never changes on the JVM
+    }
+
+    public void delete() {
+        // Remove all app data
+        delete(mRoot);
+    }
+
+    private File dir(String name) {
+        File dir = new File(mRoot, name);
+        dir.mkdirs();
+        return dir;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+
+        file.delete();
+    }
+}
@@ -0,0 +1,74 @@
+package me.pushy.sdk.cordova.jvm;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.Intent;
+
+import org.apache.cordova.CordovaInterface;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cordova host for the JVM: one activity on top of a JvmContext and a cached thread pool like
+ * Cordova's.
+ */
+public class JvmCordova implements CordovaInterface {
+    private final Activity mActivity;
+    private final ThreadPoolExecutor mThreadPool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "CordovaPool-" + mCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    public JvmCordova(Context context) {
+        this(context, new Intent("android.intent.action.MAIN"));
+    }
+
+    public JvmCordova(Context context, Intent launchIntent) {
+        mActivity = new Activity(context, launchIntent);
+    }
+
+    @Override
+    public Activity getActivity() {
+        return mActivity;
+    }
+
+    @Override
+    public Context getContext() {
+        return mActivity;
+    }
+
+    @Override
+    public ExecutorService getThreadPool() {
+        return mThreadPool;
+    }
+
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        // Wait until every submitted action has run
+        while (mThreadPool.getCompletedTaskCount() < mThreadPool.getTaskCount()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+
+            Thread.sleep(1);
+        }
+
+        return true;
+    }
+
+    public void shutdown() {
+        mThreadPool.shutdown();
+    }
+}
@@ -0,0 +1,111 @@
+package me.pushy.sdk.cordova.jvm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import me.pushy.sdk.util.exceptions.PushyException;
+
+/**
+ * Server side of the Pushy SDK stand-in: records calls, keeps the registration and topic state
+ * and optionally fails calls (e.g. with an I/O cause to emulate lost connectivity).
+ */
+public class JvmPushy {
+    private static final List<String> mCalls = new ArrayList<>();
+    private static final Set<String> mTopics = new LinkedHashSet<>();
+    private static String mToken;
+    private static PushyException mFailure;
+    private static long mLatencyMs;
+
+    public static synchronized void reset() {
+        mCalls.clear();
+        mTopics.clear();
+        mToken = null;
+        mFailure = null;
+        mLatencyMs = 0;
+    }
+
+    public static synchronized void setFailure(PushyException failure) {
+        // Every network call throws this until cleared
+        mFailure = failure;
+    }
+
+    public static synchronized void setLatency(long latencyMs) {
+        mLatencyMs = latencyMs;
+    }
+
+    public static synchronized List<String> getCalls() {
+        return new ArrayList<>(mCalls);
+    }
+
+    public static synchronized Set<String> getTopics() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(mTopics));
+    }
+
+    public static synchronized void record(String call) {
+        mCalls.add(call);
+    }
+
+    public static String register() throws PushyException {
+        networkCall("register");
+
+        synchronized (JvmPushy.class) {
+            if (mToken == null) {
+                mToken = "jvm" + Long.toHexString(System.nanoTime());
+            }
+
+            return mToken;
+        }
+    }
+
+    public static synchronized boolean isRegistered() {
+        return mToken != null;
+    }
+
+    public static synchronized void unregister() {
+        mCalls.add("unregister");
+        mToken = null;
+        mTopics.clear();
+    }
+
+    public static void subscribe(String[] topics, boolean subscribe) throws PushyException {
+        networkCall((subscribe ? "subscribe:" : "unsubscribe:") + Arrays.toString(topics));
+
+        synchronized (JvmPushy.class) {
+            if (subscribe) {
+                mTopics.addAll(Arrays.asList(topics));
+            }
+            else {
+                mTopics.removeAll(Arrays.asList(topics));
+            }
+        }
+    }
+
+    private static void networkCall(String call) throws PushyException {
+        long latency;
+        PushyException failure;
+
+        synchronized (JvmPushy.class) {
+            mCalls.add(call);
+            latency = mLatencyMs;
+            failure = mFailure;
+        }
+
+        // Emulate the round trip
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
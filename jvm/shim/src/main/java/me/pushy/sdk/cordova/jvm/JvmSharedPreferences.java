@@ -0,0 +1,173 @@
+package me.pushy.sdk.cordova.jvm;
+
+import android.content.SharedPreferences;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory SharedPreferences. Edits are applied atomically; apply() and commit() behave the
+ * same since nothing is written to disk.
+ *
+ * Keeps count of the bytes a device would write: Android rewrites the whole file on every commit.
+ */
+public class JvmSharedPreferences implements SharedPreferences {
+    private static final AtomicLong mBytesWritten = new AtomicLong();
+
+    private final Map<String, Object> mValues = new HashMap<>();
+
+    public static long getBytesWritten() {
+        // Across all preference files
+        return mBytesWritten.get();
+    }
+
+    @Override
+    public synchronized Map<String, ?> getAll() {
+        return new HashMap<>(mValues);
+    }
+
+    @Override
+    public synchronized String getString(String key, String defValue) {
+        Object value = mValues.get(key);
+        return value != null ? (String) value : defValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized Set<String> getStringSet(String key, Set<String> defValues) {
+        Object value = mValues.get(key);
+        return value != null ? (Set<String>) value : defValues;
+    }
+
+    @Override
+    public synchronized int getInt(String key, int defValue) {
+        Object value = mValues.get(key);
+        return value != null ? (Integer) value : defValue;
+    }
+
+    @Override
+    public synchronized long getLong(String key, long defValue) {
+        Object value = mValues.get(key);
+        return value != null ? (Long) value : defValue;
+    }
+
+    @Override
+    public synchronized float getFloat(String key, float defValue) {
+        Object value = mValues.get(key);
+        return value != null ? (Float) value : defValue;
+    }
+
+    @Override
+    public synchronized boolean getBoolean(String key, boolean defValue) {
+        Object value = mValues.get(key);
+        return value != null ? (Boolean) value : defValue;
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        return mValues.containsKey(key);
+    }
+
+    @Override
+    public Editor edit() {
+        return new JvmEditor();
+    }
+
+    private class JvmEditor implements Editor {
+        private final Map<String, Object> mChanges = new HashMap<>();
+        private final Set<String> mRemovals = new HashSet<>();
+        private boolean mClear;
+
+        @Override
+        public Editor putString(String key, String value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor putStringSet(String key, Set<String> values) {
+            return put(key, values != null ? new HashSet<>(values) : null);
+        }
+
+        @Override
+        public Editor putInt(String key, int value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor putLong(String key, long value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor putFloat(String key, float value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor putBoolean(String key, boolean value) {
+            return put(key, value);
+        }
+
+        @Override
+        public synchronized Editor remove(String key) {
+            mRemovals.add(key);
+            return this;
+        }
+
+        @Override
+        public synchronized Editor clear() {
+            mClear = true;
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            synchronized (JvmSharedPreferences.this) {
+                synchronized (this) {
+                    // Clear first, then removals, then puts (platform order)
+                    if (mClear) {
+                        mValues.clear();
+                    }
+
+                    for (String key : mRemovals) {
+                        mValues.remove(key);
+                    }
+
+                    for (Map.Entry<String, Object> change : mChanges.entrySet()) {
+                        if (change.getValue() == null) {
+                            mValues.remove(change.getKey());
+                        }
+                        else {
+                            mValues.put(change.getKey(), change.getValue());
+                        }
+                    }
+                }
+
+                // The whole file is written out again
+                long size = 0;
+
+                for (Map.Entry<String, Object> entry : mValues.entrySet()) {
+                    size += entry.getKey().getBytes(StandardCharsets.UTF_8).length + entry.getValue().toString().getBytes(StandardCharsets.UTF_8).length;
+                }
+
+                mBytesWritten.addAndGet(size);
+            }
+
+            return true;
+        }
+
+        @Override
+        public void apply() {
+            commit();
+        }
+
+        private synchronized Editor put(String key, Object value) {
+            mChanges.put(key, value);
+            return this;
+        }
+    }
+}
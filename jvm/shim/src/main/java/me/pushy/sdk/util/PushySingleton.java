@@ -0,0 +1,13 @@
+package me.pushy.sdk.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * JVM stand-in for the Pushy SDK's settings holder.
+ */
+public class PushySingleton {
+    public static SharedPreferences getSettings(Context context) {
+        return context.getSharedPreferences("pushy", Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,10 @@
+package me.pushy.sdk.util;
+
+/**
+ * JVM stand-in for the Pushy SDK's string helpers.
+ */
+public class PushyStringUtils {
+    public static boolean stringIsNullOrEmpty(String value) {
+        return value == null || value.length() == 0;
+    }
+}
@@ -0,0 +1,14 @@
+package me.pushy.sdk.util.exceptions;
+
+/**
+ * JVM stand-in for the Pushy SDK's checked exception.
+ */
+public class PushyException extends Exception {
+    public PushyException(String message) {
+        super(message);
+    }
+
+    public PushyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,106 @@
+package org.apache.cordova;
+
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM stand-in for org.apache.cordova.CallbackContext. Results are recorded instead of being sent
+ * to a WebView; results sent after the callback finished are dropped with a warning, as in Cordova.
+ */
+public class CallbackContext {
+    private static final String LOG_TAG = "CordovaPlugin";
+
+    private final String mCallbackId;
+    private final List<PluginResult> mResults = new ArrayList<>();
+    private boolean mFinished;
+
+    public CallbackContext(String callbackId) {
+        mCallbackId = callbackId;
+    }
+
+    public String getCallbackId() {
+        return mCallbackId;
+    }
+
+    public synchronized boolean isFinished() {
+        return mFinished;
+    }
+
+    public void sendPluginResult(PluginResult pluginResult) {
+        synchronized (this) {
+            if (mFinished) {
+                Log.w(LOG_TAG, "Attempted to send a second callback for ID: " + mCallbackId + "\nResult was: " + pluginResult.getMessage());
+                return;
+            }
+
+            mFinished = !pluginResult.getKeepCallback();
+            mResults.add(pluginResult);
+            notifyAll();
+        }
+
+        onResult(pluginResult);
+    }
+
+    protected void onResult(PluginResult pluginResult) {
+        // Hook for subclasses
+    }
+
+    public synchronized List<PluginResult> getResults() {
+        return new ArrayList<>(mResults);
+    }
+
+    public synchronized PluginResult awaitResult(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        // Wait for the first result
+        while (mResults.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+
+            if (remaining <= 0) {
+                return null;
+            }
+
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+
+        return mResults.get(0);
+    }
+
+    public void success() {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK));
+    }
+
+    public void success(String message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void success(JSONObject message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void success(JSONArray message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void success(int message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void error(String message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+    }
+
+    public void error(JSONObject message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+    }
+
+    public void error(int message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+    }
+}
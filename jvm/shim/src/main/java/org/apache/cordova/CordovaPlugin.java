@@ -0,0 +1,44 @@
+package org.apache.cordova;
+
+import android.content.Intent;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+/**
+ * JVM stand-in for org.apache.cordova.CordovaPlugin.
+ */
+public class CordovaPlugin {
+    public CordovaInterface cordova;
+    public CordovaWebView webView;
+
+    public void initialize(CordovaInterface cordova, CordovaWebView webView) {
+        this.cordova = cordova;
+        this.webView = webView;
+    }
+
+    public boolean execute(String action, JSONArray args, CallbackContext callbackContext) throws JSONException {
+        return false;
+    }
+
+    public void onNewIntent(Intent intent) {
+    }
+
+    public void onStart() {
+    }
+
+    public void onStop() {
+    }
+
+    public void onPause(boolean multitasking) {
+    }
+
+    public void onResume(boolean multitasking) {
+    }
+
+    public void onReset() {
+    }
+
+    public void onDestroy() {
+    }
+}
@@ -0,0 +1,7 @@
+package org.apache.cordova;
+
+/**
+ * JVM stand-in for org.apache.cordova.CordovaWebView (no WebView on the JVM).
+ */
+public interface CordovaWebView {
+}
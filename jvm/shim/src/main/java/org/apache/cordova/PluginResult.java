@@ -0,0 +1,101 @@
+package org.apache.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.List;
+
+/**
+ * JVM stand-in for org.apache.cordova.PluginResult. Messages are encoded the way the bridge
+ * would send them to JS (getMessage()), raw strings are kept as well (getStrMessage()).
+ */
+public class PluginResult {
+    public static final int MESSAGE_TYPE_STRING = 1;
+    public static final int MESSAGE_TYPE_JSON = 2;
+    public static final int MESSAGE_TYPE_NUMBER = 3;
+    public static final int MESSAGE_TYPE_BOOLEAN = 4;
+    public static final int MESSAGE_TYPE_NULL = 5;
+    public static final int MESSAGE_TYPE_MULTIPART = 8;
+
+    public enum Status {
+        NO_RESULT,
+        OK,
+        CLASS_NOT_FOUND_EXCEPTION,
+        ILLEGAL_ACCESS_EXCEPTION,
+        INSTANTIATION_EXCEPTION,
+        MALFORMED_URL_EXCEPTION,
+        IO_EXCEPTION,
+        INVALID_ACTION,
+        JSON_EXCEPTION,
+        ERROR
+    }
+
+    private final int mStatus;
+    private final int mMessageType;
+    private final String mEncodedMessage;
+    private final String mStrMessage;
+    private boolean mKeepCallback;
+
+    public PluginResult(Status status) {
+        this(status, MESSAGE_TYPE_NULL, "null", null);
+    }
+
+    public PluginResult(Status status, String message) {
+        this(status, message == null ? MESSAGE_TYPE_NULL : MESSAGE_TYPE_STRING, message == null ? "null" : JSONObject.quote(message), message);
+    }
+
+    public PluginResult(Status status, JSONObject message) {
+        this(status, MESSAGE_TYPE_JSON, message.toString(), null);
+    }
+
+    public PluginResult(Status status, JSONArray message) {
+        this(status, MESSAGE_TYPE_JSON, message.toString(), null);
+    }
+
+    public PluginResult(Status status, int message) {
+        this(status, MESSAGE_TYPE_NUMBER, String.valueOf(message), null);
+    }
+
+    public PluginResult(Status status, float message) {
+        this(status, MESSAGE_TYPE_NUMBER, String.valueOf(message), null);
+    }
+
+    public PluginResult(Status status, boolean message) {
+        this(status, MESSAGE_TYPE_BOOLEAN, String.valueOf(message), null);
+    }
+
+    public PluginResult(Status status, List<PluginResult> multipartMessages) {
+        this(status, MESSAGE_TYPE_MULTIPART, String.valueOf(multipartMessages.size()), null);
+    }
+
+    private PluginResult(Status status, int messageType, String encodedMessage, String strMessage) {
+        mStatus = status.ordinal();
+        mMessageType = messageType;
+        mEncodedMessage = encodedMessage;
+        mStrMessage = strMessage;
+    }
+
+    public void setKeepCallback(boolean keepCallback) {
+        mKeepCallback = keepCallback;
+    }
+
+    public boolean getKeepCallback() {
+        return mKeepCallback;
+    }
+
+    public int getStatus() {
+        return mStatus;
+    }
+
+    public int getMessageType() {
+        return mMessageType;
+    }
+
+    public String getMessage() {
+        return mEncodedMessage;
+    }
+
+    public String getStrMessage() {
+        return mStrMessage;
+    }
+}
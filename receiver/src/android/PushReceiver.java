@@ -4,104 +4,323 @@ import android.app.Notification;
 import android.app.PendingIntent;
 import android.content.Intent;
 import android.content.Context;
-import android.content.res.Resources;
 import android.media.RingtoneManager;
 import android.app.NotificationManager;
 import android.content.BroadcastReceiver;
+import android.content.res.Resources;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.SystemClock;
+
+import org.json.JSONObject;
 
-import me.pushy.sdk.cordova.internal.config.PushyIntentExtras;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import me.pushy.sdk.cordova.internal.util.PushyMessageDeduplicator;
+import me.pushy.sdk.cordova.internal.util.PushyNotificationFilters;
+import me.pushy.sdk.cordova.internal.util.PushyPayload;
 import me.pushy.sdk.cordova.internal.util.PushyPersistence;
+import me.pushy.sdk.cordova.internal.util.PushyReceiverExecutor;
+import me.pushy.sdk.cordova.internal.util.PushyRenderCache;
 
 public class PushReceiver extends BroadcastReceiver {
+    // Notifications posted by this receiver are bundled under a single group
+    private static final String NOTIFICATION_GROUP = "pushy";
+
+    // Fixed ID for the group summary notification
+    private static final int GROUP_SUMMARY_ID = -1;
+
+    // Maximum number of lines kept for the summary's inbox-style body
+    private static final int MAX_SUMMARY_LINES = 50;
+
+    // Maximum number of held notifications posted individually when a window closes (the rest only appear in the summary)
+    private static final int MAX_FLUSHED_NOTIFICATIONS = 3;
+
+    // Coalescing state, shared by all receiver instances
+    private static final Object mLock = new Object();
+    private static final List<Intent> mPendingIntents = new ArrayList<>();
+    private static final LinkedList<String> mSummaryLines = new LinkedList<>();
+    private static long mWindowEnd;
+    private static int mBurstCount;
+    private static boolean mFlushScheduled;
+
     @Override
-    public void onReceive(Context context, Intent intent) {
-        // Notification title and text
-        String notificationTitle = getAppName(context);
-        String notificationText = "";
+    public void onReceive(final Context context, final Intent intent) {
+        // Check, coalesce and display the notification off the main thread (deduplication and filters touch disk)
+        PushyReceiverExecutor.execute(this, new Runnable() {
+            @Override
+            public void run() {
+                handleNotification(context, intent);
+            }
+        });
+    }
 
-        // Attempt to extract the notification text from the "message" property of the data payload
-        if (intent.getStringExtra("message") != null) {
-            notificationText = intent.getStringExtra("message");
+    private void handleNotification(final Context context, Intent intent) {
+        // Get the payload (converted once per push, shared with PushyPushReceiver)
+        JSONObject payload = PushyPayload.fromIntent(intent).getJSON();
+
+        // Already shown (e.g. delivered via both the Pushy socket and FCM)?
+        if (PushyMessageDeduplicator.isDuplicate("receiver", payload, context)) {
+            return;
         }
 
-        // Attempt to extract the notification title from the "title" property of the data payload (defaults to the app name if not present)
-        if (intent.getStringExtra("title") != null) {
-            notificationTitle = intent.getStringExtra("title");
+        // Dropped or stored natively by a filter rule? Don't show anything
+        if (!PushyNotificationFilters.ACTION_FORWARD.equals(PushyNotificationFilters.getAction(payload, context))) {
+            return;
         }
 
-        // Prepare a notification with vibration and sound
+        // Get configured coalescing window
+        long window = PushyPersistence.getNotificationCoalescingWindow(context);
+        List<String> lines;
+
+        synchronized (mLock) {
+            long now = SystemClock.uptimeMillis();
+
+            // Coalescing disabled, or first notification after a quiet period?
+            if (window <= 0 || (now >= mWindowEnd && !mFlushScheduled)) {
+                // Start a new burst and show this notification right away
+                mWindowEnd = now + window;
+                mBurstCount = 1;
+                mSummaryLines.clear();
+                mSummaryLines.add(getSummaryLine(context, intent));
+                lines = new ArrayList<>(mSummaryLines);
+            }
+            else {
+                // Within the window, hold on to the notification until the window closes
+                mPendingIntents.add(intent);
+
+                // Flush already scheduled?
+                if (mFlushScheduled) {
+                    return;
+                }
+
+                // Flush when the window closes (this broadcast is kept alive until then)
+                mFlushScheduled = true;
+
+                PushyReceiverExecutor.defer(new Runnable() {
+                    @Override
+                    public void run() {
+                        flushPendingNotifications(context);
+                    }
+                }, mWindowEnd - now);
+
+                return;
+            }
+        }
+
+        // Show the notification and start a new summary, which carries the burst's single alert
+        showNotification(context, intent);
+        showGroupSummary(context, lines, 1, true);
+    }
+
+    private void flushPendingNotifications(Context context) {
+        List<Intent> intents;
+        List<String> lines;
+        int count;
+
+        synchronized (mLock) {
+            // Take everything that arrived during the window
+            intents = new ArrayList<>(mPendingIntents);
+            mPendingIntents.clear();
+            mFlushScheduled = false;
+
+            // Keep coalescing while the burst continues
+            mWindowEnd = SystemClock.uptimeMillis() + PushyPersistence.getNotificationCoalescingWindow(context);
+
+            // Add the new arrivals to the burst summary
+            for (Intent intent : intents) {
+                mSummaryLines.add(getSummaryLine(context, intent));
+
+                // Keep the most recent lines only
+                if (mSummaryLines.size() > MAX_SUMMARY_LINES) {
+                    mSummaryLines.removeFirst();
+                }
+            }
+
+            mBurstCount += intents.size();
+            lines = new ArrayList<>(mSummaryLines);
+            count = mBurstCount;
+        }
+
+        // Nothing arrived?
+        if (intents.isEmpty()) {
+            return;
+        }
+
+        // Post only the most recent held notifications silently (each opens its own payload), the summary lists the rest
+        for (Intent intent : intents.subList(Math.max(0, intents.size() - MAX_FLUSHED_NOTIFICATIONS), intents.size())) {
+            showNotification(context, intent);
+        }
+
+        // Update the burst summary without alerting again
+        showGroupSummary(context, lines, count, false);
+    }
+
+    private void showNotification(Context context, Intent intent) {
+        // Notification title and text
+        String notificationTitle = getNotificationTitle(context, intent);
+        String notificationText = getNotificationText(intent);
+
+        // Prepare a grouped notification (no vibration or sound, the group summary alerts for it)
         Notification.Builder builder = new Notification.Builder(context)
                 .setAutoCancel(true)
                 .setContentTitle(notificationTitle)
                 .setContentText(notificationText)
-                .setVibrate(new long[]{0, 400, 250, 400})
-                .setSmallIcon(getNotificationIcon(context))
-                .setSound(RingtoneManager.getDefaultUri(RingtoneManager.TYPE_NOTIFICATION))
+                .setSmallIcon(PushyRenderCache.getNotificationIcon(context))
+                .setGroup(NOTIFICATION_GROUP)
                 .setContentIntent(getMainActivityPendingIntent(context, intent));
 
+        // Android O+ alerts through the channel, so mute grouped children explicitly and leave alerting to the summary
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            builder.setGroupAlertBehavior(Notification.GROUP_ALERT_SUMMARY);
+        }
+
         // Get an instance of the NotificationManager service
         NotificationManager notificationManager = (NotificationManager) context.getSystemService(context.NOTIFICATION_SERVICE);
 
-        // Automatically configure a Notification Channel for devices running Android O+
-        Pushy.setNotificationChannel(builder, context);
+        // Automatically configure a Notification Channel for devices running Android O+ (once per process)
+        PushyRenderCache.setNotificationChannel(builder, context);
 
-        // Build the notification and display it
-        notificationManager.notify(1, builder.build());
+        // Build the notification and display it under its own ID
+        notificationManager.notify(getNotificationId(intent), builder.build());
     }
 
-    private int getNotificationIcon(Context context) {
-        // Attempt to fetch icon name from SharedPreferences
-        String icon = PushyPersistence.getNotificationIcon(context);
+    private void showGroupSummary(Context context, List<String> lines, int count, boolean alert) {
+        // Summary text
+        String summaryTitle = PushyRenderCache.getAppName(context);
+        String summaryText = getSummaryText(context, count);
+
+        // Inbox-style body with one line per notification
+        Notification.InboxStyle style = new Notification.InboxStyle()
+                .setBigContentTitle(summaryText);
+
+        for (String line : lines) {
+            style.addLine(line);
+        }
 
-        // Did we configure a custom icon?
-        if (icon != null) {
-            // Cache app resources
-            Resources resources = context.getResources();
+        // Prepare a summary notification with vibration and sound
+        Notification.Builder builder = new Notification.Builder(context)
+                .setAutoCancel(true)
+                .setContentTitle(summaryTitle)
+                .setContentText(summaryText)
+                .setNumber(count)
+                .setStyle(style)
+                .setVibrate(new long[]{0, 400, 250, 400})
+                .setSmallIcon(PushyRenderCache.getNotificationIcon(context))
+                .setSound(RingtoneManager.getDefaultUri(RingtoneManager.TYPE_NOTIFICATION))
+                .setGroup(NOTIFICATION_GROUP)
+                .setGroupSummary(true)
+                .setContentIntent(getLaunchPendingIntent(context));
 
-            // Cache app package name
-            String packageName = context.getPackageName();
+        // Alert once when a burst starts, later updates to the same summary stay silent
+        builder.setOnlyAlertOnce(!alert);
 
-            // Look for icon in drawable folders
-            int iconId = resources.getIdentifier(icon, "drawable", packageName);
+        // The summary alerts on behalf of its children
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            builder.setGroupAlertBehavior(Notification.GROUP_ALERT_SUMMARY);
+        }
 
-            // Found it?
-            if (iconId != 0) {
-                return iconId;
+        // Get an instance of the NotificationManager service
+        NotificationManager notificationManager = (NotificationManager) context.getSystemService(context.NOTIFICATION_SERVICE);
+
+        // Automatically configure a Notification Channel for devices running Android O+ (once per process)
+        PushyRenderCache.setNotificationChannel(builder, context);
+
+        // Build the summary and display it (replaces the previous summary)
+        notificationManager.notify(GROUP_SUMMARY_ID, builder.build());
+    }
+
+    private static String getSummaryText(Context context, int count) {
+        // Plural string from the app's resources (added by this plugin)
+        int id = context.getResources().getIdentifier("pushy_new_notifications", "plurals", context.getPackageName());
+
+        if (id != 0) {
+            try {
+                return context.getResources().getQuantityString(id, count, count);
+            }
+            catch (Resources.NotFoundException e) {
+                // Fall through to the built-in text
             }
+        }
 
-            // Look for icon in mipmap folders
-            iconId = resources.getIdentifier(icon, "mipmap", packageName);
+        return count == 1 ? "1 new notification" : count + " new notifications";
+    }
 
-            // Found it?
-            if (iconId != 0) {
-                return iconId;
+    private static String getNotificationTitle(Context context, Intent intent) {
+        // Attempt to extract the notification title from the "title" property of the data payload (defaults to the app name if not present)
+        if (intent.getStringExtra("title") != null) {
+            return intent.getStringExtra("title");
+        }
+
+        return PushyRenderCache.getAppName(context);
+    }
+
+    private static String getNotificationText(Intent intent) {
+        // Attempt to extract the notification text from the "message" property of the data payload
+        if (intent.getStringExtra("message") != null) {
+            return intent.getStringExtra("message");
+        }
+
+        return "";
+    }
+
+    private static String getSummaryLine(Context context, Intent intent) {
+        // Title and message on a single line
+        return getNotificationTitle(context, intent) + ": " + getNotificationText(intent);
+    }
+
+    private static int getNotificationId(Intent intent) {
+        // Get intent extras
+        Bundle extras = intent.getExtras();
+
+        // Attempt to use the "notId" property of the data payload
+        Object notId = extras != null ? extras.get("notId") : null;
+
+        if (notId != null) {
+            try {
+                return getNonSummaryId(Integer.parseInt(String.valueOf(notId)));
+            }
+            catch (NumberFormatException e) {
+                // Fall through to payload hash
             }
         }
 
-        // Fallback to generic icon
-        return android.R.drawable.ic_dialog_info;
+        // Derive a stable ID from the payload so identical pushes replace each other
+        return getNonSummaryId(PushyPayload.fromIntent(intent).toString().hashCode());
     }
 
-    private static String getAppName(Context context) {
-        // Attempt to determine app name via package manager
-        return context.getPackageManager().getApplicationLabel(context.getApplicationInfo()).toString();
+    private static int getNonSummaryId(int id) {
+        // Never replace the group summary (or reuse its PendingIntent)
+        return id == GROUP_SUMMARY_ID ? GROUP_SUMMARY_ID - 1 : id;
     }
 
     private PendingIntent getMainActivityPendingIntent(Context context, Intent receiverIntent) {
-        // Convert intent extras to JSON
-        String json = PushyPersistence.getJSONObjectFromIntentExtras(receiverIntent).toString();
+        // Get the payload (converted once per push, shared with PushyPushReceiver)
+        PushyPayload payload = PushyPayload.fromIntent(receiverIntent);
 
-        // Get launcher activity intent
-        Intent launchIntent = context.getPackageManager().getLaunchIntentForPackage(context.getApplicationContext().getPackageName());
+        // Get launcher activity intent (resolved once per process)
+        Intent launchIntent = PushyRenderCache.getLaunchIntent(context);
 
         // Make sure to update the activity if it exists
         launchIntent.addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP | Intent.FLAG_ACTIVITY_CLEAR_TOP);
 
-        // Pass payload data into PendingIntent
-        launchIntent.putExtra(PushyIntentExtras.NOTIFICATION_CLICKED, true);
-        launchIntent.putExtra(PushyIntentExtras.NOTIFICATION_PAYLOAD, json);
+        // Pass payload handle (and serialized payload if small enough) into PendingIntent
+        PushyPayload.putClickExtras(launchIntent, payload, context);
 
         // Convert intent into pending intent
-        return PendingIntent.getActivity(context, json.hashCode(), launchIntent, PendingIntent.FLAG_IMMUTABLE);
+        return PendingIntent.getActivity(context, getNonSummaryId(payload.toString().hashCode()), launchIntent, PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private PendingIntent getLaunchPendingIntent(Context context) {
+        // Get launcher activity intent (resolved once per process)
+        Intent launchIntent = PushyRenderCache.getLaunchIntent(context);
+
+        // Make sure to update the activity if it exists
+        launchIntent.addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+
+        // The summary stands for the whole burst, so it just opens the app (each notification carries its own payload)
+        return PendingIntent.getActivity(context, GROUP_SUMMARY_ID, launchIntent, PendingIntent.FLAG_IMMUTABLE);
     }
-}
\ No newline at end of file
+}
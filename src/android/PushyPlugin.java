@@ -4,6 +4,7 @@ import android.Manifest;
 import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
+import android.os.SystemClock;
 import android.util.Log;
 
 import org.apache.cordova.CallbackContext;
@@ -16,256 +17,1206 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.lang.reflect.Method;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import me.pushy.sdk.Pushy;
 import me.pushy.sdk.config.PushyLogging;
 import me.pushy.sdk.cordova.internal.config.PushyIntentExtras;
+import me.pushy.sdk.cordova.internal.util.PushyConfiguration;
+import me.pushy.sdk.cordova.internal.util.PushyEventChannel;
+import me.pushy.sdk.cordova.internal.util.PushyMetrics;
+import me.pushy.sdk.cordova.internal.util.PushyNotificationBuffer;
+import me.pushy.sdk.cordova.internal.util.PushyNotificationFilters;
+import me.pushy.sdk.cordova.internal.util.PushyNotificationInbox;
+import me.pushy.sdk.cordova.internal.util.PushyNotificationPriority;
+import me.pushy.sdk.cordova.internal.util.PushyOperationQueue;
+import me.pushy.sdk.cordova.internal.util.PushyPayload;
 import me.pushy.sdk.cordova.internal.util.PushyPersistence;
-import me.pushy.sdk.util.PushyStringUtils;
 import me.pushy.sdk.util.exceptions.PushyException;
 
 public class PushyPlugin extends CordovaPlugin {
-    private static PushyPlugin mInstance;
-    private CallbackContext mNotificationHandler;
-    private CallbackContext mNotificationClickHandler;
+    private static final int PENDING_NOTIFICATIONS_BATCH_SIZE = 50;
+
+    // Stored page not acknowledged within this time is considered abandoned (listener threw, or the page went away without a reset)
+    private static final long PENDING_NOTIFICATIONS_ACK_TIMEOUT_MS = 30000;
+
+    // Network-bound SDK calls get their own bounded executor so they can't starve Cordova's shared pool
+    private static final int NETWORK_THREADS = 2;
+    private static final int NETWORK_QUEUE_CAPACITY = 64;
+
+    private static final ExecutorService mNetworkExecutor = new ThreadPoolExecutor(NETWORK_THREADS, NETWORK_THREADS, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(NETWORK_QUEUE_CAPACITY));
+
+    private static final Object mRegistrationLock = new Object();
+    private static List<CallbackContext> mPendingRegistrations;
+    private static volatile String mDeviceToken;
+
+    // Notifications held in memory while the listener is briefly unavailable
+    private static final int NOTIFICATION_BUFFER_CAPACITY = 256;
+    private static final PushyNotificationBuffer mNotificationBuffer = new PushyNotificationBuffer(NOTIFICATION_BUFFER_CAPACITY);
+
+    // Weak so a destroyed activity (and its WebView) isn't kept reachable through the plugin
+    private static volatile WeakReference<PushyPlugin> mInstance = new WeakReference<>(null);
+    private final Map<String, PluginAction> mActions = createActions();
+    private PushyEventChannel mEventChannel;
+    private volatile boolean mNotificationListenerAttached;
+    private volatile boolean mNotificationClickListenerAttached;
+    private volatile boolean mStopped;
+    private volatile boolean mRunning;
+
+    // Stored backlog not fully delivered yet, live notifications are stored behind it (guarded by mNotificationBuffer)
+    private boolean mBacklogDraining;
+    private boolean mBacklogPageUnacknowledged;
+    private long mBacklogPageSentAt;
+    private long mPendingNotificationsCursor = -1;
+    private int mPendingNotificationsCursorPriority = PushyNotificationPriority.HIGH;
+    private Future<JSONArray> mPrefetchedBatch;
+    private Future<JSONObject> mPrefetchedClickPayload;
+    private Intent mPrefetchedClickIntent;
 
     @Override
     public void initialize(CordovaInterface cordova, CordovaWebView webView) {
         super.initialize(cordova, webView);
 
-        // Store plugin instance
-        mInstance = this;
+        // Native-to-JS event channel (undispatched notifications fall back to storage)
+        mEventChannel = new PushyEventChannel(cordova.getActivity());
+
+        // Store plugin instance (replaces the one of a previous activity)
+        mInstance = new WeakReference<>(this);
+        mRunning = true;
+
+        // Start loading the pending backlog and launch click payload before JS asks for them
+        prefetch();
+    }
+
+    private synchronized void prefetch() {
+        // Cache context (outlives this call)
+        final Activity activity = cordova.getActivity();
+
+        // Open the pending notification store and decode its first batch
+        mPrefetchedBatch = cordova.getThreadPool().submit(new Callable<JSONArray>() {
+            @Override
+            public JSONArray call() {
+                return PushyPersistence.getPendingNotificationBatch(PushyNotificationPriority.HIGH, -1, PENDING_NOTIFICATIONS_BATCH_SIZE, activity);
+            }
+        });
+
+        // Cache the launch intent
+        final Intent launchIntent = activity.getIntent();
+
+        // App launched by tapping a notification?
+        if (launchIntent != null && launchIntent.getBooleanExtra(PushyIntentExtras.NOTIFICATION_CLICKED, false)) {
+            // Resolve the click payload in the background
+            mPrefetchedClickIntent = launchIntent;
+            mPrefetchedClickPayload = cordova.getThreadPool().submit(new Callable<JSONObject>() {
+                @Override
+                public JSONObject call() {
+                    return PushyPayload.fromClickIntent(launchIntent, activity);
+                }
+            });
+        }
+    }
+
+    private static <T> T getPrefetched(Future<T> future) {
+        try {
+            // Wait for the prefetch (normally long done by now)
+            return future.get();
+        }
+        catch (Exception e) {
+            // Log error to logcat, caller falls back to loading it again
+            Log.e(PushyLogging.TAG, "Prefetch failed:" + e.getMessage(), e);
+            return null;
+        }
     }
 
     @Override
     public boolean execute(final String action, final JSONArray args, final CallbackContext callbackContext) throws JSONException {
-        // Run all plugin actions in background thread
-        cordova.getThreadPool().execute(new Runnable() {
+        // Look up the action handler
+        final PluginAction pluginAction = mActions.get(action);
+
+        // Unknown action?
+        if (pluginAction == null) {
+            return false;
+        }
+
+        // Prepare a runnable that invokes the action handler
+        Runnable runnable = new Runnable() {
             @Override
             public void run() {
-                // Restart the socket service
-                if (action.equals("listen")) {
-                    Pushy.listen(cordova.getActivity());
+                pluginAction.handler.run(args, callbackContext);
+            }
+        };
+
+        // Run the action on the thread tier it was registered with
+        switch (pluginAction.tier) {
+            case INLINE:
+                runnable.run();
+                break;
+            case POOL:
+                cordova.getThreadPool().execute(runnable);
+                break;
+            case NETWORK:
+                executeNetworkTask(runnable, callbackContext);
+                break;
+        }
+
+        // Valid action
+        return true;
+    }
+
+    public static ExecutorService getNetworkExecutor() {
+        // Shared with the operation queue's replay job
+        return mNetworkExecutor;
+    }
+
+    private static void executeNetworkTask(Runnable runnable, CallbackContext callbackContext) {
+        try {
+            // Queue on the dedicated network executor
+            mNetworkExecutor.execute(runnable);
+        }
+        catch (RejectedExecutionException exc) {
+            // Reject the callback, too many network calls queued up
+            callbackContext.error("Too many pending network requests");
+        }
+    }
+
+    private Map<String, PluginAction> createActions() {
+        Map<String, PluginAction> actions = new HashMap<>();
+
+        // Restart the socket service
+        actions.put("listen", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                Pushy.listen(cordova.getActivity());
+            }
+        }));
+
+        // Register devices
+        actions.put("register", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                register(callbackContext);
+            }
+        }));
+
+        // Storage permission is no longer needed (kept so older apps calling it still resolve)
+        actions.put("requestStoragePermission", new PluginAction(ActionTier.INLINE, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                callbackContext.success();
+            }
+        }));
+
+        // Native-to-JS event channel
+        actions.put("openEventChannel", new PluginAction(ActionTier.INLINE, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                openEventChannel(callbackContext);
+            }
+        }));
+
+        // Listen for notifications received
+        actions.put("setNotificationListener", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setNotificationListener(callbackContext);
+            }
+        }));
+
+        // Listen for notifications clicked
+        actions.put("setNotificationClickListener", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setNotificationClickListener(callbackContext);
+            }
+        }));
+
+        // Check if device is registered
+        actions.put("isRegistered", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                isRegistered(callbackContext);
+            }
+        }));
+
+        // Unregister a device
+        actions.put("unregister", new PluginAction(ActionTier.NETWORK, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                unregister();
+            }
+        }));
+
+        // Subscribe device to topic
+        actions.put("subscribe", new PluginAction(ActionTier.NETWORK, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                subscribe(args, callbackContext);
+            }
+        }));
+
+        // Unsubscribe device from topic
+        actions.put("unsubscribe", new PluginAction(ActionTier.NETWORK, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                unsubscribe(args, callbackContext);
+            }
+        }));
+
+        // Subscribe device to multiple topics
+        actions.put("subscribeMany", new PluginAction(ActionTier.NETWORK, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                subscribeMany(args, callbackContext);
+            }
+        }));
+
+        // Unsubscribe device from multiple topics
+        actions.put("unsubscribeMany", new PluginAction(ActionTier.NETWORK, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                unsubscribeMany(args, callbackContext);
+            }
+        }));
+
+        // Sync device subscriptions to an exact topic set
+        actions.put("setTopics", new PluginAction(ActionTier.NETWORK, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setTopics(args, callbackContext);
+            }
+        }));
+
+        // Native notification inbox
+        actions.put("setInboxOptions", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setInboxOptions(args, callbackContext);
+            }
+        }));
+
+        // Paged inbox query
+        actions.put("getInbox", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                getInbox(args, callbackContext);
+            }
+        }));
+
+        // Mark inbox records read
+        actions.put("markRead", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                markRead(args, callbackContext);
+            }
+        }));
+
+        // Unread inbox records (optionally per topic)
+        actions.put("getUnreadCount", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                getUnreadCount(args, callbackContext);
+            }
+        }));
+
+        // Drop the inbox history
+        actions.put("clearInbox", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                clearInbox(callbackContext);
+            }
+        }));
+
+        // Delivery counters and latency histograms
+        actions.put("getMetrics", new PluginAction(ActionTier.INLINE, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                getMetrics(callbackContext);
+            }
+        }));
+
+        // Reset delivery metrics
+        actions.put("resetMetrics", new PluginAction(ActionTier.INLINE, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                resetMetrics(callbackContext);
+            }
+        }));
+
+        // Periodic logcat dump of delivery metrics
+        actions.put("setMetricsLogInterval", new PluginAction(ActionTier.INLINE, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setMetricsLogInterval(args, callbackContext);
+            }
+        }));
+
+        // Queue offline register / subscribe / unsubscribe calls
+        actions.put("toggleOperationQueue", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                toggleOperationQueue(args, callbackContext);
+            }
+        }));
+
+        // Queued operations and retry state
+        actions.put("getOperationQueueStatus", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                getOperationQueueStatus(callbackContext);
+            }
+        }));
+
+        // Apply all settings at once (single write, at most one connection restart)
+        actions.put("configure", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                configure(args, callbackContext);
+            }
+        }));
+
+        // Set Pushy App ID (override package name identification)
+        actions.put("setAppId", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setAppId(args, callbackContext);
+            }
+        }));
+
+        // Static IP / proxy support
+        actions.put("setProxyEndpoint", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setProxyEndpoint(args, callbackContext);
+            }
+        }));
+
+        // Pushy Enterprise support
+        actions.put("setEnterpriseConfig", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setEnterpriseConfig(args, callbackContext);
+            }
+        }));
+
+        // Pushy Enterprise custom certificate support
+        actions.put("setEnterpriseCertificate", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setEnterpriseCertificate(args, callbackContext);
+            }
+        }));
+
+        // Custom icon support
+        actions.put("setNotificationIcon", new PluginAction(ActionTier.INLINE, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setNotificationIcon(args);
+            }
+        }));
+
+        // Notification burst coalescing window
+        actions.put("setNotificationCoalescingWindow", new PluginAction(ActionTier.INLINE, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setNotificationCoalescingWindow(args, callbackContext);
+            }
+        }));
+
+        // Duplicate message window
+        actions.put("setDeduplicationWindow", new PluginAction(ActionTier.INLINE, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setDeduplicationWindow(args, callbackContext);
+            }
+        }));
+
+        // Native payload filter rules
+        actions.put("setNotificationFilters", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setNotificationFilters(args, callbackContext);
+            }
+        }));
+
+        // Values merged by "store" filter rules
+        actions.put("getStoredValues", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                getStoredValues(args, callbackContext);
+            }
+        }));
+
+        // Clear values merged by "store" filter rules
+        actions.put("clearStoredValues", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                clearStoredValues(args, callbackContext);
+            }
+        }));
+
+        // Pushy FCM high-priority fallback support
+        actions.put("toggleFCM", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                toggleFCM(args, callbackContext);
+            }
+        }));
+
+        // Foreground service support
+        actions.put("toggleForegroundService", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                toggleForegroundService(args, callbackContext);
+            }
+        }));
+
+        // Acknowledge a delivered batch of pending notifications
+        actions.put("acknowledgeNotifications", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                acknowledgeNotifications(args, callbackContext);
+            }
+        }));
+
+        // Pending notification backlog limits
+        actions.put("setPendingNotificationLimits", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                setPendingNotificationLimits(args, callbackContext);
+            }
+        }));
+
+        // Pending notification backlog stats
+        actions.put("getPendingNotificationStats", new PluginAction(ActionTier.POOL, new ActionHandler() {
+            @Override
+            public void run(JSONArray args, CallbackContext callbackContext) {
+                getPendingNotificationStats(callbackContext);
+            }
+        }));
+
+        return actions;
+    }
+
+    private enum ActionTier {
+        // Cheap, non-blocking actions run on the calling thread
+        INLINE,
+        // Disk-bound or SDK configuration actions run on Cordova's thread pool
+        POOL,
+        // Network-bound SDK calls run on the dedicated network executor
+        NETWORK
+    }
+
+    private interface ActionHandler {
+        void run(JSONArray args, CallbackContext callbackContext);
+    }
+
+    private static class PluginAction {
+        final ActionTier tier;
+        final ActionHandler handler;
+
+        PluginAction(ActionTier tier, ActionHandler handler) {
+            this.tier = tier;
+            this.handler = handler;
+        }
+    }
+
+    private void openEventChannel(CallbackContext callbackContext) {
+        // All native-to-JS events (received, clicked, backlog, metrics, errors) flow through this callback
+        mEventChannel.open(callbackContext);
+    }
+
+    private void setNotificationListener(CallbackContext callbackContext) {
+        synchronized (this) {
+            // Deliver while holding the buffer lock, so live notifications can't overtake the drained ones
+            synchronized (mNotificationBuffer) {
+                // Already attached (handler replaced in JS, or a call still in flight from before a reload)? Keep the backlog where it is
+                if (mNotificationListenerAttached) {
+                    // Unless the last stored page was never acknowledged, then start over from the first unacknowledged notification
+                    if (isBacklogStalled()) {
+                        mBacklogDraining = false;
+                        resetPendingNotificationsCursor();
+                        deliverPendingNotifications();
+                    }
+
+                    return;
+                }
+
+                // Route notifications to JS from now on (atomically with draining the buffer)
+                mNotificationListenerAttached = true;
+                List<JSONObject> buffered = mNotificationBuffer.drain();
+
+                // New listener, redeliver any unacknowledged pending notifications from the start
+                resetPendingNotificationsCursor();
+
+                List<JSONObject> urgent = new ArrayList<>();
+                List<JSONObject> rest = new ArrayList<>();
+
+                // Split notifications held in memory by priority class (keeping arrival order within each)
+                for (JSONObject notification : buffered) {
+                    if (PushyNotificationPriority.resolve(notification, cordova.getActivity()) >= PushyNotificationPriority.HIGH) {
+                        urgent.add(notification);
+                    }
+                    else {
+                        rest.add(notification);
+                    }
+                }
+
+                // Urgent notifications held in memory go out before any stored backlog
+                deliverBufferedNotifications(urgent);
+
+                // Attempt to deliver any pending notifications (highest lane first)
+                deliverPendingNotifications();
+
+                // More stored notifications to come? Store the rest behind them (they arrived later), otherwise deliver them right away
+                if (mBacklogDraining) {
+                    for (JSONObject notification : rest) {
+                        PushyPersistence.persistNotification(notification, cordova.getActivity());
+                    }
+                }
+                else {
+                    deliverBufferedNotifications(rest);
+                }
+            }
+        }
+    }
+
+    private void deliverBufferedNotifications(List<JSONObject> notifications) {
+        // Nothing buffered?
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        // Wrap each notification like a backlog item (no record ID, nothing to acknowledge)
+        JSONArray batch = new JSONArray();
+
+        for (JSONObject notification : notifications) {
+            try {
+                batch.put(new JSONObject().put("notification", notification));
+            }
+            catch (JSONException e) {
+                // Log error to logcat and report it to JS
+                Log.e(PushyLogging.TAG, "Failed to wrap buffered notification:" + e.getMessage(), e);
+                mEventChannel.emitError("Failed to wrap buffered notification: " + e.getMessage());
+            }
+        }
+
+        // Send the whole batch as a single backlog event
+        mEventChannel.emit(PushyEventChannel.BACKLOG, batch);
+    }
+
+    private static void spillBufferedNotifications(Context context) {
+        // Hold the buffer lock until stored, so a notification stored directly can't get ahead of older buffered ones
+        synchronized (mNotificationBuffer) {
+            // Write everything held in memory to the pending notification store
+            for (JSONObject notification : mNotificationBuffer.drain()) {
+                PushyPersistence.persistNotification(notification, context);
+            }
+        }
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+
+        // Activity visible again, short gaps can be bridged in memory
+        mStopped = false;
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+
+        // Process may be killed from now on, don't keep notifications in memory only
+        mStopped = true;
+        spillBufferedNotifications(cordova.getActivity());
+    }
+
+    @Override
+    public void onPause(boolean multitasking) {
+        super.onPause(multitasking);
+
+        // Activity going away for good? Stop routing notifications to it
+        if (cordova.getActivity().isFinishing()) {
+            stopDelivery();
+        }
+    }
+
+    @Override
+    public void onResume(boolean multitasking) {
+        super.onResume(multitasking);
+
+        // Activity in the foreground again
+        mRunning = true;
+    }
+
+    @Override
+    public void onReset() {
+        super.onReset();
+
+        // Page reloaded or navigated away, the old JS context and its callbacks are gone
+        releaseListeners();
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+
+        // Persist anything still held in memory
+        stopDelivery();
+
+        // Release JS callbacks and prefetched state
+        releaseListeners();
+
+        synchronized (this) {
+            mPrefetchedBatch = null;
+            mPrefetchedClickPayload = null;
+            mPrefetchedClickIntent = null;
+        }
+
+        // Unregister this instance unless a new activity already replaced it
+        if (mInstance.get() == this) {
+            mInstance = new WeakReference<>(null);
+        }
+    }
+
+    private void stopDelivery() {
+        synchronized (mNotificationBuffer) {
+            // Notifications are stored from now on, so store those held in memory or not dispatched yet first (they arrived earlier)
+            mRunning = false;
+            mStopped = true;
+            spillBufferedNotifications(cordova.getActivity());
+            mEventChannel.close();
+        }
+    }
+
+    private void releaseListeners() {
+        synchronized (this) {
+            synchronized (mNotificationBuffer) {
+                // Hold or store notifications until a new listener is attached
+                mNotificationListenerAttached = false;
+                mNotificationClickListenerAttached = false;
+                mBacklogDraining = false;
+                mBacklogPageUnacknowledged = false;
+
+                // Drop the callback pointing at the old WebView, storing undispatched notifications before any later arrival
+                mEventChannel.close();
+            }
+
+            // Redeliver unacknowledged pending notifications to the next listener
+            resetPendingNotificationsCursor();
+        }
+
+        // Drop kept-alive callbacks pointing at the old WebView
+        PushyOperationQueue.releaseCallbacks();
+    }
+
+    private void acknowledgeNotifications(JSONArray args, CallbackContext callback) {
+        try {
+            // Extract acknowledged record IDs
+            JSONArray ids = args.getJSONArray(0);
+            List<Long> acknowledged = new ArrayList<>(ids.length());
+
+            for (int i = 0; i < ids.length(); i++) {
+                acknowledged.add(ids.getLong(i));
+            }
+
+            // Only now remove the delivered notifications from storage
+            PushyPersistence.removePendingNotifications(acknowledged, cordova.getActivity());
+
+            // Resolve the callback with success
+            callback.success();
+        }
+        catch (Exception exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
+
+        // Send the next batch (if any)
+        deliverPendingNotifications();
+    }
+
+    @Override
+    public void onNewIntent(Intent intent) {
+        super.onNewIntent(intent);
+
+        // Handle notification click
+        onNotificationClicked(intent);
+    }
+
+    private void setNotificationClickListener(CallbackContext callbackContext) {
+        // Route notification clicks to JS from now on
+        mNotificationClickListenerAttached = true;
+
+        // Attempt to check whether pending notifications
+        Intent activityIntent = cordova.getActivity().getIntent();
+
+        // Check whether notification was clicked
+        if (activityIntent.getBooleanExtra(PushyIntentExtras.NOTIFICATION_CLICKED, false)) {
+            JSONObject payload = null;
+
+            synchronized (this) {
+                // Payload for this launch intent already resolved on startup? Use it once
+                if (mPrefetchedClickPayload != null && mPrefetchedClickIntent == activityIntent) {
+                    payload = getPrefetched(mPrefetchedClickPayload);
                 }
 
-                // Register devices
-                if (action.equals("register")) {
-                    register(callbackContext);
-                }
+                mPrefetchedClickPayload = null;
+                mPrefetchedClickIntent = null;
+            }
+
+            onNotificationClicked(activityIntent, payload);
+        }
+    }
+
+    private synchronized void deliverPendingNotifications() {
+        // Activity must be running and a listener defined for this to work
+        if (!isActivityRunning() || !mNotificationListenerAttached) {
+            return;
+        }
+
+        JSONArray batch = null;
+        boolean prefetched = false;
+        long start = System.nanoTime();
+
+        // First batch prefetched on startup? Use it once (unless empty, notifications may have been stored since)
+        if (mPendingNotificationsCursor == -1 && mPrefetchedBatch != null) {
+            batch = getPrefetched(mPrefetchedBatch);
+            mPrefetchedBatch = null;
+            prefetched = batch != null && batch.length() > 0;
+
+            if (!prefetched) {
+                batch = null;
+            }
+        }
+
+        // Load and dispatch under the buffer lock, so a notification stored meanwhile is either in this batch or a later one
+        synchronized (mNotificationBuffer) {
+            // Get the next page of pending notifications after the last one sent
+            if (batch == null) {
+                batch = PushyPersistence.getPendingNotificationBatch(mPendingNotificationsCursorPriority, mPendingNotificationsCursor, PENDING_NOTIFICATIONS_BATCH_SIZE, cordova.getActivity());
+            }
+
+            // More may follow a full (or prefetched) page, requested on acknowledgement; store live notifications behind them until then
+            mBacklogDraining = prefetched || batch.length() == PENDING_NOTIFICATIONS_BATCH_SIZE;
+
+            // Nothing left to deliver?
+            if (batch.length() == 0) {
+                mBacklogPageUnacknowledged = false;
+                return;
+            }
+
+            try {
+                // Advance cursor past this batch (items stay stored until acknowledged)
+                JSONObject last = batch.getJSONObject(batch.length() - 1);
+                mPendingNotificationsCursor = last.getLong("id");
+                mPendingNotificationsCursorPriority = last.getInt("priority");
+            }
+            catch (JSONException e) {
+                // Log error to logcat and report it to JS
+                Log.e(PushyLogging.TAG, "Failed to parse JSON object:" + e.getMessage(), e);
+                mEventChannel.emitError("Failed to parse pending notification batch: " + e.getMessage());
+                mBacklogDraining = false;
+                return;
+            }
+
+            // Send the whole batch as a single backlog event (awaiting acknowledgement from now on)
+            mBacklogPageUnacknowledged = true;
+            mBacklogPageSentAt = SystemClock.uptimeMillis();
+            mEventChannel.emit(PushyEventChannel.BACKLOG, batch);
+        }
+
+        // Track batch load-to-dispatch time
+        PushyMetrics.add(PushyMetrics.BACKLOG_DELIVERED, batch.length());
+        PushyMetrics.recordSince(PushyMetrics.BACKLOG_DELIVERY, start);
+    }
+
+    private boolean isBacklogStalled() {
+        // Stored page sent but not acknowledged in time? (guarded by mNotificationBuffer)
+        return mBacklogPageUnacknowledged && SystemClock.uptimeMillis() - mBacklogPageSentAt > PENDING_NOTIFICATIONS_ACK_TIMEOUT_MS;
+    }
+
+    private synchronized void resetPendingNotificationsCursor() {
+        // Start over from the highest lane
+        mPendingNotificationsCursor = -1;
+        mPendingNotificationsCursorPriority = PushyNotificationPriority.HIGH;
+    }
+
+    private boolean isActivityRunning() {
+        // Tracked through lifecycle callbacks (not finishing up or destroyed) instead of querying the activity on every push
+        return mRunning;
+    }
+
+    public static void onNotificationReceived(JSONObject notification, Context context) {
+        // Received just now
+        onNotificationReceived(notification, context, System.nanoTime());
+    }
+
+    public static void onNotificationReceived(JSONObject notification, Context context, long receivedAt) {
+        // Record in the native inbox (if enabled)
+        PushyNotificationInbox.recordReceived(notification, context);
+
+        PushyPlugin instance;
+        boolean attached;
+
+        synchronized (mNotificationBuffer) {
+            // Read the plugin instance once, under the lock, so a new instance can't attach and drain the store between reading and storing
+            instance = mInstance.get();
+            attached = instance != null && instance.mNotificationListenerAttached;
+
+            // Activity is alive but no listener attached yet? Hold the notification in memory
+            if (!attached && instance != null && !instance.mStopped && instance.isActivityRunning()) {
+                // Buffer has room?
+                if (mNotificationBuffer.offer(notification)) {
+                    PushyMetrics.increment(PushyMetrics.BUFFERED);
+                    return;
+                }
+            }
+
+            // Stored page never acknowledged? Stop holding live notifications back for it (the rest waits for the next listener)
+            if (attached && instance.mBacklogDraining && instance.isBacklogStalled()) {
+                Log.w(PushyLogging.TAG, "Pending notifications were not acknowledged in time, resuming live delivery");
+                instance.mBacklogDraining = false;
+            }
+
+            // Buffer full, activity is not running, no notification listener attached, or stored notifications still being delivered?
+            if (!attached || !instance.isActivityRunning() || instance.mBacklogDraining) {
+                // Store anything still held in memory first (buffer full or app just stopped), it arrived earlier
+                spillBufferedNotifications(context);
+
+                // Store notification JSON and deliver it when app is opened or after the stored backlog (before a listener attaching now reads the store)
+                PushyPersistence.persistNotification(notification, context);
+                return;
+            }
+
+            // We're live, queue a received event (after anything a listener attaching now has drained)
+            instance.mEventChannel.emit(PushyEventChannel.RECEIVED, notification);
+        }
+
+        // Track live delivery and time since receipt
+        PushyMetrics.increment(PushyMetrics.DELIVERED_LIVE);
+        PushyMetrics.recordSince(PushyMetrics.RECEIVE_TO_DISPATCH, receivedAt);
+    }
+
+    public static void onNotificationClicked(Intent intent) {
+        // Resolve the payload from the intent
+        onNotificationClicked(intent, null);
+    }
+
+    private static void onNotificationClicked(Intent intent, JSONObject payload) {
+        // Read the plugin instance once (it may be swapped by another thread)
+        PushyPlugin instance = mInstance.get();
+
+        // Activity is not running or no notification click listener attached?
+        if (instance == null || !instance.mNotificationClickListenerAttached || !instance.isActivityRunning()) {
+            return;
+        }
+
+        // Not a Pushy notification?
+        if (!intent.getBooleanExtra(PushyIntentExtras.NOTIFICATION_CLICKED, false) ) {
+            return;
+        }
+
+        // Resolve the payload unless already prefetched (in-memory handle, inline JSON or stored file)
+        long start = System.nanoTime();
+        JSONObject notification = payload != null ? payload : PushyPayload.fromClickIntent(intent, instance.cordova.getActivity());
+        PushyMetrics.recordSince(PushyMetrics.CLICK_RESOLVE, start);
+        PushyMetrics.increment(PushyMetrics.CLICKED);
 
-                // Listen for notifications received
-                if (action.equals("setNotificationListener")) {
-                    setNotificationListener(callbackContext);
-                }
+        // Mark as clicked in the native inbox (if enabled)
+        if (notification != null) {
+            PushyNotificationInbox.recordClicked(notification, instance.cordova.getActivity());
+        }
 
-                // Listen for notifications clicked
-                if (action.equals("setNotificationClickListener")) {
-                    setNotificationClickListener(callbackContext);
-                }
+        // No payload?
+        if (notification == null) {
+            return;
+        }
 
-                // Check if device is registered
-                if (action.equals("isRegistered")) {
-                    isRegistered(callbackContext);
-                }
+        // We're live, queue a clicked event
+        instance.mEventChannel.emit(PushyEventChannel.CLICKED, notification);
+    }
 
-                // Unregister a device
-                if (action.equals("unregister")) {
-                    Pushy.unregister(cordova.getActivity());
-                }
+    private void register(final CallbackContext callback) {
+        // Already registered? Resolve with the cached token right away
+        String cachedToken = getCachedDeviceToken();
 
-                // Subscribe device to topic
-                if (action.equals("subscribe")) {
-                    subscribe(args, callbackContext);
-                }
+        if (cachedToken != null) {
+            callback.success(cachedToken);
+            return;
+        }
 
-                // Unsubscribe device from topic
-                if (action.equals("unsubscribe")) {
-                    unsubscribe(args, callbackContext);
-                }
+        synchronized (mRegistrationLock) {
+            // Registration already in flight? Wait for its result
+            if (mPendingRegistrations != null) {
+                mPendingRegistrations.add(callback);
+                return;
+            }
 
-                // Set Pushy App ID (override package name identification)
-                if (action.equals("setAppId")) {
-                    setAppId(args, callbackContext);
-                }
+            // Start a new registration
+            mPendingRegistrations = new ArrayList<>();
+            mPendingRegistrations.add(callback);
+        }
 
-                // Static IP / proxy support
-                if (action.equals("setProxyEndpoint")) {
-                    setProxyEndpoint(args, callbackContext);
-                }
+        // Prepare the SDK call
+        Runnable registration = new Runnable() {
+            @Override
+            public void run() {
+                String deviceToken = null;
+                String error = null;
 
-                // Pushy Enterprise support
-                if (action.equals("setEnterpriseConfig")) {
-                    setEnterpriseConfig(args, callbackContext);
+                // Offline (or behind queued operations) with the operation queue enabled? Register once back online
+                if (PushyOperationQueue.shouldQueue(null, cordova.getActivity())) {
+                    PushyOperationQueue.enqueueRegister(takePendingRegistrations(), cordova.getActivity());
+                    return;
                 }
 
-                // Pushy Enterprise custom certificate support
-                if (action.equals("setEnterpriseCertificate")) {
-                    setEnterpriseCertificate(args, callbackContext);
-                }
+                try {
+                    // Assign a unique token to this device
+                    deviceToken = Pushy.register(cordova.getActivity());
 
-                // Custom icon support
-                if (action.equals("setNotificationIcon")) {
-                    setNotificationIcon(args);
+                    // Cache the token in memory and on disk
+                    mDeviceToken = deviceToken;
+                    PushyPersistence.setDeviceToken(deviceToken, cordova.getActivity());
                 }
-
-                // Pushy FCM high-priority fallback support
-                if (action.equals("toggleFCM")) {
-                    toggleFCM(args, callbackContext);
+                catch (PushyException exc) {
+                    // Connection lost with the operation queue enabled? Keep the callbacks waiting for the replay
+                    if (PushyOperationQueue.shouldQueue(exc, cordova.getActivity())) {
+                        PushyOperationQueue.enqueueRegister(takePendingRegistrations(), cordova.getActivity());
+                        return;
+                    }
+
+                    error = exc.getMessage();
                 }
 
-                // Foreground service support
-                if (action.equals("toggleForegroundService")) {
-                    toggleForegroundService(args, callbackContext);
+                // Resolve or reject every waiting callback with the same result
+                for (CallbackContext waiting : takePendingRegistrations()) {
+                    if (error == null) {
+                        waiting.success(deviceToken);
+                    }
+                    else {
+                        waiting.error(error);
+                    }
                 }
             }
-        });
+        };
 
-        // Always return true regardless of action validity
-        return true;
+        try {
+            // Perform the SDK call on the network executor
+            mNetworkExecutor.execute(registration);
+        }
+        catch (RejectedExecutionException exc) {
+            // Reject every waiting callback, too many network calls queued up
+            for (CallbackContext waiting : takePendingRegistrations()) {
+                waiting.error("Too many pending network requests");
+            }
+        }
     }
 
-    private void setNotificationListener(CallbackContext callbackContext) {
-        // Save notification listener callback for later
-        mNotificationHandler = callbackContext;
+    private static List<CallbackContext> takePendingRegistrations() {
+        synchronized (mRegistrationLock) {
+            // Detach the waiting callbacks so the next register() starts a fresh call
+            List<CallbackContext> callbacks = mPendingRegistrations;
+            mPendingRegistrations = null;
 
-        // Attempt to deliver any pending notifications
-        deliverPendingNotifications();
+            return callbacks != null ? callbacks : new ArrayList<CallbackContext>();
+        }
     }
 
-    @Override
-    public void onNewIntent(Intent intent) {
-        super.onNewIntent(intent);
+    private String getCachedDeviceToken() {
+        // Load the persisted token once
+        if (mDeviceToken == null) {
+            mDeviceToken = PushyPersistence.getDeviceToken(cordova.getActivity());
+        }
 
-        // Handle notification click
-        onNotificationClicked(intent);
+        // Only trust the cache while the SDK still considers the device registered
+        if (mDeviceToken != null && !Pushy.isRegistered(cordova.getActivity())) {
+            mDeviceToken = null;
+            PushyPersistence.clearDeviceToken(cordova.getActivity());
+        }
+
+        return mDeviceToken;
     }
 
-    private void setNotificationClickListener(CallbackContext callbackContext) {
-        // Save notification click listener callback for later
-        mNotificationClickHandler = callbackContext;
+    private void unregister() {
+        // Drop the cached token and topic subscriptions
+        mDeviceToken = null;
+        PushyPersistence.clearDeviceToken(cordova.getActivity());
+        PushyPersistence.clearSubscribedTopics(cordova.getActivity());
 
-        // Attempt to check whether pending notifications
-        Intent activityIntent = cordova.getActivity().getIntent();
+        // Queued operations no longer apply
+        PushyOperationQueue.clear("Device unregistered", cordova.getActivity());
 
-        // Check whether notification was clicked
-        if (activityIntent.getBooleanExtra(PushyIntentExtras.NOTIFICATION_CLICKED, false)) {
-            onNotificationClicked(cordova.getActivity().getIntent());
-        }
+        // Unregister the device
+        Pushy.unregister(cordova.getActivity());
     }
 
-    private void deliverPendingNotifications() {
-        // Activity must be running for this to work
-        if (!isActivityRunning()) {
-            return;
-        }
-
-        // Get pending notifications
-        JSONArray notifications = PushyPersistence.getPendingNotifications(cordova.getActivity());
+    private void isRegistered(CallbackContext callback) {
+        // Resolve the callback with boolean result
+        callback.sendPluginResult(new PluginResult(PluginResult.Status.OK, Pushy.isRegistered(cordova.getActivity())));
+    }
 
-        // Got at least one?
-        if (notifications.length() > 0) {
-            // Traverse notifications
-            for (int i = 0; i < notifications.length(); i++) {
-                try {
-                    // Emit notification to listener
-                    onNotificationReceived(notifications.getJSONObject(i), cordova.getActivity());
-                }
-                catch (JSONException e) {
-                    // Log error to logcat
-                    Log.e(PushyLogging.TAG, "Failed to parse JSON object:" + e.getMessage(), e);
+    private void configure(JSONArray args, CallbackContext callback) {
+        try {
+            // Validate and apply all settings at once (unchanged settings are skipped)
+            JSONArray changed = PushyConfiguration.apply(args.getJSONObject(0), cordova.getActivity());
+
+            // Storage backend switched (always reported first)? Record IDs changed, redeliver pending notifications from the start
+            if (changed.length() > 0 && changed.getString(0).equals(PushyConfiguration.STORAGE_BACKEND)) {
+                synchronized (this) {
+                    resetPendingNotificationsCursor();
+                    mPrefetchedBatch = null;
                 }
             }
 
-            // Clear persisted notifications
-            PushyPersistence.clearPendingNotifications(cordova.getActivity());
+            // Resolve the callback with the names of the changed settings
+            callback.success(changed);
+        }
+        catch (Exception exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
         }
     }
 
-    private boolean isActivityRunning() {
-        // Cache activity object
-        Activity activity = cordova.getActivity();
+    private void setInboxOptions(JSONArray args, CallbackContext callback) {
+        try {
+            // Extract options object from first parameter
+            JSONObject options = args.getJSONObject(0);
 
-        // Check whether activity exists and is not finishing up or destroyed
-        return activity != null && ! activity.isFinishing();
-    }
+            // Enable or disable the inbox and set its retention (0 disables a limit)
+            PushyNotificationInbox.setOptions(
+                    options.optBoolean("enabled", true),
+                    options.optInt("maxCount", PushyNotificationInbox.DEFAULT_MAX_COUNT),
+                    options.optLong("maxAge", PushyNotificationInbox.DEFAULT_MAX_AGE),
+                    cordova.getActivity()
+            );
 
-    public static void onNotificationReceived(JSONObject notification, Context context) {
-        // Activity is not running or no notification handler defined?
-        if (mInstance == null || !mInstance.isActivityRunning() || mInstance.mNotificationHandler == null) {
-            // Store notification JSON in SharedPreferences and deliver it when app is opened
-            PushyPersistence.persistNotification(notification, context);
-            return;
+            // Resolve the callback with success
+            callback.success();
         }
+        catch (Exception exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
+    }
 
-        // We're live, prepare a plugin result object that allows invoking the notification listener multiple times
-        PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, notification);
-
-        // Keep the callback valid for future use
-        pluginResult.setKeepCallback(true);
+    private void getInbox(JSONArray args, CallbackContext callback) {
+        try {
+            // Query options are optional
+            JSONObject options = args.optJSONObject(0);
 
-        // Invoke the JavaScript callback
-        mInstance.mNotificationHandler.sendPluginResult(pluginResult);
+            // Resolve the callback with one page of records and the cursor for the next one
+            callback.success(PushyNotificationInbox.query(options != null ? options : new JSONObject(), cordova.getActivity()));
+        }
+        catch (Exception exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
     }
 
-    public static void onNotificationClicked(Intent intent) {
-        // Activity is not running or no notification click handler defined?
-        if (mInstance == null || !mInstance.isActivityRunning() || mInstance.mNotificationClickHandler == null) {
-            return;
-        }
+    private void markRead(JSONArray args, CallbackContext callback) {
+        try {
+            // Mark the given record IDs read (or everything if none were passed)
+            int updated = PushyNotificationInbox.markRead(args.optJSONArray(0), cordova.getActivity());
 
-        // Not a Pushy notification?
-        if (!intent.getBooleanExtra(PushyIntentExtras.NOTIFICATION_CLICKED, false) ) {
-            return;
+            // Resolve the callback with the number of records marked read
+            callback.success(updated);
+        }
+        catch (Exception exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
         }
+    }
 
-        // Attempt to extract stringified JSON payload
-        String payload = intent.getStringExtra(PushyIntentExtras.NOTIFICATION_PAYLOAD);
+    private void getUnreadCount(JSONArray args, CallbackContext callback) {
+        try {
+            // Cordova converts JavaScript null and undefined to "null" (String), count all topics instead
+            String topic = args.optString(0, null);
 
-        // No payload?
-        if (PushyStringUtils.stringIsNullOrEmpty(payload)) {
-            return;
-        }
+            if (topic != null && topic.equals("null")) {
+                topic = null;
+            }
 
-        // Notification payload object
-        JSONObject notification;
+            // Resolve the callback with the unread count
+            callback.success((int) PushyNotificationInbox.getUnreadCount(topic, cordova.getActivity()));
+        }
+        catch (Exception exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
+    }
 
+    private void clearInbox(CallbackContext callback) {
         try {
-            // Gracefully attempt to parse it back into JSONObject
-            notification = new JSONObject(payload);
+            // Drop the whole history
+            PushyNotificationInbox.clear(cordova.getActivity());
+
+            // Resolve the callback with success
+            callback.success();
         }
-        catch (Exception e) {
-            // Log error to logcat and stop execution
-            Log.e(PushyLogging.TAG, "Failed to parse notification click data into JSONObject:" + e.getMessage(), e);
-            return;
+        catch (Exception exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
         }
+    }
 
-        // We're live, prepare a plugin result object that allows invoking the notification click listener multiple times
-        PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, notification);
+    private void getMetrics(CallbackContext callback) {
+        // Resolve the callback with counters, latency histograms and backlog size
+        callback.success(PushyMetrics.getSnapshot());
+    }
 
-        // Keep the callback valid for future use
-        pluginResult.setKeepCallback(true);
+    private void resetMetrics(CallbackContext callback) {
+        // Start counting from zero
+        PushyMetrics.reset();
 
-        // Invoke the JavaScript callback
-        mInstance.mNotificationClickHandler.sendPluginResult(pluginResult);
+        // Resolve the callback with success
+        callback.success();
     }
 
-    private void register(final CallbackContext callback) {
+    private void setMetricsLogInterval(JSONArray args, CallbackContext callback) {
         try {
-            // Assign a unique token to this device
-            String deviceToken = Pushy.register(cordova.getActivity());
+            // Periodically dump metrics to logcat (0 disables the dump)
+            PushyMetrics.setLogInterval(args.getLong(0));
 
-            // Resolve the callback with the token
-            callback.success(deviceToken);
+            // Resolve the callback with success
+            callback.success();
         }
-        catch (PushyException exc) {
+        catch (Exception exc) {
             // Reject the callback with the exception
             callback.error(exc.getMessage());
         }
     }
 
-    private void isRegistered(CallbackContext callback) {
-        // Resolve the callback with boolean result
-        callback.sendPluginResult(new PluginResult(PluginResult.Status.OK, Pushy.isRegistered(cordova.getActivity())));
+    private void toggleOperationQueue(JSONArray args, CallbackContext callback) {
+        try {
+            // Enable or disable queueing of offline register / subscribe / unsubscribe calls
+            PushyOperationQueue.setEnabled(args.getBoolean(0), cordova.getActivity());
+
+            // Resolve the callback with success
+            callback.success();
+        }
+        catch (Exception exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
+    }
+
+    private void getOperationQueueStatus(CallbackContext callback) {
+        // Resolve the callback with queued operations and retry state
+        callback.success(PushyOperationQueue.getStatus(cordova.getActivity()));
     }
 
     private void setAppId(JSONArray args, CallbackContext callback) {
@@ -273,6 +1224,7 @@ public class PushyPlugin extends CordovaPlugin {
         if (args.length() == 0) {
             // Clear Pushy App ID (identify by package name instead)
             Pushy.setAppId(null, cordova.getActivity());
+            PushyConfiguration.invalidate(PushyConfiguration.APP_ID, cordova.getActivity());
 
             // Resolve the callback with success
             callback.success();
@@ -290,6 +1242,7 @@ public class PushyPlugin extends CordovaPlugin {
 
             // Set Pushy App ID (override package name identification)
             Pushy.setAppId(appId, cordova.getActivity());
+            PushyConfiguration.invalidate(PushyConfiguration.APP_ID, cordova.getActivity());
 
             // Resolve the callback with success
             callback.success();
@@ -313,6 +1266,7 @@ public class PushyPlugin extends CordovaPlugin {
                 
             // Attempt to set Enterprise endpoints
             Pushy.setEnterpriseConfig(apiEndpoint, mqttEndpoint, cordova.getActivity());
+            PushyConfiguration.invalidate(PushyConfiguration.ENTERPRISE_CONFIG, cordova.getActivity());
 
             // Resolve the callback with success
             callback.success();
@@ -335,6 +1289,7 @@ public class PushyPlugin extends CordovaPlugin {
 
             // Attempt to set proxy endpoint
             Pushy.setProxyEndpoint(endpoint, cordova.getActivity());
+            PushyConfiguration.invalidate(PushyConfiguration.PROXY_ENDPOINT, cordova.getActivity());
 
             // Resolve the callback with success
             callback.success();
@@ -349,6 +1304,7 @@ public class PushyPlugin extends CordovaPlugin {
         try {
             // Enable or disable FCM fallback support
             Pushy.toggleFCM(args.getBoolean(0), cordova.getActivity());
+            PushyConfiguration.invalidate(PushyConfiguration.FCM, cordova.getActivity());
 
             // Resolve the callback with success
             callback.success();
@@ -363,6 +1319,7 @@ public class PushyPlugin extends CordovaPlugin {
         try {
             // Enable or disable foreground service
             Pushy.toggleForegroundService(args.getBoolean(0), cordova.getActivity());
+            PushyConfiguration.invalidate(PushyConfiguration.FOREGROUND_SERVICE, cordova.getActivity());
 
             // Resolve the callback with success
             callback.success();
@@ -391,6 +1348,7 @@ public class PushyPlugin extends CordovaPlugin {
 
         // Attempt to set custom certificate resource name / disable the feature
         Pushy.setEnterpriseCertificate(resourceName, cordova.getActivity());
+        PushyConfiguration.invalidate(PushyConfiguration.ENTERPRISE_CERTIFICATE, cordova.getActivity());
 
         // Resolve the callback with success
         callback.success();
@@ -410,10 +1368,66 @@ public class PushyPlugin extends CordovaPlugin {
         PushyPersistence.setNotificationIcon(iconResourceName, cordova.getActivity());
     }
 
-    private void subscribe(JSONArray args, CallbackContext callback) {
+    private void setPendingNotificationLimits(JSONArray args, CallbackContext callback) {
+        try {
+            // Extract limits object from first parameter
+            JSONObject limits = args.getJSONObject(0);
+
+            // Apply limits (missing or 0 disables a limit) and evict whatever no longer fits
+            int evicted = PushyPersistence.setPendingNotificationLimits(
+                    limits.optInt("maxCount", 0),
+                    limits.optLong("maxBytes", 0),
+                    limits.optLong("maxAge", 0),
+                    cordova.getActivity()
+            );
+
+            // Resolve the callback with the number of evicted notifications
+            callback.success(evicted);
+        }
+        catch (Exception exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
+    }
+
+    private void getPendingNotificationStats(CallbackContext callback) {
+        // Resolve the callback with backlog count, size and evicted notifications since last call
+        callback.success(PushyPersistence.getPendingNotificationStats(cordova.getActivity()));
+    }
+
+    private void setNotificationCoalescingWindow(JSONArray args, CallbackContext callback) {
+        try {
+            // Store coalescing window (in milliseconds, 0 disables coalescing)
+            PushyPersistence.setNotificationCoalescingWindow(Math.max(0, args.getLong(0)), cordova.getActivity());
+
+            // Resolve the callback with success
+            callback.success();
+        }
+        catch (Exception exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
+    }
+
+    private void setDeduplicationWindow(JSONArray args, CallbackContext callback) {
+        try {
+            // Store deduplication window (in milliseconds, 0 disables deduplication)
+            PushyPersistence.setDeduplicationWindow(Math.max(0, args.getLong(0)), cordova.getActivity());
+
+            // Resolve the callback with success
+            callback.success();
+        }
+        catch (Exception exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
+    }
+
+    private void setNotificationFilters(JSONArray args, CallbackContext callback) {
         try {
-            // Attempt to subscribe the device to topic
-            Pushy.subscribe(args.getString(0), cordova.getActivity());
+            // Validate, persist and apply rule set (null or missing clears all rules)
+            JSONArray rules = args.optJSONArray(0);
+            PushyNotificationFilters.setRules(rules != null ? rules : new JSONArray(), cordova.getActivity());
 
             // Resolve the callback with success
             callback.success();
@@ -424,17 +1438,180 @@ public class PushyPlugin extends CordovaPlugin {
         }
     }
 
+    private void getStoredValues(JSONArray args, CallbackContext callback) {
+        // Resolve the callback with the namespace's values
+        callback.success(PushyNotificationFilters.getStoredValues(getNamespace(args), cordova.getActivity()));
+    }
+
+    private void clearStoredValues(JSONArray args, CallbackContext callback) {
+        // Drop the namespace's values
+        PushyNotificationFilters.clearStoredValues(getNamespace(args), cordova.getActivity());
+
+        // Resolve the callback with success
+        callback.success();
+    }
+
+    private static String getNamespace(JSONArray args) {
+        // Cordova converts JavaScript null and undefined to "null" (String), use the default namespace instead
+        String namespace = args.optString(0, "default");
+        return namespace.equals("null") || namespace.isEmpty() ? "default" : namespace;
+    }
+
+    private void subscribe(JSONArray args, CallbackContext callback) {
+        try {
+            // Subscribe to the topic passed in the first parameter
+            updateTopics(Collections.singletonList(args.getString(0)), true, callback);
+        }
+        catch (JSONException exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
+    }
+
     private void unsubscribe(JSONArray args, CallbackContext callback) {
         try {
-            // Attempt to unsubscribe the device from topic
-            Pushy.unsubscribe(args.getString(0), cordova.getActivity());
+            // Unsubscribe from the topic passed in the first parameter
+            updateTopics(Collections.singletonList(args.getString(0)), false, callback);
+        }
+        catch (JSONException exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
+    }
+
+    private void subscribeMany(JSONArray args, CallbackContext callback) {
+        try {
+            // Subscribe to all topics passed in the first parameter
+            updateTopics(getTopics(args.getJSONArray(0)), true, callback);
+        }
+        catch (JSONException exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
+    }
+
+    private void unsubscribeMany(JSONArray args, CallbackContext callback) {
+        try {
+            // Unsubscribe from all topics passed in the first parameter
+            updateTopics(getTopics(args.getJSONArray(0)), false, callback);
+        }
+        catch (JSONException exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
+    }
+
+    private void updateTopics(List<String> topics, boolean subscribe, CallbackContext callback) {
+        // Nothing to do?
+        if (topics.isEmpty()) {
+            callback.success();
+            return;
+        }
+
+        // Offline (or behind queued operations) with the operation queue enabled? Replay once back online
+        if (PushyOperationQueue.shouldQueue(null, cordova.getActivity())) {
+            PushyOperationQueue.enqueueTopics(topics, subscribe, callback, cordova.getActivity());
+            return;
+        }
+
+        try {
+            // Attempt to (un)subscribe the device to all topics in a single request
+            if (subscribe) {
+                Pushy.subscribe(topics.toArray(new String[topics.size()]), cordova.getActivity());
+                PushyPersistence.addSubscribedTopics(topics, cordova.getActivity());
+            }
+            else {
+                Pushy.unsubscribe(topics.toArray(new String[topics.size()]), cordova.getActivity());
+                PushyPersistence.removeSubscribedTopics(topics, cordova.getActivity());
+            }
+
+            // Resolve the callback with success
+            callback.success();
+        }
+        catch (Exception exc) {
+            // Connection lost with the operation queue enabled? Keep the callback waiting for the replay
+            if (PushyOperationQueue.shouldQueue(exc, cordova.getActivity())) {
+                PushyOperationQueue.enqueueTopics(topics, subscribe, callback, cordova.getActivity());
+                return;
+            }
+
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+        }
+    }
+
+    private void setTopics(JSONArray args, CallbackContext callback) {
+        List<String> added;
+        List<String> removed;
+
+        try {
+            // Desired topic set
+            Set<String> desired = new HashSet<>(getTopics(args.getJSONArray(0)));
+
+            // Topics the device will be subscribed to once queued operations are replayed
+            Set<String> current = PushyOperationQueue.getEffectiveTopics(cordova.getActivity());
+
+            // Compute the difference in both directions
+            added = new ArrayList<>(desired);
+            added.removeAll(current);
+
+            removed = new ArrayList<>(current);
+            removed.removeAll(desired);
+        }
+        catch (JSONException exc) {
+            // Reject the callback with the exception
+            callback.error(exc.getMessage());
+            return;
+        }
+
+        // Nothing to do?
+        if (added.isEmpty() && removed.isEmpty()) {
+            callback.success();
+            return;
+        }
+
+        // Offline (or behind queued operations) with the operation queue enabled? Replay once back online
+        if (PushyOperationQueue.shouldQueue(null, cordova.getActivity())) {
+            PushyOperationQueue.enqueueTopics(added, removed, callback, cordova.getActivity());
+            return;
+        }
+
+        try {
+            // Unsubscribe from topics that are no longer wanted
+            if (!removed.isEmpty()) {
+                Pushy.unsubscribe(removed.toArray(new String[removed.size()]), cordova.getActivity());
+                PushyPersistence.removeSubscribedTopics(removed, cordova.getActivity());
+            }
+
+            // Subscribe to new topics
+            if (!added.isEmpty()) {
+                Pushy.subscribe(added.toArray(new String[added.size()]), cordova.getActivity());
+                PushyPersistence.addSubscribedTopics(added, cordova.getActivity());
+            }
 
             // Resolve the callback with success
             callback.success();
         }
         catch (Exception exc) {
+            // Connection lost with the operation queue enabled? Queue both directions (whatever already went through cancels out)
+            if (PushyOperationQueue.shouldQueue(exc, cordova.getActivity())) {
+                PushyOperationQueue.enqueueTopics(added, removed, callback, cordova.getActivity());
+                return;
+            }
+
             // Reject the callback with the exception
             callback.error(exc.getMessage());
         }
     }
+
+    private static List<String> getTopics(JSONArray json) throws JSONException {
+        List<String> topics = new ArrayList<>(json.length());
+
+        // Convert JSON array into a list of topic names
+        for (int i = 0; i < json.length(); i++) {
+            topics.add(json.getString(i));
+        }
+
+        return topics;
+    }
 }
@@ -3,4 +3,6 @@ package me.pushy.sdk.cordova.internal.config;
 public class PushyIntentExtras {
     public static final String NOTIFICATION_CLICKED = "_pushyNotificationClicked";
     public static final String NOTIFICATION_PAYLOAD = "_pushyNotificationPayload";
+    public static final String NOTIFICATION_PAYLOAD_ENCODED = "_pushyNotificationPayloadEncoded";
+    public static final String NOTIFICATION_PAYLOAD_HANDLE = "_pushyNotificationPayloadHandle";
 }
@@ -3,13 +3,45 @@ package me.pushy.sdk.cordova.internal.receivers;
 import android.content.Intent;
 import android.content.Context;
 import android.content.BroadcastReceiver;
+import org.json.JSONObject;
 import me.pushy.sdk.cordova.internal.PushyPlugin;
-import me.pushy.sdk.cordova.internal.util.PushyPersistence;
+import me.pushy.sdk.cordova.internal.util.PushyMessageDeduplicator;
+import me.pushy.sdk.cordova.internal.util.PushyMetrics;
+import me.pushy.sdk.cordova.internal.util.PushyNotificationFilters;
+import me.pushy.sdk.cordova.internal.util.PushyPayload;
+import me.pushy.sdk.cordova.internal.util.PushyReceiverExecutor;
 
 public class PushyPushReceiver extends BroadcastReceiver {
     @Override
-    public void onReceive(Context context, Intent intent) {
-        // Invoke the notification received handler
-        PushyPlugin.onNotificationReceived(PushyPersistence.getJSONObjectFromIntentExtras(intent), context);
+    public void onReceive(final Context context, final Intent intent) {
+        // Time of receipt (for receive-to-dispatch latency)
+        final long receivedAt = System.nanoTime();
+        PushyMetrics.increment(PushyMetrics.RECEIVED);
+
+        // Process the notification off the main thread
+        PushyReceiverExecutor.execute(this, new Runnable() {
+            @Override
+            public void run() {
+                // Convert payload once (shared with PushReceiver)
+                long parseStart = System.nanoTime();
+                JSONObject notification = PushyPayload.fromIntent(intent).getJSON();
+                PushyMetrics.recordSince(PushyMetrics.PARSE, parseStart);
+
+                // Already handled (e.g. delivered via both the Pushy socket and FCM)? Drop it before any filter rule stores it again
+                if (PushyMessageDeduplicator.isDuplicate("plugin", notification, context)) {
+                    PushyMetrics.increment(PushyMetrics.DUPLICATES);
+                    return;
+                }
+
+                // Dropped or stored natively by a filter rule? Don't wake the WebView
+                if (!PushyNotificationFilters.process(notification, context)) {
+                    PushyMetrics.increment(PushyMetrics.FILTERED);
+                    return;
+                }
+
+                // Invoke the notification received handler
+                PushyPlugin.onNotificationReceived(notification, context, receivedAt);
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package me.pushy.sdk.cordova.internal.services;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.content.Context;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import me.pushy.sdk.cordova.internal.PushyPlugin;
+import me.pushy.sdk.cordova.internal.util.PushyOperationQueue;
+
+public class PushyOperationJobService extends JobService {
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        // Cache context (outlives this call)
+        final Context context = getApplicationContext();
+
+        try {
+            // Replay queued operations on the plugin's network executor (the job reschedules itself if needed)
+            PushyPlugin.getNetworkExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    PushyOperationQueue.replay(context);
+                    jobFinished(params, false);
+                }
+            });
+        }
+        catch (RejectedExecutionException exc) {
+            // Too many network calls queued up, let the system retry the job later
+            jobFinished(params, true);
+        }
+
+        // Work continues in the background
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // A failed replay schedules the next attempt with backoff, no need for the system to retry
+        return false;
+    }
+}
@@ -0,0 +1,381 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary payload format.
+ *
+ * Layout: magic byte, flags byte, then a body (deflated when that makes it smaller than the
+ * raw body and the raw body exceeds DEFLATE_THRESHOLD bytes). The body holds a table of every
+ * distinct key (each stored once, however often it repeats in nested objects) followed by the
+ * root object, whose keys refer to the table by index. Integers are zigzag varints, strings are
+ * length-prefixed UTF-8.
+ *
+ * Payloads with values that have no exact binary representation (e.g. arbitrary objects put into
+ * the JSONObject), or nested deeper than MAX_DEPTH, are rejected, so callers can fall back to JSON
+ * text. Decoding enforces the same depth limit, so corrupt data can't exhaust the stack.
+ */
+public class PushyBinaryPayloadCodec implements PushyPayloadCodec {
+    // Never a valid first byte of JSON text
+    public static final byte MAGIC = (byte) 0xB1;
+
+    private static final byte FLAG_DEFLATED = 1;
+
+    // Only attempt to deflate bodies larger than this
+    private static final int DEFLATE_THRESHOLD = 512;
+
+    // Upper bound for an inflated body, anything larger is treated as corruption
+    private static final int MAX_BODY_SIZE = 4 * 1024 * 1024;
+
+    // Maximum nesting of objects and arrays (the root object is depth 1)
+    private static final int MAX_DEPTH = 32;
+
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_FALSE = 1;
+    private static final int TYPE_TRUE = 2;
+    private static final int TYPE_INT = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int TYPE_FLOAT = 5;
+    private static final int TYPE_DOUBLE = 6;
+    private static final int TYPE_STRING = 7;
+    private static final int TYPE_OBJECT = 8;
+    private static final int TYPE_ARRAY = 9;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    @Override
+    public byte[] encode(JSONObject payload) throws IOException {
+        // Intern keys, then write the key table followed by the root object
+        Map<String, Integer> keys = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        ByteArrayOutputStream values = new ByteArrayOutputStream();
+
+        writeObject(values, payload, keys, table, 1);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(values.size() + table.size() * 8);
+        writeVarint(body, table.size());
+
+        for (String key : table) {
+            writeString(body, key);
+        }
+
+        values.writeTo(body);
+
+        // Deflate larger bodies when it pays off
+        byte[] raw = body.toByteArray();
+        byte flags = 0;
+
+        if (raw.length > DEFLATE_THRESHOLD) {
+            byte[] deflated = deflate(raw);
+
+            if (deflated.length < raw.length) {
+                raw = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+
+        byte[] encoded = new byte[raw.length + 2];
+        encoded[0] = MAGIC;
+        encoded[1] = flags;
+        System.arraycopy(raw, 0, encoded, 2, raw.length);
+
+        return encoded;
+    }
+
+    @Override
+    public JSONObject decode(byte[] data) throws IOException {
+        // Not ours?
+        if (!canDecode(data)) {
+            throw new IOException("Not a binary payload");
+        }
+
+        ByteBuffer body = ByteBuffer.wrap(data, 2, data.length - 2);
+
+        // Inflate if needed
+        if ((data[1] & FLAG_DEFLATED) != 0) {
+            body = ByteBuffer.wrap(inflate(data, 2, data.length - 2));
+        }
+
+        try {
+            // Read the key table
+            int count = readLength(body);
+            String[] table = new String[count];
+
+            for (int i = 0; i < count; i++) {
+                table[i] = readString(body);
+            }
+
+            // Read the root object
+            if (readVarint(body) != TYPE_OBJECT) {
+                throw new IOException("Payload root is not an object");
+            }
+
+            return readObject(body, table, 1);
+        }
+        catch (RuntimeException e) {
+            // Truncated buffer, bad key index, etc.
+            throw new IOException("Corrupt binary payload", e);
+        }
+        catch (JSONException e) {
+            throw new IOException("Corrupt binary payload", e);
+        }
+    }
+
+    @Override
+    public boolean canDecode(byte[] data) {
+        return data.length >= 2 && data[0] == MAGIC;
+    }
+
+    private static void writeValue(ByteArrayOutputStream out, Object value, Map<String, Integer> keys, List<String> table, int depth) throws IOException {
+        if (value == null || value == JSONObject.NULL) {
+            writeVarint(out, TYPE_NULL);
+        }
+        else if (value instanceof Boolean) {
+            writeVarint(out, (Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+        }
+        else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeVarint(out, TYPE_INT);
+            writeVarint(out, zigzag(((Number) value).longValue()));
+        }
+        else if (value instanceof Long) {
+            // Kept apart from ints so decoding restores the same type
+            writeVarint(out, TYPE_LONG);
+            writeVarint(out, zigzag((Long) value));
+        }
+        else if (value instanceof Float) {
+            writeVarint(out, TYPE_FLOAT);
+            out.write(ByteBuffer.allocate(4).putFloat((Float) value).array());
+        }
+        else if (value instanceof Double) {
+            writeVarint(out, TYPE_DOUBLE);
+            out.write(ByteBuffer.allocate(8).putDouble((Double) value).array());
+        }
+        else if (value instanceof String) {
+            writeVarint(out, TYPE_STRING);
+            writeString(out, (String) value);
+        }
+        else if (value instanceof JSONObject) {
+            writeObject(out, (JSONObject) value, keys, table, depth + 1);
+        }
+        else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            checkDepth(depth + 1);
+            writeVarint(out, TYPE_ARRAY);
+            writeVarint(out, array.length());
+
+            for (int i = 0; i < array.length(); i++) {
+                writeValue(out, array.opt(i), keys, table, depth + 1);
+            }
+        }
+        else {
+            // No exact binary form, caller falls back to JSON text
+            throw new IOException("Unsupported payload value type: " + value.getClass().getName());
+        }
+    }
+
+    private static void writeObject(ByteArrayOutputStream out, JSONObject object, Map<String, Integer> keys, List<String> table, int depth) throws IOException {
+        // Too deep? Caller falls back to JSON text
+        checkDepth(depth);
+        writeVarint(out, TYPE_OBJECT);
+        writeVarint(out, object.length());
+
+        Iterator<String> iterator = object.keys();
+
+        // Keys in iteration order so decoding rebuilds the same order
+        while (iterator.hasNext()) {
+            String key = iterator.next();
+            Integer index = keys.get(key);
+
+            // First occurrence? Add to the key table
+            if (index == null) {
+                index = table.size();
+                keys.put(key, index);
+                table.add(key);
+            }
+
+            writeVarint(out, index);
+            writeValue(out, object.opt(key), keys, table, depth);
+        }
+    }
+
+    private static Object readValue(ByteBuffer in, String[] table, int depth) throws IOException, JSONException {
+        int type = (int) readVarint(in);
+
+        switch (type) {
+            case TYPE_NULL:
+                return JSONObject.NULL;
+            case TYPE_FALSE:
+                return false;
+            case TYPE_TRUE:
+                return true;
+            case TYPE_INT:
+                return (int) unzigzag(readVarint(in));
+            case TYPE_LONG:
+                return unzigzag(readVarint(in));
+            case TYPE_FLOAT:
+                return in.getFloat();
+            case TYPE_DOUBLE:
+                return in.getDouble();
+            case TYPE_STRING:
+                return readString(in);
+            case TYPE_OBJECT:
+                return readObject(in, table, depth + 1);
+            case TYPE_ARRAY:
+                checkDepth(depth + 1);
+                int length = readLength(in);
+                JSONArray array = new JSONArray();
+
+                for (int i = 0; i < length; i++) {
+                    array.put(readValue(in, table, depth + 1));
+                }
+
+                return array;
+            default:
+                throw new IOException("Unknown value type: " + type);
+        }
+    }
+
+    private static JSONObject readObject(ByteBuffer in, String[] table, int depth) throws IOException, JSONException {
+        // Deeper than any encoder writes? Corrupt data
+        checkDepth(depth);
+        int length = readLength(in);
+        JSONObject object = new JSONObject();
+
+        for (int i = 0; i < length; i++) {
+            String key = table[(int) readVarint(in)];
+            object.put(key, readValue(in, table, depth));
+        }
+
+        return object;
+    }
+
+    private static void checkDepth(int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("Payload nested deeper than " + MAX_DEPTH + " levels");
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(UTF8);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        // 7 bits per byte, high bit set on all but the last byte
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) throws IOException {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed varint");
+    }
+
+    private static int readLength(ByteBuffer in) throws IOException {
+        long length = readVarint(in);
+
+        // Can't be longer than what's left
+        if (length < 0 || length > in.remaining()) {
+            throw new IOException("Invalid length: " + length);
+        }
+
+        return (int) length;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+        byte[] buffer = new byte[1024];
+
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+        }
+        finally {
+            deflater.end();
+        }
+
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length * 3);
+        byte[] buffer = new byte[1024];
+
+        try {
+            inflater.setInput(data, offset, length);
+
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+
+                // Truncated input or oversized body?
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated deflated payload");
+                }
+
+                out.write(buffer, 0, inflated);
+
+                if (out.size() > MAX_BODY_SIZE) {
+                    throw new IOException("Inflated payload too large");
+                }
+            }
+        }
+        catch (DataFormatException e) {
+            throw new IOException("Corrupt deflated payload", e);
+        }
+        finally {
+            inflater.end();
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,269 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import me.pushy.sdk.Pushy;
+import me.pushy.sdk.config.PushyLogging;
+
+/**
+ * Applies a whole set of plugin and SDK settings at once (see Pushy.configure()).
+ *
+ * Every setting is validated and every change staged before anything is applied. The storage
+ * backend switch (the only step that can fail) goes first, so a failed switch leaves all other
+ * settings untouched. Settings that did not change are skipped, plugin settings are written with
+ * a single SharedPreferences edit, and the socket connection is restarted at most once.
+ */
+public class PushyConfiguration {
+    // SharedPreferences key for the SDK settings last applied through configure()
+    private static final String APPLIED_SETTINGS = "pushyAppliedConfiguration";
+
+    // Pushy SDK settings
+    public static final String APP_ID = "appId";
+    public static final String ENTERPRISE_CONFIG = "enterpriseConfig";
+    public static final String PROXY_ENDPOINT = "proxyEndpoint";
+    public static final String ENTERPRISE_CERTIFICATE = "enterpriseCertificate";
+    public static final String FCM = "fcm";
+    public static final String FOREGROUND_SERVICE = "foregroundService";
+
+    // Plugin settings
+    public static final String NOTIFICATION_ICON = "notificationIcon";
+    public static final String NOTIFICATION_COALESCING_WINDOW = "notificationCoalescingWindow";
+    public static final String DEDUPLICATION_WINDOW = "deduplicationWindow";
+    public static final String STORAGE_BACKEND = "storageBackend";
+
+    // SDK settings in the order they must be applied (identity and endpoints before toggles)
+    private static final List<String> SDK_SETTINGS = Arrays.asList(APP_ID, ENTERPRISE_CONFIG, PROXY_ENDPOINT, ENTERPRISE_CERTIFICATE, FCM, FOREGROUND_SERVICE);
+    private static final List<String> PLUGIN_SETTINGS = Arrays.asList(NOTIFICATION_ICON, NOTIFICATION_COALESCING_WINDOW, DEDUPLICATION_WINDOW, STORAGE_BACKEND);
+
+    public static synchronized JSONArray apply(JSONObject options, Context context) throws JSONException, IOException {
+        // Validate everything before staging anything
+        JSONObject settings = validate(options);
+
+        // Get SDK settings applied last time
+        SharedPreferences preferences = PushyPersistence.getSettings(context);
+        JSONObject applied = getAppliedSettings(preferences);
+
+        // Stage the storage backend switch
+        boolean backendChanged = settings.has(STORAGE_BACKEND) && !PushyPersistence.getStorageBackend(context).equals(settings.getString(STORAGE_BACKEND));
+
+        // Stage changed SDK settings in dependency order (settings never applied through configure() always count as changed)
+        List<String> sdkChanged = new ArrayList<>();
+
+        for (String key : SDK_SETTINGS) {
+            if (settings.has(key) && !(applied.has(key) && isSame(applied.get(key), settings.get(key)))) {
+                sdkChanged.add(key);
+            }
+        }
+
+        // Stage changed plugin settings into a single edit
+        SharedPreferences.Editor editor = preferences.edit();
+        List<String> pluginChanged = new ArrayList<>();
+
+        if (settings.has(NOTIFICATION_ICON) && !isSame(PushyPersistence.getNotificationIcon(context), settings.get(NOTIFICATION_ICON))) {
+            editor.putString(PushyPersistence.NOTIFICATION_ICON, settings.isNull(NOTIFICATION_ICON) ? null : settings.getString(NOTIFICATION_ICON));
+            pluginChanged.add(NOTIFICATION_ICON);
+        }
+
+        if (settings.has(NOTIFICATION_COALESCING_WINDOW) && PushyPersistence.getNotificationCoalescingWindow(context) != settings.getLong(NOTIFICATION_COALESCING_WINDOW)) {
+            editor.putLong(PushyPersistence.NOTIFICATION_COALESCING_WINDOW, settings.getLong(NOTIFICATION_COALESCING_WINDOW));
+            pluginChanged.add(NOTIFICATION_COALESCING_WINDOW);
+        }
+
+        if (settings.has(DEDUPLICATION_WINDOW) && PushyPersistence.getDeduplicationWindow(context) != settings.getLong(DEDUPLICATION_WINDOW)) {
+            editor.putLong(PushyPersistence.DEDUPLICATION_WINDOW, settings.getLong(DEDUPLICATION_WINDOW));
+            pluginChanged.add(DEDUPLICATION_WINDOW);
+        }
+
+        JSONArray changed = new JSONArray();
+
+        // Nothing changed? Skip the write and the restart
+        if (!backendChanged && sdkChanged.isEmpty() && pluginChanged.isEmpty()) {
+            return changed;
+        }
+
+        // Switch the storage backend first, it's the only step that can fail (moving pending notifications over) and nothing else is applied yet
+        if (backendChanged) {
+            PushyPersistence.setStorageBackend(settings.getString(STORAGE_BACKEND), context);
+            changed.put(STORAGE_BACKEND);
+        }
+
+        // Apply the staged SDK settings
+        for (String key : sdkChanged) {
+            applySdkSetting(key, settings.get(key), context);
+            applied.put(key, settings.get(key));
+            changed.put(key);
+        }
+
+        for (String key : pluginChanged) {
+            changed.put(key);
+        }
+
+        // Remember applied SDK settings and write everything at once
+        editor.putString(APPLIED_SETTINGS, applied.toString()).apply();
+
+        // Resolve the icon resource again on next notification
+        if (pluginChanged.contains(NOTIFICATION_ICON)) {
+            PushyRenderCache.invalidateNotificationIcon();
+        }
+
+        // Restart the socket connection once with the new SDK settings
+        if (!sdkChanged.isEmpty()) {
+            Pushy.listen(context);
+        }
+
+        return changed;
+    }
+
+    public static synchronized void invalidate(String key, Context context) {
+        // Setting changed outside configure(), make the next configure() apply it again
+        SharedPreferences preferences = PushyPersistence.getSettings(context);
+        JSONObject applied = getAppliedSettings(preferences);
+
+        if (applied.remove(key) != null) {
+            preferences.edit().putString(APPLIED_SETTINGS, applied.toString()).apply();
+        }
+    }
+
+    private static JSONObject validate(JSONObject options) throws JSONException {
+        JSONObject settings = new JSONObject();
+        Iterator<String> keys = options.keys();
+
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = options.get(key);
+
+            // Unknown setting?
+            if (!SDK_SETTINGS.contains(key) && !PLUGIN_SETTINGS.contains(key)) {
+                throw new JSONException("Unknown configuration setting: " + key);
+            }
+
+            // Toggles must be booleans
+            if (key.equals(FCM) || key.equals(FOREGROUND_SERVICE)) {
+                if (!(value instanceof Boolean)) {
+                    throw new JSONException("Configuration setting " + key + " must be a boolean");
+                }
+            }
+            // Windows must be non-negative numbers (in milliseconds)
+            else if (key.equals(NOTIFICATION_COALESCING_WINDOW) || key.equals(DEDUPLICATION_WINDOW)) {
+                if (!(value instanceof Number) || ((Number) value).longValue() < 0) {
+                    throw new JSONException("Configuration setting " + key + " must be a non-negative number");
+                }
+
+                value = ((Number) value).longValue();
+            }
+            // Storage backend must be one of the known backends
+            else if (key.equals(STORAGE_BACKEND)) {
+                if (!(value instanceof String) || !PushyPersistence.isStorageBackend((String) value)) {
+                    throw new JSONException("Configuration setting " + key + " must be one of: journal, sqlite, sharedPreferences");
+                }
+            }
+            // Enterprise config is null or an object with both endpoints
+            else if (key.equals(ENTERPRISE_CONFIG)) {
+                value = validateEnterpriseConfig(value);
+            }
+            // Everything else is null or a string (empty strings clear the setting)
+            else if (value != JSONObject.NULL) {
+                if (!(value instanceof String)) {
+                    throw new JSONException("Configuration setting " + key + " must be a string or null");
+                }
+
+                if (((String) value).trim().isEmpty()) {
+                    value = JSONObject.NULL;
+                }
+            }
+
+            settings.put(key, value);
+        }
+
+        return settings;
+    }
+
+    private static Object validateEnterpriseConfig(Object value) throws JSONException {
+        // Disabling enterprise mode?
+        if (value == JSONObject.NULL) {
+            return value;
+        }
+
+        // Not an object?
+        if (!(value instanceof JSONObject)) {
+            throw new JSONException("Configuration setting " + ENTERPRISE_CONFIG + " must be an object or null");
+        }
+
+        JSONObject config = (JSONObject) value;
+        String apiEndpoint = config.optString("apiEndpoint", "").trim();
+        String mqttEndpoint = config.optString("mqttEndpoint", "").trim();
+
+        // Empty API endpoint disables enterprise mode
+        if (apiEndpoint.isEmpty() || apiEndpoint.equals("null")) {
+            return JSONObject.NULL;
+        }
+
+        // Both endpoints are required
+        if (mqttEndpoint.isEmpty() || mqttEndpoint.equals("null")) {
+            throw new JSONException("Configuration setting " + ENTERPRISE_CONFIG + " requires an mqttEndpoint");
+        }
+
+        // Normalize so equal configs serialize identically
+        return new JSONObject().put("apiEndpoint", apiEndpoint).put("mqttEndpoint", mqttEndpoint);
+    }
+
+    private static void applySdkSetting(String key, Object value, Context context) {
+        String string = value == JSONObject.NULL ? null : String.valueOf(value);
+
+        if (key.equals(APP_ID)) {
+            Pushy.setAppId(string, context);
+        }
+        else if (key.equals(ENTERPRISE_CONFIG)) {
+            JSONObject config = value == JSONObject.NULL ? null : (JSONObject) value;
+            Pushy.setEnterpriseConfig(config != null ? config.optString("apiEndpoint") : null, config != null ? config.optString("mqttEndpoint") : null, context);
+        }
+        else if (key.equals(PROXY_ENDPOINT)) {
+            Pushy.setProxyEndpoint(string, context);
+        }
+        else if (key.equals(ENTERPRISE_CERTIFICATE)) {
+            Pushy.setEnterpriseCertificate(string, context);
+        }
+        else if (key.equals(FCM)) {
+            Pushy.toggleFCM((Boolean) value, context);
+        }
+        else if (key.equals(FOREGROUND_SERVICE)) {
+            Pushy.toggleForegroundService((Boolean) value, context);
+        }
+    }
+
+    private static boolean isSame(Object current, Object value) {
+        // Compare serialized forms (null and JSONObject.NULL are equivalent)
+        return String.valueOf(current == null ? JSONObject.NULL : current).equals(String.valueOf(value));
+    }
+
+    private static JSONObject getAppliedSettings(SharedPreferences preferences) {
+        String json = preferences.getString(APPLIED_SETTINGS, null);
+
+        // Nothing applied yet?
+        if (json == null) {
+            return new JSONObject();
+        }
+
+        try {
+            // Attempt to parse applied settings
+            return new JSONObject(json);
+        }
+        catch (JSONException e) {
+            // Log error to logcat and apply everything again
+            Log.e(PushyLogging.TAG, "Failed to parse applied configuration:" + e.getMessage(), e);
+            return new JSONObject();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import me.pushy.sdk.config.PushyLogging;
+
+/**
+ * Single kept-alive native-to-JS channel carrying typed events.
+ *
+ * Events emitted within a short window are packed into one plugin result, so a burst of
+ * notifications costs one bridge message instead of one per event. Notifications that can't be
+ * dispatched (channel closed, or too many queued while it isn't open) are moved to
+ * PushyPersistence and redelivered as backlog to the next listener.
+ */
+public class PushyEventChannel {
+    public static final String RECEIVED = "received";
+    public static final String CLICKED = "clicked";
+    public static final String BACKLOG = "backlog";
+    public static final String METRICS = "metrics";
+    public static final String ERROR = "error";
+
+    // Events emitted within this window are dispatched together
+    private static final long DISPATCH_WINDOW_MS = 16;
+
+    // Dispatch right away once this many events are queued
+    private static final int MAX_QUEUED_EVENTS = 100;
+
+    // Events kept while the channel isn't open, notifications beyond this go to storage
+    private static final int MAX_PENDING_EVENTS = 500;
+
+    // Shared dispatcher thread for delayed flushes
+    private static final ScheduledExecutorService mScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            // Name the thread for easier debugging
+            Thread thread = new Thread(runnable, "PushyEventChannel");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Context mContext;
+    private CallbackContext mCallback;
+    private JSONArray mQueue = new JSONArray();
+    private boolean mFlushScheduled;
+    private boolean mSpilled;
+    private long mQueuedAt;
+
+    private final Runnable mFlush = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    public PushyEventChannel(Context context) {
+        // Application context (outlives the activity)
+        mContext = context.getApplicationContext();
+    }
+
+    public synchronized void open(CallbackContext callback) {
+        // Replace the previous JS end of the channel
+        mCallback = callback;
+        mSpilled = false;
+
+        // Deliver anything emitted before the channel was opened
+        if (mQueue.length() > 0) {
+            scheduleFlush();
+        }
+    }
+
+    public synchronized void close() {
+        // Drop the JS end of the channel
+        mCallback = null;
+
+        // Store notifications not dispatched yet (nobody is left to receive them)
+        spill();
+    }
+
+    public synchronized boolean isOpen() {
+        return mCallback != null;
+    }
+
+    public void emit(String type, Object data) {
+        // Prepare typed event
+        JSONObject event = new JSONObject();
+
+        try {
+            event.put("type", type);
+            event.put("data", data);
+        }
+        catch (JSONException e) {
+            // Log error to logcat and stop execution
+            Log.e(PushyLogging.TAG, "Failed to create event:" + e.getMessage(), e);
+            return;
+        }
+
+        synchronized (this) {
+            // Not open and too many queued? Move notifications to storage instead of holding them in memory
+            if (mCallback == null && (mSpilled || mQueue.length() >= MAX_PENDING_EVENTS)) {
+                spill();
+                spill(event);
+                return;
+            }
+
+            // First event of this dispatch? Remember when it was queued
+            if (mQueue.length() == 0) {
+                mQueuedAt = System.nanoTime();
+            }
+
+            // Queue event for the next dispatch
+            mQueue.put(event);
+
+            // Enough queued? Dispatch right away
+            if (mQueue.length() >= MAX_QUEUED_EVENTS && mCallback != null) {
+                mScheduler.execute(mFlush);
+                mFlushScheduled = true;
+                return;
+            }
+
+            // Dispatch when the window closes
+            scheduleFlush();
+        }
+    }
+
+    public void emitError(String message) {
+        // Surface native errors to JS
+        emit(ERROR, message);
+    }
+
+    private void spill() {
+        // Store every queued notification (in queue order) and drop the rest
+        for (int i = 0; i < mQueue.length(); i++) {
+            spill(mQueue.optJSONObject(i));
+        }
+
+        mQueue = new JSONArray();
+
+        // Keep storing until the channel is opened again, so later notifications can't overtake stored ones
+        mSpilled = mCallback == null;
+    }
+
+    private void spill(JSONObject event) {
+        String type = event.optString("type");
+
+        // Live notification? Store it for the next listener
+        if (RECEIVED.equals(type)) {
+            PushyPersistence.persistNotification(event.optJSONObject("data"), mContext);
+            return;
+        }
+
+        // Backlog batch? Items with a record ID are still stored, items from the memory buffer are not
+        if (BACKLOG.equals(type)) {
+            JSONArray batch = event.optJSONArray("data");
+
+            for (int i = 0; i < batch.length(); i++) {
+                JSONObject item = batch.optJSONObject(i);
+
+                if (!item.has("id")) {
+                    PushyPersistence.persistNotification(item.optJSONObject("notification"), mContext);
+                }
+            }
+
+            return;
+        }
+
+        // Clicks, metrics and errors are only meaningful to the JS context that is gone
+        Log.w(PushyLogging.TAG, "Dropping undelivered " + type + " event");
+    }
+
+    private void scheduleFlush() {
+        // Already scheduled?
+        if (mFlushScheduled) {
+            return;
+        }
+
+        mFlushScheduled = true;
+        mScheduler.schedule(mFlush, DISPATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        JSONArray events;
+        CallbackContext callback;
+        long queuedAt;
+
+        synchronized (this) {
+            mFlushScheduled = false;
+
+            // Nothing to send or nobody listening yet?
+            if (mQueue.length() == 0 || mCallback == null) {
+                return;
+            }
+
+            // Take everything queued so far
+            events = mQueue;
+            callback = mCallback;
+            queuedAt = mQueuedAt;
+            mQueue = new JSONArray();
+        }
+
+        // Send all events as one plugin result that keeps the channel alive
+        PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, events);
+
+        // Keep the callback valid for future use
+        pluginResult.setKeepCallback(true);
+
+        // Invoke the JavaScript callback
+        callback.sendPluginResult(pluginResult);
+
+        // Track time from first queued event to hand-off to the bridge
+        PushyMetrics.recordSince(PushyMetrics.BRIDGE_DISPATCH, queuedAt);
+        PushyMetrics.increment(PushyMetrics.BRIDGE_MESSAGES);
+    }
+}
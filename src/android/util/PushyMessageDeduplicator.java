@@ -0,0 +1,174 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+
+import me.pushy.sdk.config.PushyLogging;
+
+/**
+ * Remembers recently seen messages so a push delivered through both the Pushy socket and
+ * the FCM fallback is only handled once per consumer.
+ *
+ * Only payloads carrying a "messageId" are deduplicated. Without one there is no way to tell a
+ * redelivery from a new push with the same content, so such payloads always go through.
+ *
+ * Seen messages live in a fixed-size ring of (key, timestamp) slots mirrored to a small file,
+ * so each push costs one hash lookup and one slot write regardless of history length.
+ */
+public class PushyMessageDeduplicator {
+    // Number of recently seen messages remembered
+    private static final int CAPACITY = 512;
+
+    // Each slot stores a 64-bit key and a 64-bit timestamp
+    private static final int SLOT_SIZE = 16;
+
+    // Ring file in the app's private files dir
+    private static final String FILE_NAME = "pushy-seen-messages.ring";
+
+    // Payload field used as the message ID when present
+    private static final String MESSAGE_ID_FIELD = "messageId";
+
+    private static PushyMessageDeduplicator mInstance;
+
+    private final RandomAccessFile mFile;
+    private final long[] mKeys = new long[CAPACITY];
+    private final long[] mTimestamps = new long[CAPACITY];
+    private final HashMap<Long, Integer> mIndex = new HashMap<>(CAPACITY * 2);
+    private int mNextSlot;
+
+    private PushyMessageDeduplicator(File file) throws IOException {
+        mFile = new RandomAccessFile(file, "rw");
+
+        // Load persisted slots
+        load();
+    }
+
+    public static boolean isDuplicate(String consumer, JSONObject notification, Context context) {
+        // No message ID? Identical content may well be a new push
+        String messageId = notification.optString(MESSAGE_ID_FIELD, null);
+
+        if (messageId == null || messageId.isEmpty()) {
+            return false;
+        }
+
+        // Get configured window
+        long window = PushyPersistence.getDeduplicationWindow(context);
+
+        // Deduplication disabled?
+        if (window <= 0) {
+            return false;
+        }
+
+        try {
+            // Check and record the message for this consumer
+            return getInstance(context).checkAndRecord(hash(consumer + ":" + messageId), window);
+        }
+        catch (IOException e) {
+            // Log error to logcat and let the notification through
+            Log.e(PushyLogging.TAG, "Failed to check for duplicate notification:" + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private static synchronized PushyMessageDeduplicator getInstance(Context context) throws IOException {
+        // Open the ring file once
+        if (mInstance == null) {
+            mInstance = new PushyMessageDeduplicator(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+        }
+
+        return mInstance;
+    }
+
+    private synchronized boolean checkAndRecord(long key, long window) throws IOException {
+        long now = System.currentTimeMillis();
+
+        // Seen within the window?
+        Integer slot = mIndex.get(key);
+
+        if (slot != null && now - mTimestamps[slot] < window) {
+            return true;
+        }
+
+        // Overwrite the oldest slot with this message
+        int target = slot != null ? slot : mNextSlot;
+
+        if (slot == null) {
+            // Forget the message previously stored in this slot
+            if (mTimestamps[target] != 0) {
+                mIndex.remove(mKeys[target]);
+            }
+
+            mNextSlot = (mNextSlot + 1) % CAPACITY;
+        }
+
+        mKeys[target] = key;
+        mTimestamps[target] = now;
+        mIndex.put(key, target);
+
+        // Persist just this slot
+        ByteBuffer buffer = ByteBuffer.allocate(SLOT_SIZE);
+        buffer.putLong(key).putLong(now);
+
+        mFile.seek((long) target * SLOT_SIZE);
+        mFile.write(buffer.array());
+
+        return false;
+    }
+
+    private void load() throws IOException {
+        // Size the file to hold every slot
+        if (mFile.length() != (long) CAPACITY * SLOT_SIZE) {
+            mFile.setLength((long) CAPACITY * SLOT_SIZE);
+        }
+
+        // Read all slots in one go
+        byte[] data = new byte[CAPACITY * SLOT_SIZE];
+        mFile.seek(0);
+        mFile.readFully(data);
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        long oldest = Long.MAX_VALUE;
+
+        for (int i = 0; i < CAPACITY; i++) {
+            mKeys[i] = buffer.getLong();
+            mTimestamps[i] = buffer.getLong();
+
+            // Empty slot?
+            if (mTimestamps[i] == 0) {
+                if (oldest != 0) {
+                    oldest = 0;
+                    mNextSlot = i;
+                }
+                continue;
+            }
+
+            mIndex.put(mKeys[i], i);
+
+            // Continue writing after the most recent slot by overwriting the oldest one
+            if (mTimestamps[i] < oldest) {
+                oldest = mTimestamps[i];
+                mNextSlot = i;
+            }
+        }
+    }
+
+    static long hash(String source) {
+        // 64-bit FNV-1a hash
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < source.length(); i++) {
+            hash ^= source.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        return hash;
+    }
+}
@@ -0,0 +1,216 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import me.pushy.sdk.config.PushyLogging;
+
+/**
+ * Process-wide delivery counters and latency histograms.
+ *
+ * Recording only touches preallocated atomic arrays (no allocation, no locks) so it is safe on
+ * the receive path. Latencies go into power-of-two microsecond buckets; snapshots are built on
+ * demand for getMetrics() and the optional periodic logcat dump.
+ */
+public class PushyMetrics {
+    // Counters
+    public static final int RECEIVED = 0;
+    public static final int DELIVERED_LIVE = 1;
+    public static final int PERSISTED = 2;
+    public static final int BUFFERED = 3;
+    public static final int DUPLICATES = 4;
+    public static final int FILTERED = 5;
+    public static final int BACKLOG_DELIVERED = 6;
+    public static final int CLICKED = 7;
+    public static final int BRIDGE_MESSAGES = 8;
+
+    private static final String[] COUNTER_NAMES = {"received", "deliveredLive", "persisted", "buffered", "duplicates", "filtered", "backlogDelivered", "clicked", "bridgeMessages"};
+
+    // Timers
+    public static final int RECEIVE_TO_DISPATCH = 0;
+    public static final int BRIDGE_DISPATCH = 1;
+    public static final int STORAGE_WRITE = 2;
+    public static final int STORAGE_READ = 3;
+    public static final int PARSE = 4;
+    public static final int BACKLOG_DELIVERY = 5;
+    public static final int CLICK_RESOLVE = 6;
+
+    private static final String[] TIMER_NAMES = {"receiveToDispatch", "bridgeDispatch", "storageWrite", "storageRead", "parse", "backlogDelivery", "clickResolve"};
+
+    // Bucket i holds latencies below 2^i microseconds (the last one holds everything else)
+    private static final int BUCKETS = 24;
+
+    // Per timer: count, sum (us), max (us), then the buckets
+    private static final int TIMER_STRIDE = 3 + BUCKETS;
+
+    private static final AtomicLongArray mCounters = new AtomicLongArray(COUNTER_NAMES.length);
+    private static final AtomicLongArray mTimers = new AtomicLongArray(TIMER_NAMES.length * TIMER_STRIDE);
+    private static volatile long mBacklogSize = -1;
+
+    private static ScheduledExecutorService mScheduler;
+    private static ScheduledFuture<?> mLogTask;
+
+    public static void increment(int counter) {
+        mCounters.incrementAndGet(counter);
+    }
+
+    public static void add(int counter, long delta) {
+        mCounters.addAndGet(counter, delta);
+    }
+
+    public static void setBacklogSize(long size) {
+        mBacklogSize = size;
+    }
+
+    public static void recordSince(int timer, long startNanos) {
+        // Elapsed time since a System.nanoTime() reading
+        record(timer, System.nanoTime() - startNanos);
+    }
+
+    public static void record(int timer, long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int base = timer * TIMER_STRIDE;
+
+        // Count and total
+        mTimers.incrementAndGet(base);
+        mTimers.addAndGet(base + 1, micros);
+
+        // Maximum (retry if another thread raced us)
+        long max = mTimers.get(base + 2);
+
+        while (micros > max && !mTimers.compareAndSet(base + 2, max, micros)) {
+            max = mTimers.get(base + 2);
+        }
+
+        // Power-of-two bucket
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        mTimers.incrementAndGet(base + 3 + bucket);
+    }
+
+    public static JSONObject getSnapshot() {
+        JSONObject snapshot = new JSONObject();
+
+        try {
+            // Counters
+            JSONObject counters = new JSONObject();
+
+            for (int i = 0; i < COUNTER_NAMES.length; i++) {
+                counters.put(COUNTER_NAMES[i], mCounters.get(i));
+            }
+
+            // Timers (count, mean, max, approximate percentiles and raw buckets, all in microseconds)
+            JSONObject timers = new JSONObject();
+
+            for (int i = 0; i < TIMER_NAMES.length; i++) {
+                timers.put(TIMER_NAMES[i], getTimerSnapshot(i));
+            }
+
+            snapshot.put("counters", counters);
+            snapshot.put("timers", timers);
+            snapshot.put("backlogSize", mBacklogSize);
+        }
+        catch (JSONException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to create metrics snapshot:" + e.getMessage(), e);
+        }
+
+        return snapshot;
+    }
+
+    public static void reset() {
+        // Zero every counter and timer (concurrent recordings may land on either side)
+        for (int i = 0; i < mCounters.length(); i++) {
+            mCounters.set(i, 0);
+        }
+
+        for (int i = 0; i < mTimers.length(); i++) {
+            mTimers.set(i, 0);
+        }
+    }
+
+    public static synchronized void setLogInterval(long intervalMs) {
+        // Stop the previous dump
+        if (mLogTask != null) {
+            mLogTask.cancel(false);
+            mLogTask = null;
+        }
+
+        // Disabled?
+        if (intervalMs <= 0) {
+            return;
+        }
+
+        // Lazily create a daemon thread for the dump
+        if (mScheduler == null) {
+            mScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    // Name the thread for easier debugging
+                    Thread thread = new Thread(runnable, "PushyMetrics");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        // Periodically write a snapshot to logcat
+        mLogTask = mScheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                Log.i(PushyLogging.TAG, "Metrics: " + getSnapshot().toString());
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static JSONObject getTimerSnapshot(int timer) throws JSONException {
+        int base = timer * TIMER_STRIDE;
+        long count = mTimers.get(base);
+        JSONArray buckets = new JSONArray();
+
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.put(mTimers.get(base + 3 + i));
+        }
+
+        JSONObject json = new JSONObject();
+        json.put("count", count);
+        json.put("mean", count > 0 ? mTimers.get(base + 1) / count : 0);
+        json.put("max", mTimers.get(base + 2));
+        json.put("p50", getPercentile(base, count, 0.5));
+        json.put("p95", getPercentile(base, count, 0.95));
+        json.put("p99", getPercentile(base, count, 0.99));
+        json.put("buckets", buckets);
+
+        return json;
+    }
+
+    private static long getPercentile(int base, long count, double percentile) {
+        // No samples?
+        if (count == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(count * percentile);
+        long seen = 0;
+
+        // Upper bound of the bucket holding the target sample
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += mTimers.get(base + 3 + i);
+
+            if (seen >= target) {
+                return Math.min(1L << i, mTimers.get(base + 2));
+            }
+        }
+
+        return mTimers.get(base + 2);
+    }
+}
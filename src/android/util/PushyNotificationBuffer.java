@@ -0,0 +1,53 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded in-memory ring of notifications received while the WebView listener is briefly
+ * unavailable (activity recreation, before setNotificationListener() is called, etc.).
+ *
+ * Callers synchronize on the buffer to make handler swaps and buffering atomic.
+ */
+public class PushyNotificationBuffer {
+    private final JSONObject[] mItems;
+    private int mHead;
+    private int mSize;
+
+    public PushyNotificationBuffer(int capacity) {
+        mItems = new JSONObject[capacity];
+    }
+
+    public synchronized boolean offer(JSONObject notification) {
+        // Full?
+        if (mSize == mItems.length) {
+            return false;
+        }
+
+        // Insert at the tail
+        mItems[(mHead + mSize) % mItems.length] = notification;
+        mSize++;
+
+        return true;
+    }
+
+    public synchronized List<JSONObject> drain() {
+        List<JSONObject> items = new ArrayList<>(mSize);
+
+        // Remove everything in arrival order
+        while (mSize > 0) {
+            items.add(mItems[mHead]);
+            mItems[mHead] = null;
+            mHead = (mHead + 1) % mItems.length;
+            mSize--;
+        }
+
+        return items;
+    }
+
+    public synchronized int size() {
+        return mSize;
+    }
+}
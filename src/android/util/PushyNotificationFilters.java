@@ -0,0 +1,251 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import me.pushy.sdk.config.PushyLogging;
+
+/**
+ * Declarative rules evaluated natively for every push before it reaches the WebView.
+ *
+ * Each rule has a "match" object (payload field -> expected value, "*" matches any present
+ * value) and an "action": "drop" discards the push, "store" merges its fields into a native
+ * key-value namespace that JS reads on demand, and "forward" delivers it as usual. Rules are
+ * evaluated in order and the first match wins; pushes that match no rule are forwarded.
+ * A rule may also set a "priority" ("high", "normal" or "low") for the pushes it forwards.
+ */
+public class PushyNotificationFilters {
+    public static final String ACTION_FORWARD = "forward";
+    public static final String ACTION_DROP = "drop";
+    public static final String ACTION_STORE = "store";
+
+    // Matches any value as long as the field is present
+    private static final String WILDCARD = "*";
+
+    // Namespace used by "store" rules that don't name one
+    private static final String DEFAULT_NAMESPACE = "default";
+
+    // SharedPreferences key for the rule set and file name for stored values
+    private static final String RULES = "pushyNotificationFilters";
+    private static final String STORE_FILE = "pushyNotificationFilterStore";
+
+    private static List<Rule> mRules;
+    private static final Map<String, JSONObject> mNamespaces = new HashMap<>();
+
+    private static class Rule {
+        final JSONObject match;
+        final String action;
+        final String namespace;
+        final Integer priority;
+
+        Rule(JSONObject match, String action, String namespace, Integer priority) {
+            this.match = match;
+            this.action = action;
+            this.namespace = namespace;
+            this.priority = priority;
+        }
+
+        boolean matches(JSONObject notification) {
+            Iterator<String> keys = match.keys();
+
+            // Every field in the match object must match
+            while (keys.hasNext()) {
+                String key = keys.next();
+                Object value = notification.opt(key);
+
+                // Field missing?
+                if (value == null) {
+                    return false;
+                }
+
+                String expected = match.optString(key);
+
+                // Compare string forms unless wildcard
+                if (!WILDCARD.equals(expected) && !expected.equals(String.valueOf(value))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    public static synchronized void setRules(JSONArray rules, Context context) throws JSONException {
+        // Validate and parse before persisting anything
+        List<Rule> parsed = parseRules(rules);
+
+        // Store rule set in SharedPreferences
+        PushyPersistence.getSettings(context).edit().putString(RULES, rules.toString()).apply();
+
+        // Swap in the new rules
+        mRules = parsed;
+    }
+
+    public static String getAction(JSONObject notification, Context context) {
+        // Find the first matching rule
+        Rule rule = findRule(notification, context);
+
+        return rule != null ? rule.action : ACTION_FORWARD;
+    }
+
+    public static Integer getPriority(JSONObject notification, Context context) {
+        // Find the first matching rule
+        Rule rule = findRule(notification, context);
+
+        return rule != null ? rule.priority : null;
+    }
+
+    public static boolean process(JSONObject notification, Context context) {
+        // Find the first matching rule
+        Rule rule = findRule(notification, context);
+
+        // No match, or explicitly forwarded?
+        if (rule == null || ACTION_FORWARD.equals(rule.action)) {
+            return true;
+        }
+
+        // Merge into the native key-value store
+        if (ACTION_STORE.equals(rule.action)) {
+            store(rule.namespace, notification, context);
+        }
+
+        // Dropped or stored, either way don't wake the WebView
+        return false;
+    }
+
+    public static synchronized JSONObject getStoredValues(String namespace, Context context) {
+        try {
+            // Return a copy so callers can't modify the cached namespace
+            return new JSONObject(getNamespace(namespace, context).toString());
+        }
+        catch (JSONException e) {
+            return new JSONObject();
+        }
+    }
+
+    public static synchronized void clearStoredValues(String namespace, Context context) {
+        // Drop cached and persisted values
+        mNamespaces.remove(namespace);
+        getStore(context).edit().remove(namespace).apply();
+    }
+
+    private static synchronized Rule findRule(JSONObject notification, Context context) {
+        // Load persisted rules once
+        if (mRules == null) {
+            mRules = loadRules(context);
+        }
+
+        // Evaluate rules in order
+        for (Rule rule : mRules) {
+            if (rule.matches(notification)) {
+                return rule;
+            }
+        }
+
+        return null;
+    }
+
+    private static synchronized void store(String namespace, JSONObject notification, Context context) {
+        JSONObject values = getNamespace(namespace, context);
+        Iterator<String> keys = notification.keys();
+
+        try {
+            // Merge payload fields (last write wins)
+            while (keys.hasNext()) {
+                String key = keys.next();
+                values.put(key, notification.get(key));
+            }
+        }
+        catch (JSONException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to merge notification into filter store:" + e.getMessage(), e);
+        }
+
+        // Persist the namespace asynchronously
+        getStore(context).edit().putString(namespace, values.toString()).apply();
+    }
+
+    private static JSONObject getNamespace(String namespace, Context context) {
+        // Already loaded?
+        JSONObject values = mNamespaces.get(namespace);
+
+        if (values != null) {
+            return values;
+        }
+
+        // Load persisted namespace
+        String json = getStore(context).getString(namespace, null);
+        values = new JSONObject();
+
+        if (json != null) {
+            try {
+                values = new JSONObject(json);
+            }
+            catch (JSONException e) {
+                // Log error to logcat and start over
+                Log.e(PushyLogging.TAG, "Failed to parse filter store namespace:" + e.getMessage(), e);
+            }
+        }
+
+        mNamespaces.put(namespace, values);
+        return values;
+    }
+
+    private static SharedPreferences getStore(Context context) {
+        // Stored values live in their own file so they don't bloat the main settings
+        return context.getApplicationContext().getSharedPreferences(STORE_FILE, Context.MODE_PRIVATE);
+    }
+
+    private static List<Rule> loadRules(Context context) {
+        // Get persisted rule set
+        String json = PushyPersistence.getSettings(context).getString(RULES, null);
+
+        // Nothing configured?
+        if (json == null) {
+            return new ArrayList<>();
+        }
+
+        try {
+            // Attempt to parse rule set
+            return parseRules(new JSONArray(json));
+        }
+        catch (JSONException e) {
+            // Log error to logcat and forward everything
+            Log.e(PushyLogging.TAG, "Failed to parse notification filters:" + e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    private static List<Rule> parseRules(JSONArray json) throws JSONException {
+        List<Rule> rules = new ArrayList<>(json.length());
+
+        // Traverse rule objects
+        for (int i = 0; i < json.length(); i++) {
+            JSONObject rule = json.getJSONObject(i);
+            String action = rule.optString("action", ACTION_FORWARD);
+
+            // Unknown action?
+            if (!ACTION_FORWARD.equals(action) && !ACTION_DROP.equals(action) && !ACTION_STORE.equals(action)) {
+                throw new JSONException("Invalid notification filter action: " + action);
+            }
+
+            JSONObject match = rule.optJSONObject("match");
+            Integer priority = rule.has("priority") ? PushyNotificationPriority.parse(rule.opt("priority")) : null;
+
+            rules.add(new Rule(match != null ? match : new JSONObject(), action, rule.optString("namespace", DEFAULT_NAMESPACE), priority));
+        }
+
+        return rules;
+    }
+}
@@ -0,0 +1,345 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import me.pushy.sdk.config.PushyLogging;
+
+/**
+ * Optional native history of received and clicked notifications.
+ *
+ * Records live in a SQLite table keyed by a monotonic row ID (arrival order) with indexes on
+ * arrival time, topic and read state. Queries page backwards from a cursor row ID, so every page
+ * is an index seek plus "limit" rows no matter how large the history is. The topic is taken from
+ * the payload's "topic" field (the push intent doesn't carry it). Writes happen on a dedicated
+ * background thread.
+ */
+public class PushyNotificationInbox {
+    public static final String ENABLED = "pushyInboxEnabled";
+    public static final String MAX_COUNT = "pushyInboxMaxCount";
+    public static final String MAX_AGE = "pushyInboxMaxAge";
+
+    // Default retention (0 disables a limit)
+    public static final int DEFAULT_MAX_COUNT = 1000;
+    public static final long DEFAULT_MAX_AGE = 30L * 24 * 60 * 60 * 1000;
+
+    // Largest page a query may request
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String DATABASE = "pushy-inbox.db";
+    private static final int DATABASE_VERSION = 1;
+
+    // Payload field holding the topic
+    private static final String TOPIC = "topic";
+
+    private static Helper mHelper;
+    private static volatile Boolean mEnabled;
+
+    // Maximum number of records waiting for the writer thread
+    private static final int WRITE_QUEUE_CAPACITY = 1000;
+
+    // Single writer thread so recording never blocks the receive or click path
+    private static final ExecutorService mWriter = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(WRITE_QUEUE_CAPACITY), new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            // Name the thread for easier debugging
+            Thread thread = new Thread(runnable, "PushyInbox");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }, new RejectedExecutionHandler() {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            // Writer too far behind, drop the record rather than writing it on the receive or click path
+            Log.w(PushyLogging.TAG, "Inbox write queue full, notification not recorded");
+        }
+    });
+
+    private static class Helper extends SQLiteOpenHelper {
+        Helper(Context context) {
+            super(context, DATABASE, null, DATABASE_VERSION);
+
+            // Readers don't block the writer thread
+            setWriteAheadLoggingEnabled(true);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            // Row ID doubles as the arrival order and the paging cursor
+            db.execSQL("CREATE TABLE inbox (id INTEGER PRIMARY KEY AUTOINCREMENT, received_at INTEGER NOT NULL, topic TEXT, message_key TEXT NOT NULL, read INTEGER NOT NULL DEFAULT 0, clicked INTEGER NOT NULL DEFAULT 0, payload TEXT NOT NULL)");
+            db.execSQL("CREATE INDEX inbox_received_at ON inbox (received_at)");
+            db.execSQL("CREATE INDEX inbox_topic ON inbox (topic, id)");
+            db.execSQL("CREATE INDEX inbox_unread ON inbox (read, id)");
+            db.execSQL("CREATE INDEX inbox_topic_unread ON inbox (topic, read, id)");
+            db.execSQL("CREATE INDEX inbox_message_key ON inbox (message_key)");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            // Only one version so far
+        }
+    }
+
+    public static boolean isEnabled(Context context) {
+        // Cache the setting, it's checked for every notification
+        if (mEnabled == null) {
+            mEnabled = PushyPersistence.getSettings(context).getBoolean(ENABLED, false);
+        }
+
+        return mEnabled;
+    }
+
+    public static synchronized void setOptions(boolean enabled, int maxCount, long maxAge, Context context) {
+        // Store settings in SharedPreferences
+        PushyPersistence.getSettings(context).edit()
+                .putBoolean(ENABLED, enabled)
+                .putInt(MAX_COUNT, maxCount)
+                .putLong(MAX_AGE, maxAge)
+                .apply();
+
+        mEnabled = enabled;
+    }
+
+    public static void recordReceived(JSONObject notification, Context context) {
+        // Inbox disabled?
+        if (!isEnabled(context)) {
+            return;
+        }
+
+        record(notification, false, context);
+    }
+
+    public static void recordClicked(JSONObject notification, Context context) {
+        // Inbox disabled?
+        if (!isEnabled(context)) {
+            return;
+        }
+
+        record(notification, true, context);
+    }
+
+    private static void record(final JSONObject notification, final boolean clicked, final Context context) {
+        // Serialize now, the payload may be modified after this call
+        final String payload = notification.toString();
+        final String topic = notification.optString(TOPIC, null);
+        final String messageKey = getMessageKey(notification, payload);
+        final long receivedAt = System.currentTimeMillis();
+
+        mWriter.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    SQLiteDatabase db = getDatabase(context);
+
+                    // Clicked? Mark the received record (if any) as clicked and read
+                    if (clicked) {
+                        SQLiteStatement update = db.compileStatement("UPDATE inbox SET clicked = 1, read = 1 WHERE message_key = ?");
+
+                        try {
+                            update.bindString(1, messageKey);
+
+                            if (update.executeUpdateDelete() > 0) {
+                                return;
+                            }
+                        }
+                        finally {
+                            update.close();
+                        }
+                    }
+
+                    // Insert a new record
+                    SQLiteStatement insert = db.compileStatement("INSERT INTO inbox (received_at, topic, message_key, read, clicked, payload) VALUES (?, ?, ?, ?, ?, ?)");
+                    long id;
+
+                    try {
+                        insert.bindLong(1, receivedAt);
+
+                        if (topic != null) {
+                            insert.bindString(2, topic);
+                        }
+
+                        insert.bindString(3, messageKey);
+                        insert.bindLong(4, clicked ? 1 : 0);
+                        insert.bindLong(5, clicked ? 1 : 0);
+                        insert.bindString(6, payload);
+
+                        id = insert.executeInsert();
+                    }
+                    finally {
+                        insert.close();
+                    }
+
+                    // Apply retention
+                    enforceRetention(db, id, context);
+                }
+                catch (Exception e) {
+                    // Log error to logcat
+                    Log.e(PushyLogging.TAG, "Failed to record notification in inbox:" + e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    public static JSONObject query(JSONObject options, Context context) throws JSONException {
+        SQLiteDatabase db = getDatabase(context);
+        int limit = Math.max(1, Math.min(MAX_PAGE_SIZE, options.optInt("limit", 20)));
+        List<String> args = new ArrayList<>();
+
+        // Page backwards (newest first) from the cursor row ID
+        StringBuilder where = new StringBuilder("id < ?");
+        args.add(String.valueOf(options.isNull("cursor") ? Long.MAX_VALUE : options.optLong("cursor", Long.MAX_VALUE)));
+
+        // Arrival time bound on the arrival time itself (it follows the wall clock, which may go backwards, so it can't bound the row ID)
+        if (!options.isNull("since")) {
+            where.append(" AND received_at >= ?");
+            args.add(String.valueOf(options.optLong("since", 0)));
+        }
+
+        if (!options.isNull(TOPIC)) {
+            where.append(" AND topic = ?");
+            args.add(options.optString(TOPIC));
+        }
+
+        if (options.optBoolean("unreadOnly", false)) {
+            where.append(" AND read = 0");
+        }
+
+        JSONArray items = new JSONArray();
+        long last = -1;
+
+        // Served by the (topic, read, id) indexes, no sort step
+        Cursor cursor = db.rawQuery("SELECT id, received_at, topic, read, clicked, payload FROM inbox WHERE " + where + " ORDER BY id DESC LIMIT " + limit, args.toArray(new String[args.size()]));
+
+        try {
+            while (cursor.moveToNext()) {
+                last = cursor.getLong(0);
+
+                JSONObject item = new JSONObject();
+                item.put("id", last);
+                item.put("receivedAt", cursor.getLong(1));
+                item.put(TOPIC, cursor.getString(2) != null ? cursor.getString(2) : JSONObject.NULL);
+                item.put("read", cursor.getInt(3) == 1);
+                item.put("clicked", cursor.getInt(4) == 1);
+                item.put("notification", new JSONObject(cursor.getString(5)));
+                items.put(item);
+            }
+        }
+        finally {
+            cursor.close();
+        }
+
+        // Next page continues after the last row (null once the page comes back short)
+        JSONObject page = new JSONObject();
+        page.put("items", items);
+        page.put("cursor", items.length() == limit ? (Object) last : JSONObject.NULL);
+
+        return page;
+    }
+
+    public static int markRead(JSONArray ids, Context context) throws JSONException {
+        SQLiteDatabase db = getDatabase(context);
+
+        // No IDs? Mark everything read
+        if (ids == null) {
+            SQLiteStatement update = db.compileStatement("UPDATE inbox SET read = 1 WHERE read = 0");
+
+            try {
+                return update.executeUpdateDelete();
+            }
+            finally {
+                update.close();
+            }
+        }
+
+        SQLiteStatement update = db.compileStatement("UPDATE inbox SET read = 1 WHERE id = ? AND read = 0");
+        int updated = 0;
+
+        // Mark the given records in a single transaction
+        db.beginTransaction();
+
+        try {
+            for (int i = 0; i < ids.length(); i++) {
+                update.bindLong(1, ids.getLong(i));
+                updated += update.executeUpdateDelete();
+            }
+
+            db.setTransactionSuccessful();
+        }
+        finally {
+            db.endTransaction();
+            update.close();
+        }
+
+        return updated;
+    }
+
+    public static long getUnreadCount(String topic, Context context) {
+        SQLiteDatabase db = getDatabase(context);
+
+        // Counted from the unread index (optionally narrowed to one topic)
+        SQLiteStatement count = db.compileStatement(topic == null ? "SELECT COUNT(*) FROM inbox WHERE read = 0" : "SELECT COUNT(*) FROM inbox WHERE topic = ? AND read = 0");
+
+        try {
+            if (topic != null) {
+                count.bindString(1, topic);
+            }
+
+            return count.simpleQueryForLong();
+        }
+        finally {
+            count.close();
+        }
+    }
+
+    public static void clear(Context context) {
+        // Drop the whole history
+        getDatabase(context).execSQL("DELETE FROM inbox");
+    }
+
+    private static void enforceRetention(SQLiteDatabase db, long id, Context context) {
+        int maxCount = PushyPersistence.getSettings(context).getInt(MAX_COUNT, DEFAULT_MAX_COUNT);
+        long maxAge = PushyPersistence.getSettings(context).getLong(MAX_AGE, DEFAULT_MAX_AGE);
+
+        // Row IDs are never reused, so everything more than maxCount rows back is out
+        if (maxCount > 0) {
+            db.execSQL("DELETE FROM inbox WHERE id <= ?", new Object[]{id - maxCount});
+        }
+
+        // Expired records (arrival time index)
+        if (maxAge > 0) {
+            db.execSQL("DELETE FROM inbox WHERE received_at < ?", new Object[]{System.currentTimeMillis() - maxAge});
+        }
+    }
+
+    private static String getMessageKey(JSONObject notification, String payload) {
+        // Prefer the sender's message ID, fall back to a 64-bit hash of the payload (a 32-bit one collides too easily)
+        String messageId = notification.optString("messageId", null);
+        return messageId != null ? messageId : Long.toHexString(PushyMessageDeduplicator.hash(payload));
+    }
+
+    private static synchronized SQLiteDatabase getDatabase(Context context) {
+        // Open the database lazily
+        if (mHelper == null) {
+            mHelper = new Helper(context.getApplicationContext());
+        }
+
+        return mHelper.getWritableDatabase();
+    }
+}
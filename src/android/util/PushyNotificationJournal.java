@@ -0,0 +1,496 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only record file, the default pending notification store.
+ *
+ * The file starts with a fixed header (magic, format version, next record ID) followed by
+ * length-prefixed, CRC-protected records. Appending a notification is a single write at the
+ * end of the file, removals are written as tombstone records, and the file is rewritten only
+ * when compacting. Every append and every batch of removals is synced before returning. A torn
+ * or corrupt tail left behind by a crash is truncated on open.
+ *
+ * The header's next record ID is only rewritten when records are dropped from the file (clear
+ * and compaction); on open it is raised past the highest ID found in the records, so IDs are
+ * never reused after a crash.
+ *
+ * Every record belongs to a priority lane, stored in the upper nibble of its type byte (records
+ * written before lanes existed read back as lane 0). Lanes are drained highest first and
+ * evicted lowest first.
+ */
+public class PushyNotificationJournal implements PushyNotificationStore {
+    private static final int MAGIC = 0x50534A4E;
+    private static final int VERSION = 1;
+
+    // Header: magic (int), version (int), next record ID (long)
+    private static final int HEADER_SIZE = 16;
+
+    // Record header: payload length (int), CRC32 (int), type (byte), ID (long), timestamp (long)
+    private static final int RECORD_HEADER_SIZE = 25;
+
+    // Upper bound for a single payload, anything larger is treated as corruption
+    private static final int MAX_PAYLOAD_SIZE = 4 * 1024 * 1024;
+
+    // Compact once dead bytes exceed this size and outweigh live bytes
+    private static final long COMPACTION_THRESHOLD = 32 * 1024;
+
+    private static final byte TYPE_ENTRY = 1;
+    private static final byte TYPE_REMOVE = 2;
+
+    // Priority lanes must fit in the signed upper nibble of the type byte
+    public static final int MIN_PRIORITY = -8;
+    public static final int MAX_PRIORITY = 7;
+
+    private final File mFile;
+    private RandomAccessFile mFileHandle;
+    private long mNextId;
+    private long mLength;
+    private long mLiveBytes;
+    private long mPayloadBytes;
+    private final TreeMap<Long, Entry> mEntries = new TreeMap<>();
+    private final TreeMap<Integer, TreeMap<Long, Entry>> mLanes = new TreeMap<>(Collections.<Integer>reverseOrder());
+
+    public static class Entry extends PushyNotificationStore.Entry {
+        final long offset;
+        final int length;
+
+        Entry(long id, long timestamp, int priority, long offset, int length) {
+            super(id, timestamp, priority);
+            this.offset = offset;
+            this.length = length;
+        }
+
+        int getRecordSize() {
+            return RECORD_HEADER_SIZE + length;
+        }
+    }
+
+    public PushyNotificationJournal(File file) throws IOException {
+        mFile = file;
+
+        // Load the record index and truncate any damaged tail
+        open();
+    }
+
+    @Override
+    public synchronized long append(byte[] payload, long timestamp, int priority) throws IOException {
+        // Lane must fit in the type byte
+        if (priority < MIN_PRIORITY || priority > MAX_PRIORITY) {
+            throw new IllegalArgumentException("Invalid priority: " + priority);
+        }
+
+        // Assign a monotonic record ID
+        long id = mNextId++;
+
+        // Serialize the record and write it at the end of the file in a single call
+        byte[] record = encodeRecord((byte) ((priority << 4) | TYPE_ENTRY), id, timestamp, payload);
+        mFileHandle.seek(mLength);
+        mFileHandle.write(record);
+
+        // Make it durable before reporting it stored
+        mFileHandle.getFD().sync();
+
+        // Index the new record
+        index(new Entry(id, timestamp, priority, mLength + RECORD_HEADER_SIZE, payload.length));
+        mLength += record.length;
+        mLiveBytes += record.length;
+        mPayloadBytes += payload.length;
+
+        return id;
+    }
+
+    @Override
+    public synchronized List<Entry> getEntries() {
+        // Return a snapshot of live records in arrival order
+        return new ArrayList<>(mEntries.values());
+    }
+
+    @Override
+    public synchronized List<Entry> getEntries(int afterPriority, long afterId, int limit) {
+        List<Entry> page = new ArrayList<>();
+
+        // Lanes are ordered highest priority first, records within a lane by arrival (ID) order
+        for (Map.Entry<Integer, TreeMap<Long, Entry>> lane : mLanes.entrySet()) {
+            // Lane already passed? (a negative ID starts from the highest lane)
+            if (afterId >= 0 && lane.getKey() > afterPriority) {
+                continue;
+            }
+
+            // Resume after the last record returned in the cursor's lane
+            Collection<Entry> entries = afterId >= 0 && lane.getKey() == afterPriority ? lane.getValue().tailMap(afterId, false).values() : lane.getValue().values();
+
+            for (Entry entry : entries) {
+                // Page full?
+                if (page.size() >= limit) {
+                    return page;
+                }
+
+                page.add(entry);
+            }
+        }
+
+        return page;
+    }
+
+    @Override
+    public synchronized int size() {
+        return mEntries.size();
+    }
+
+    @Override
+    public synchronized byte[] read(PushyNotificationStore.Entry entry) throws IOException {
+        // Look the record up by ID, a compaction since the entry was listed may have moved it
+        Entry record = mEntries.get(entry.id);
+
+        // Removed in the meantime?
+        if (record == null) {
+            return null;
+        }
+
+        // Read the payload directly from its current offset
+        byte[] payload = new byte[record.length];
+        mFileHandle.seek(record.offset);
+        mFileHandle.readFully(payload);
+
+        return payload;
+    }
+
+    @Override
+    public synchronized long getPayloadBytes() {
+        return mPayloadBytes;
+    }
+
+    @Override
+    public synchronized int remove(Collection<Long> ids) throws IOException {
+        int removed = 0;
+
+        // Append a tombstone for every live record
+        for (Long id : ids) {
+            Entry entry = mEntries.get(id);
+
+            // Already gone?
+            if (entry == null) {
+                continue;
+            }
+
+            writeTombstone(entry);
+            removed++;
+        }
+
+        // Make the batch of tombstones durable with a single sync
+        if (removed > 0) {
+            mFileHandle.getFD().sync();
+        }
+
+        // Reclaim space if needed
+        compactIfWasteful();
+
+        return removed;
+    }
+
+    @Override
+    public synchronized int evict(int maxCount, long maxPayloadBytes, long minTimestamp) throws IOException {
+        int evicted = 0;
+
+        // Expired records go first, whatever their lane
+        while (!mEntries.isEmpty() && mEntries.firstEntry().getValue().timestamp < minTimestamp) {
+            writeTombstone(mEntries.firstEntry().getValue());
+            evicted++;
+        }
+
+        // Then the oldest records of the lowest lane until within the count and size limits
+        while (!mEntries.isEmpty() && ((maxCount > 0 && mEntries.size() > maxCount) || (maxPayloadBytes > 0 && mPayloadBytes > maxPayloadBytes))) {
+            writeTombstone(mLanes.lastEntry().getValue().firstEntry().getValue());
+            evicted++;
+        }
+
+        // Make the tombstones durable, then reclaim space if needed
+        if (evicted > 0) {
+            mFileHandle.getFD().sync();
+            compactIfWasteful();
+        }
+
+        return evicted;
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        // Drop all records but keep the ID sequence so IDs are never reused
+        mEntries.clear();
+        mLanes.clear();
+        writeHeader(mFileHandle, mNextId);
+        mFileHandle.setLength(HEADER_SIZE);
+
+        // The header now holds the only record of the ID sequence
+        mFileHandle.getFD().sync();
+
+        mLength = HEADER_SIZE;
+        mLiveBytes = 0;
+        mPayloadBytes = 0;
+    }
+
+    public synchronized void compact() throws IOException {
+        File tempFile = new File(mFile.getPath() + ".tmp");
+        RandomAccessFile temp = new RandomAccessFile(tempFile, "rw");
+        TreeMap<Long, Entry> compacted = new TreeMap<>();
+        long length = HEADER_SIZE;
+
+        try {
+            temp.setLength(0);
+            writeHeader(temp, mNextId);
+
+            // Copy live records verbatim (their CRC covers ID and timestamp, so bytes are unchanged)
+            for (Entry entry : mEntries.values()) {
+                byte[] record = new byte[entry.getRecordSize()];
+                mFileHandle.seek(entry.offset - RECORD_HEADER_SIZE);
+                mFileHandle.readFully(record);
+                temp.write(record);
+
+                compacted.put(entry.id, new Entry(entry.id, entry.timestamp, entry.priority, length + RECORD_HEADER_SIZE, entry.length));
+                length += record.length;
+            }
+
+            // Make sure the new file is durable before it replaces the old one
+            temp.getFD().sync();
+        }
+        finally {
+            temp.close();
+        }
+
+        // Atomically swap in the compacted file
+        mFileHandle.close();
+
+        if (!tempFile.renameTo(mFile)) {
+            // Fall back to the old file, it is still intact
+            mFileHandle = new RandomAccessFile(mFile, "rw");
+            throw new IOException("Failed to replace journal with compacted copy");
+        }
+
+        mFileHandle = new RandomAccessFile(mFile, "rw");
+        mEntries.clear();
+        mLanes.clear();
+
+        for (Entry entry : compacted.values()) {
+            index(entry);
+        }
+
+        mLength = length;
+        mLiveBytes = length - HEADER_SIZE;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        // Release the file handle
+        mFileHandle.close();
+    }
+
+    private void writeTombstone(Entry entry) throws IOException {
+        // Append a removal record for the entry
+        byte[] record = encodeRecord(TYPE_REMOVE, entry.id, 0, new byte[0]);
+        mFileHandle.seek(mLength);
+        mFileHandle.write(record);
+
+        // Drop it from the index
+        unindex(entry);
+        mLength += record.length;
+        mLiveBytes -= entry.getRecordSize();
+        mPayloadBytes -= entry.length;
+    }
+
+    private void index(Entry entry) {
+        // Add to the arrival order index and to its lane
+        mEntries.put(entry.id, entry);
+        TreeMap<Long, Entry> lane = mLanes.get(entry.priority);
+
+        if (lane == null) {
+            lane = new TreeMap<>();
+            mLanes.put(entry.priority, lane);
+        }
+
+        lane.put(entry.id, entry);
+    }
+
+    private void unindex(Entry entry) {
+        // Remove from both indexes
+        mEntries.remove(entry.id);
+        TreeMap<Long, Entry> lane = mLanes.get(entry.priority);
+
+        // Drop empty lanes so eviction always finds a record in the lowest one
+        if (lane != null && lane.remove(entry.id) != null && lane.isEmpty()) {
+            mLanes.remove(entry.priority);
+        }
+    }
+
+    private void compactIfWasteful() throws IOException {
+        // Reclaim space once the file is mostly dead records
+        long deadBytes = mLength - HEADER_SIZE - mLiveBytes;
+
+        if (deadBytes > COMPACTION_THRESHOLD && deadBytes > mLiveBytes) {
+            compact();
+        }
+    }
+
+    private void open() throws IOException {
+        // Leftover from an interrupted compaction?
+        new File(mFile.getPath() + ".tmp").delete();
+
+        mFileHandle = new RandomAccessFile(mFile, "rw");
+
+        // New or unrecognizable file?
+        if (!readHeader()) {
+            writeHeader(mFileHandle, 0);
+            mFileHandle.setLength(HEADER_SIZE);
+            mFileHandle.getFD().sync();
+            mNextId = 0;
+            mLength = HEADER_SIZE;
+            return;
+        }
+
+        long headerNextId = mNextId;
+
+        // Scan records and stop at the first incomplete or corrupt one
+        long validLength = scan();
+
+        // Persist the recovered ID sequence if records got ahead of the header
+        if (mNextId > headerNextId) {
+            writeHeader(mFileHandle, mNextId);
+            mFileHandle.getFD().sync();
+        }
+
+        // Truncate the damaged tail so future appends start at a record boundary
+        if (validLength < mFileHandle.length()) {
+            mFileHandle.setLength(validLength);
+        }
+
+        mLength = validLength;
+    }
+
+    private boolean readHeader() throws IOException {
+        // Header missing?
+        if (mFileHandle.length() < HEADER_SIZE) {
+            return false;
+        }
+
+        mFileHandle.seek(0);
+
+        // Not a journal file or an unknown version?
+        if (mFileHandle.readInt() != MAGIC || mFileHandle.readInt() != VERSION) {
+            return false;
+        }
+
+        mNextId = mFileHandle.readLong();
+        return true;
+    }
+
+    private long scan() throws IOException {
+        long fileLength = mFileHandle.length();
+        long offset = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)));
+
+        try {
+            // Skip past the header
+            input.skipBytes(HEADER_SIZE);
+
+            while (offset + RECORD_HEADER_SIZE <= fileLength) {
+                int length = input.readInt();
+                int checksum = input.readInt();
+
+                // Implausible length or record runs past end of file?
+                if (length < 0 || length > MAX_PAYLOAD_SIZE || offset + RECORD_HEADER_SIZE + length > fileLength) {
+                    break;
+                }
+
+                byte type = input.readByte();
+                long id = input.readLong();
+                long timestamp = input.readLong();
+                byte[] payload = new byte[length];
+                input.readFully(payload);
+
+                // Torn or corrupt record?
+                if (checksum != computeChecksum(crc, type, id, timestamp, payload)) {
+                    break;
+                }
+
+                // Apply the record to the index (lane in the upper nibble, sign-extended)
+                if ((type & 0x0F) == TYPE_ENTRY) {
+                    index(new Entry(id, timestamp, type >> 4, offset + RECORD_HEADER_SIZE, length));
+                    mLiveBytes += RECORD_HEADER_SIZE + length;
+                    mPayloadBytes += length;
+                }
+                else if (type == TYPE_REMOVE) {
+                    Entry entry = mEntries.get(id);
+
+                    if (entry != null) {
+                        unindex(entry);
+                        mLiveBytes -= entry.getRecordSize();
+                        mPayloadBytes -= entry.length;
+                    }
+                }
+                else {
+                    break;
+                }
+
+                // Keep the ID sequence ahead of every record seen
+                mNextId = Math.max(mNextId, id + 1);
+                offset += RECORD_HEADER_SIZE + length;
+            }
+        }
+        catch (EOFException e) {
+            // File shrank underneath us, keep what was read so far
+        }
+        finally {
+            input.close();
+        }
+
+        return offset;
+    }
+
+    private static void writeHeader(RandomAccessFile file, long nextId) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(nextId);
+
+        file.seek(0);
+        file.write(header.array());
+    }
+
+    private static byte[] encodeRecord(byte type, long id, long timestamp, byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+
+        record.putInt(payload.length);
+        record.putInt(computeChecksum(new CRC32(), type, id, timestamp, payload));
+        record.put(type);
+        record.putLong(id);
+        record.putLong(timestamp);
+        record.put(payload);
+
+        return record.array();
+    }
+
+    private static int computeChecksum(CRC32 crc, byte type, long id, long timestamp, byte[] payload) {
+        ByteBuffer fields = ByteBuffer.allocate(17);
+        fields.put(type).putLong(id).putLong(timestamp);
+
+        crc.reset();
+        crc.update(fields.array());
+        crc.update(payload);
+
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,56 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.Context;
+
+import org.json.JSONObject;
+
+/**
+ * Priority class of a notification, taken from a matching filter rule or the payload's
+ * "priority" field ("high", "normal" or "low"). Higher classes are stored and delivered first,
+ * lower ones are evicted first and may be collapsed by their "collapseKey" field.
+ */
+public class PushyNotificationPriority {
+    public static final int HIGH = 1;
+    public static final int NORMAL = 0;
+    public static final int LOW = -1;
+
+    // Payload fields
+    private static final String PRIORITY = "priority";
+    private static final String COLLAPSE_KEY = "collapseKey";
+
+    public static int resolve(JSONObject notification, Context context) {
+        // Matching filter rule sets a priority?
+        Integer priority = PushyNotificationFilters.getPriority(notification, context);
+
+        if (priority != null) {
+            return priority;
+        }
+
+        // Fall back to the payload field
+        return parse(notification.opt(PRIORITY));
+    }
+
+    public static int parse(Object value) {
+        // Numeric priority? Only its sign matters
+        if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            return number > 0 ? HIGH : number < 0 ? LOW : NORMAL;
+        }
+
+        // Named priority?
+        if ("high".equalsIgnoreCase(String.valueOf(value))) {
+            return HIGH;
+        }
+        else if ("low".equalsIgnoreCase(String.valueOf(value))) {
+            return LOW;
+        }
+
+        return NORMAL;
+    }
+
+    public static String getCollapseKey(JSONObject notification) {
+        // Missing or empty key disables collapsing
+        String key = notification.optString(COLLAPSE_KEY, null);
+        return key == null || key.isEmpty() ? null : key;
+    }
+}
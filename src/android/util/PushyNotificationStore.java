@@ -0,0 +1,53 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage backend for pending notifications (see PushyPersistence).
+ *
+ * Records hold an encoded payload, an arrival timestamp and a priority lane, and are identified
+ * by IDs that grow monotonically and are never reused, even after clear(). Pages are served
+ * highest lane first and in arrival order within a lane; eviction drops expired records first,
+ * then the oldest records of the lowest lane.
+ */
+public interface PushyNotificationStore {
+    // Backend names accepted by PushyPersistence.setStorageBackend()
+    String JOURNAL = "journal";
+    String SQLITE = "sqlite";
+    String SHARED_PREFERENCES = "sharedPreferences";
+
+    class Entry {
+        public final long id;
+        public final long timestamp;
+        public final int priority;
+
+        public Entry(long id, long timestamp, int priority) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.priority = priority;
+        }
+    }
+
+    long append(byte[] payload, long timestamp, int priority) throws IOException;
+
+    List<? extends Entry> getEntries() throws IOException;
+
+    List<? extends Entry> getEntries(int afterPriority, long afterId, int limit) throws IOException;
+
+    // Payload of the record with the entry's ID (never another record's), null if it was removed since the entry was listed
+    byte[] read(Entry entry) throws IOException;
+
+    int size() throws IOException;
+
+    long getPayloadBytes() throws IOException;
+
+    int remove(Collection<Long> ids) throws IOException;
+
+    int evict(int maxCount, long maxPayloadBytes, long minTimestamp) throws IOException;
+
+    void clear() throws IOException;
+
+    void close() throws IOException;
+}
@@ -0,0 +1,508 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.Build;
+import android.util.Log;
+
+import org.apache.cordova.CallbackContext;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import me.pushy.sdk.Pushy;
+import me.pushy.sdk.config.PushyLogging;
+import me.pushy.sdk.cordova.internal.services.PushyOperationJobService;
+
+/**
+ * Optional persisted queue for register / subscribe / unsubscribe calls that failed for lack of
+ * connectivity.
+ *
+ * Topic operations are merged into the desired state per topic: an operation that brings a topic
+ * back to its last known server-side state cancels the queued one, anything else replaces it.
+ * Superseded and cancelled operations resolve right away. The queue is replayed by a JobScheduler
+ * job that waits for connectivity, with exponential backoff and jitter between failed attempts.
+ * Callbacks of queued calls stay pending until their operation completes (while the app runs).
+ */
+public class PushyOperationQueue {
+    public static final String ENABLED = "pushyOperationQueueEnabled";
+
+    // SharedPreferences key for the queued operations and retry state
+    private static final String STATE = "pushyOperationQueue";
+
+    // Operation types
+    private static final String REGISTER = "register";
+    private static final String SUBSCRIBE = "subscribe";
+    private static final String UNSUBSCRIBE = "unsubscribe";
+
+    // JobScheduler job ID (unique within the app)
+    private static final int JOB_ID = 0x50534F51;
+
+    // Exponential backoff between failed attempts (before jitter)
+    private static final long BACKOFF_BASE_MS = 15 * 1000;
+    private static final long BACKOFF_MAX_MS = 30 * 60 * 1000;
+
+    private static JSONObject mState;
+    private static final List<Waiter> mWaiters = new ArrayList<>();
+    private static final Random mRandom = new Random();
+
+    private static class Waiter {
+        final CallbackContext callback;
+        final Set<String> keys;
+
+        Waiter(CallbackContext callback, Set<String> keys) {
+            this.callback = callback;
+            this.keys = keys;
+        }
+    }
+
+    public static boolean isEnabled(Context context) {
+        // Disabled by default
+        return PushyPersistence.getSettings(context).getBoolean(ENABLED, false);
+    }
+
+    public static synchronized void setEnabled(boolean enabled, Context context) {
+        // Store setting in SharedPreferences
+        PushyPersistence.getSettings(context).edit().putBoolean(ENABLED, enabled).apply();
+
+        // Disabled? Drop anything queued
+        if (!enabled) {
+            clear("Operation queue disabled", context);
+        }
+    }
+
+    public static synchronized void clear(String reason, Context context) {
+        // Drop queued operations and stop retrying
+        mState = new JSONObject();
+        save(context);
+        cancelJob(context);
+
+        // Reject everyone still waiting
+        for (Waiter waiter : mWaiters) {
+            waiter.callback.error(reason);
+        }
+
+        mWaiters.clear();
+    }
+
+    public static synchronized void releaseCallbacks() {
+        // JS context is gone, queued operations still replay but nobody waits for them
+        mWaiters.clear();
+    }
+
+    public static synchronized boolean shouldQueue(Exception exc, Context context) {
+        // Queue only when enabled, for connectivity problems (other errors would fail again), or behind already queued operations to keep them in order
+        return isEnabled(context) && (isRetryable(exc, context) || getState(context).optBoolean(REGISTER, false) || getTopics(context).length() > 0);
+    }
+
+    private static boolean isRetryable(Exception exc, Context context) {
+        // Offline?
+        if (!isConnected(context)) {
+            return true;
+        }
+
+        // Failed with an I/O error anywhere in the cause chain (the SDK may wrap it more than once)
+        for (Throwable cause = exc; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public static synchronized void enqueueRegister(List<CallbackContext> callbacks, Context context) {
+        try {
+            // Register once, no matter how often it is queued
+            getState(context).put(REGISTER, true);
+        }
+        catch (JSONException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to queue registration:" + e.getMessage(), e);
+        }
+
+        // Resolve callbacks once registration completes
+        for (CallbackContext callback : callbacks) {
+            mWaiters.add(new Waiter(callback, new HashSet<>(Collections.singletonList(REGISTER))));
+        }
+
+        // Persist and replay when possible
+        save(context);
+        schedule(context);
+    }
+
+    public static synchronized void enqueueTopics(List<String> topics, boolean subscribe, CallbackContext callback, Context context) {
+        List<String> none = Collections.emptyList();
+
+        // Single direction
+        enqueueTopics(subscribe ? topics : none, subscribe ? none : topics, callback, context);
+    }
+
+    public static synchronized void enqueueTopics(List<String> subscribe, List<String> unsubscribe, CallbackContext callback, Context context) {
+        Set<String> keys = new HashSet<>();
+
+        // Merge both directions into the queued state, resolved together
+        mergeTopics(subscribe, true, keys, context);
+        mergeTopics(unsubscribe, false, keys, context);
+
+        // Everything cancelled out? Resolve right away
+        if (keys.isEmpty()) {
+            callback.success();
+        }
+        else {
+            mWaiters.add(new Waiter(callback, keys));
+        }
+
+        // Persist and replay when possible
+        save(context);
+        schedule(context);
+    }
+
+    public static synchronized Set<String> getEffectiveTopics(Context context) {
+        // Topics subscribed server-side
+        Set<String> effective = PushyPersistence.getSubscribedTopics(context);
+        JSONObject queued = getTopics(context);
+        Iterator<String> topics = queued.keys();
+
+        // Apply queued operations on top
+        while (topics.hasNext()) {
+            String topic = topics.next();
+
+            if (SUBSCRIBE.equals(queued.optString(topic))) {
+                effective.add(topic);
+            }
+            else {
+                effective.remove(topic);
+            }
+        }
+
+        return effective;
+    }
+
+    private static void mergeTopics(List<String> topics, boolean subscribe, Set<String> keys, Context context) {
+        JSONObject queued = getTopics(context);
+        Set<String> subscribed = PushyPersistence.getSubscribedTopics(context);
+        String operation = subscribe ? SUBSCRIBE : UNSUBSCRIBE;
+
+        try {
+            for (String topic : topics) {
+                String previous = queued.optString(topic, null);
+
+                // Already in the requested state server-side? Nothing to do
+                boolean needed = subscribed.contains(topic) != subscribe;
+
+                // Queued operation superseded or cancelled out? Resolve its callbacks
+                if (previous != null && !(needed && previous.equals(operation))) {
+                    queued.remove(topic);
+                    complete(getKey(previous, topic), null);
+                }
+
+                if (!needed) {
+                    continue;
+                }
+
+                queued.put(topic, operation);
+                keys.add(getKey(operation, topic));
+            }
+        }
+        catch (JSONException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to queue topic operation:" + e.getMessage(), e);
+        }
+    }
+
+    public static synchronized JSONObject getStatus(Context context) {
+        JSONObject state = getState(context);
+        JSONObject queued = getTopics(context);
+        JSONArray subscribe = new JSONArray();
+        JSONArray unsubscribe = new JSONArray();
+        Iterator<String> topics = queued.keys();
+
+        // Split queued topics by operation
+        while (topics.hasNext()) {
+            String topic = topics.next();
+            (SUBSCRIBE.equals(queued.optString(topic)) ? subscribe : unsubscribe).put(topic);
+        }
+
+        JSONObject status = new JSONObject();
+
+        try {
+            status.put("enabled", isEnabled(context));
+            status.put("register", state.optBoolean(REGISTER, false));
+            status.put("subscribe", subscribe);
+            status.put("unsubscribe", unsubscribe);
+            status.put("attempts", state.optInt("attempts", 0));
+            status.put("nextAttempt", state.optLong("nextAttempt", 0));
+        }
+        catch (JSONException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to create operation queue status:" + e.getMessage(), e);
+        }
+
+        return status;
+    }
+
+    public static void replay(Context context) {
+        boolean register;
+        List<String> subscribe = new ArrayList<>();
+        List<String> unsubscribe = new ArrayList<>();
+
+        synchronized (PushyOperationQueue.class) {
+            // Take a snapshot of queued operations (new ones may be queued while replaying)
+            register = getState(context).optBoolean(REGISTER, false);
+            JSONObject queued = getTopics(context);
+            Iterator<String> topics = queued.keys();
+
+            while (topics.hasNext()) {
+                String topic = topics.next();
+                (SUBSCRIBE.equals(queued.optString(topic)) ? subscribe : unsubscribe).add(topic);
+            }
+        }
+
+        try {
+            // Register first, topic operations need a device token
+            if (register) {
+                String token = Pushy.register(context);
+                PushyPersistence.setDeviceToken(token, context);
+                onReplayed(REGISTER, Collections.<String>emptyList(), token, null, context);
+            }
+
+            // Subscribe and unsubscribe with a single request each
+            if (!subscribe.isEmpty()) {
+                replayTopics(subscribe, true, context);
+            }
+
+            if (!unsubscribe.isEmpty()) {
+                replayTopics(unsubscribe, false, context);
+            }
+
+            synchronized (PushyOperationQueue.class) {
+                // Reset backoff after a successful attempt
+                getState(context).remove("attempts");
+                getState(context).remove("nextAttempt");
+                save(context);
+            }
+        }
+        catch (Exception exc) {
+            // Still offline? Try again later
+            if (isRetryable(exc, context)) {
+                backoff(context);
+                return;
+            }
+
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to replay queued registration:" + exc.getMessage(), exc);
+
+            // Permanent registration failure (topic failures are handled in replayTopics), drop it and reject its callbacks
+            onReplayed(REGISTER, Collections.<String>emptyList(), null, exc.getMessage(), context);
+        }
+
+        // Anything left (queued while replaying)? Replay again
+        schedule(context);
+    }
+
+    private static void replayTopics(List<String> topics, boolean subscribe, Context context) throws Exception {
+        String[] array = topics.toArray(new String[topics.size()]);
+
+        try {
+            // Single request for all queued topics
+            if (subscribe) {
+                Pushy.subscribe(array, context);
+                PushyPersistence.addSubscribedTopics(topics, context);
+            }
+            else {
+                Pushy.unsubscribe(array, context);
+                PushyPersistence.removeSubscribedTopics(topics, context);
+            }
+        }
+        catch (Exception exc) {
+            // Connectivity problem? Keep the operations queued
+            if (isRetryable(exc, context)) {
+                throw exc;
+            }
+
+            // Permanent failure, drop the operations and reject their callbacks
+            onReplayed(subscribe ? SUBSCRIBE : UNSUBSCRIBE, topics, null, exc.getMessage(), context);
+            return;
+        }
+
+        // Done, resolve their callbacks
+        onReplayed(subscribe ? SUBSCRIBE : UNSUBSCRIBE, topics, null, null, context);
+    }
+
+    private static synchronized void onReplayed(String operation, List<String> topics, String result, String error, Context context) {
+        // Registration replayed?
+        if (operation.equals(REGISTER)) {
+            getState(context).remove(REGISTER);
+            complete(REGISTER, result, error);
+        }
+
+        JSONObject queued = getTopics(context);
+
+        for (String topic : topics) {
+            // Remove the operation unless it was superseded while replaying
+            if (operation.equals(queued.optString(topic, null))) {
+                queued.remove(topic);
+            }
+
+            complete(getKey(operation, topic), result, error);
+        }
+
+        // Persist remaining operations
+        save(context);
+    }
+
+    private static synchronized void backoff(Context context) {
+        JSONObject state = getState(context);
+        int attempts = state.optInt("attempts", 0) + 1;
+
+        // Exponential backoff capped at the maximum, with jitter so devices don't retry in lockstep
+        long delay = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(attempts - 1, 16));
+        delay = delay / 2 + (long) (mRandom.nextDouble() * (delay / 2));
+
+        try {
+            state.put("attempts", attempts);
+            state.put("nextAttempt", System.currentTimeMillis() + delay);
+        }
+        catch (JSONException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to store operation queue backoff:" + e.getMessage(), e);
+        }
+
+        // Persist and retry later
+        save(context);
+        schedule(context);
+    }
+
+    public static synchronized void schedule(Context context) {
+        // JobScheduler requires Android 5.0+
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return;
+        }
+
+        JSONObject state = getState(context);
+
+        // Nothing queued? Stop retrying
+        if (!state.optBoolean(REGISTER, false) && getTopics(context).length() == 0) {
+            cancelJob(context);
+            return;
+        }
+
+        // Wait for connectivity and for the backoff delay to pass (replaces any scheduled run)
+        JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, PushyOperationJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                .setMinimumLatency(Math.max(0, state.optLong("nextAttempt", 0) - System.currentTimeMillis()))
+                .setPersisted(true)
+                .build();
+
+        ((JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE)).schedule(job);
+    }
+
+    private static void cancelJob(Context context) {
+        // JobScheduler requires Android 5.0+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            ((JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE)).cancel(JOB_ID);
+        }
+    }
+
+    private static boolean isConnected(Context context) {
+        // Check for an active network connection
+        ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo networkInfo = connectivityManager != null ? connectivityManager.getActiveNetworkInfo() : null;
+
+        return networkInfo != null && networkInfo.isConnected();
+    }
+
+    private static void complete(String key, String result) {
+        complete(key, result, null);
+    }
+
+    private static void complete(String key, String result, String error) {
+        Iterator<Waiter> iterator = mWaiters.iterator();
+
+        while (iterator.hasNext()) {
+            Waiter waiter = iterator.next();
+
+            // Not waiting for this operation?
+            if (!waiter.keys.remove(key)) {
+                continue;
+            }
+
+            // Failed? Reject right away
+            if (error != null) {
+                waiter.callback.error(error);
+                iterator.remove();
+            }
+            // All of its operations done?
+            else if (waiter.keys.isEmpty()) {
+                waiter.callback.success(result);
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String getKey(String operation, String topic) {
+        return operation + ":" + topic;
+    }
+
+    private static JSONObject getTopics(Context context) {
+        JSONObject state = getState(context);
+        JSONObject topics = state.optJSONObject("topics");
+
+        // Create on first use
+        if (topics == null) {
+            topics = new JSONObject();
+
+            try {
+                state.put("topics", topics);
+            }
+            catch (JSONException e) {
+                // Log error to logcat
+                Log.e(PushyLogging.TAG, "Failed to create operation queue topics:" + e.getMessage(), e);
+            }
+        }
+
+        return topics;
+    }
+
+    private static JSONObject getState(Context context) {
+        // Already loaded?
+        if (mState != null) {
+            return mState;
+        }
+
+        // Load persisted queue
+        String json = PushyPersistence.getSettings(context).getString(STATE, null);
+        mState = new JSONObject();
+
+        if (json != null) {
+            try {
+                mState = new JSONObject(json);
+            }
+            catch (JSONException e) {
+                // Log error to logcat and start over
+                Log.e(PushyLogging.TAG, "Failed to parse operation queue:" + e.getMessage(), e);
+            }
+        }
+
+        return mState;
+    }
+
+    private static void save(Context context) {
+        // Store queue in SharedPreferences (asynchronously)
+        PushyPersistence.getSettings(context).edit().putString(STATE, getState(context).toString()).apply();
+    }
+}
@@ -0,0 +1,332 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.util.Log;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import me.pushy.sdk.config.PushyLogging;
+import me.pushy.sdk.cordova.internal.config.PushyIntentExtras;
+import me.pushy.sdk.util.PushyStringUtils;
+
+/**
+ * A notification payload converted from intent extras exactly once.
+ *
+ * Both push receivers see their own copy of the same broadcast intent, so recently converted
+ * payloads are kept in a small cache keyed by a cheap fingerprint of the extras and verified
+ * value-by-value before reuse. Click intents carry a handle to the in-memory payload, plus the
+ * encoded payload (see PushyPayloadCodecs) for small payloads or a file reference for large ones,
+ * which is deleted once the click is resolved.
+ *
+ * Cached payloads are shared between receivers and clicks, so getJSON() hands every consumer the
+ * same converted object. Treat it as read-only; a caller that needs to change it must copy it first.
+ */
+public class PushyPayload {
+    // Number of recently converted payloads kept for the other receiver to reuse
+    private static final int CONVERSION_CACHE_SIZE = 8;
+
+    // Number of payloads kept in memory for notification clicks
+    private static final int CLICK_CACHE_SIZE = 32;
+
+    // Payloads larger than this are stored in a file instead of the PendingIntent
+    private static final int MAX_INLINE_CLICK_PAYLOAD_LENGTH = 16 * 1024;
+
+    // Directory (in the app's cache dir) for large click payloads
+    private static final String CLICK_PAYLOAD_DIR = "pushy-click-payloads";
+
+    // Large click payload files older than this are pruned
+    private static final long CLICK_PAYLOAD_MAX_AGE_MS = 7L * 24 * 60 * 60 * 1000;
+
+    private static final Map<Integer, PushyPayload> mConversions = new LinkedHashMap<Integer, PushyPayload>(CONVERSION_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, PushyPayload> eldest) {
+            return size() > CONVERSION_CACHE_SIZE;
+        }
+    };
+
+    private static final Map<Long, PushyPayload> mClickPayloads = new LinkedHashMap<Long, PushyPayload>(CLICK_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, PushyPayload> eldest) {
+            return size() > CLICK_CACHE_SIZE;
+        }
+    };
+
+    private static long mLastHandle;
+
+    private final JSONObject mJson;
+    private String mSerialized;
+    private byte[] mEncoded;
+
+    private PushyPayload(JSONObject json, String serialized) {
+        mJson = json;
+        mSerialized = serialized;
+    }
+
+    public JSONObject getJSON() {
+        // Shared, read-only (see class comment)
+        return mJson;
+    }
+
+    @Override
+    public synchronized String toString() {
+        // Serialize once on first use
+        if (mSerialized == null) {
+            mSerialized = mJson.toString();
+        }
+
+        return mSerialized;
+    }
+
+    public synchronized byte[] toBytes() {
+        // Encode once on first use
+        if (mEncoded == null) {
+            mEncoded = PushyPayloadCodecs.encode(mJson);
+        }
+
+        return mEncoded;
+    }
+
+    public static PushyPayload fromIntent(Intent intent) {
+        // Get intent extras
+        Bundle bundle = intent.getExtras();
+
+        // No extras?
+        if (bundle == null) {
+            return new PushyPayload(new JSONObject(), null);
+        }
+
+        // Cheap fingerprint of the extras
+        int fingerprint = getFingerprint(bundle);
+
+        synchronized (mConversions) {
+            // Already converted by the other receiver?
+            PushyPayload cached = mConversions.get(fingerprint);
+
+            if (cached != null && cached.matches(bundle)) {
+                return cached;
+            }
+        }
+
+        // Convert intent extras to JSON
+        PushyPayload payload = new PushyPayload(PushyPersistence.getJSONObjectFromIntentExtras(intent), null);
+
+        synchronized (mConversions) {
+            mConversions.put(fingerprint, payload);
+        }
+
+        return payload;
+    }
+
+    public static void putClickExtras(Intent launchIntent, PushyPayload payload, Context context) {
+        // Allocate a handle and keep the payload in memory for a fast click path
+        long handle = nextHandle();
+
+        synchronized (mClickPayloads) {
+            mClickPayloads.put(handle, payload);
+        }
+
+        // Pass payload handle into PendingIntent
+        launchIntent.putExtra(PushyIntentExtras.NOTIFICATION_CLICKED, true);
+        launchIntent.putExtra(PushyIntentExtras.NOTIFICATION_PAYLOAD_HANDLE, handle);
+
+        // Small payload? Carry it inline in case the process dies before the click
+        if (payload.toBytes().length <= MAX_INLINE_CLICK_PAYLOAD_LENGTH) {
+            launchIntent.putExtra(PushyIntentExtras.NOTIFICATION_PAYLOAD_ENCODED, payload.toBytes());
+            return;
+        }
+
+        // Large payload, store it in a file to stay clear of Binder transaction limits
+        try {
+            writeClickPayloadFile(handle, payload.toBytes(), context);
+        }
+        catch (IOException e) {
+            // Log error to logcat (the in-memory handle still works while the process lives)
+            Log.e(PushyLogging.TAG, "Failed to store notification click payload:" + e.getMessage(), e);
+        }
+    }
+
+    public static JSONObject fromClickIntent(Intent intent, Context context) {
+        // Attempt to extract payload handle
+        long handle = intent.getLongExtra(PushyIntentExtras.NOTIFICATION_PAYLOAD_HANDLE, 0);
+
+        // Fast path: payload is still in memory
+        if (handle != 0) {
+            synchronized (mClickPayloads) {
+                PushyPayload payload = mClickPayloads.get(handle);
+
+                if (payload != null) {
+                    // Large payload file no longer needed
+                    if (payload.toBytes().length > MAX_INLINE_CLICK_PAYLOAD_LENGTH) {
+                        deleteClickPayloadFile(handle, context);
+                    }
+
+                    return payload.getJSON();
+                }
+            }
+        }
+
+        // Attempt to extract encoded payload
+        byte[] data = intent.getByteArrayExtra(PushyIntentExtras.NOTIFICATION_PAYLOAD_ENCODED);
+
+        // Not inline? Try the large payload file
+        if (data == null && handle != 0) {
+            data = readClickPayloadFile(handle, context);
+
+            // Each click is resolved once, so the file can go
+            deleteClickPayloadFile(handle, context);
+        }
+
+        try {
+            // Stringified JSON payload (PendingIntents created by an older plugin version)
+            if (data == null) {
+                String json = intent.getStringExtra(PushyIntentExtras.NOTIFICATION_PAYLOAD);
+                return PushyStringUtils.stringIsNullOrEmpty(json) ? null : new JSONObject(json);
+            }
+
+            // Gracefully attempt to decode it back into JSONObject
+            return PushyPayloadCodecs.decode(data);
+        }
+        catch (Exception e) {
+            // Log error to logcat and stop execution
+            Log.e(PushyLogging.TAG, "Failed to parse notification click data into JSONObject:" + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private boolean matches(Bundle bundle) {
+        // Same number of keys?
+        if (bundle.keySet().size() != mJson.length()) {
+            return false;
+        }
+
+        // Compare every value without allocating a new payload
+        for (String key : bundle.keySet()) {
+            Object value = bundle.get(key);
+            Object converted = mJson.opt(key);
+
+            if (value == null ? converted != null && converted != JSONObject.NULL : !value.equals(converted)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int getFingerprint(Bundle bundle) {
+        int hash = 0;
+
+        // Order-independent hash of keys and values
+        for (String key : bundle.keySet()) {
+            Object value = bundle.get(key);
+            hash += key.hashCode() ^ (value != null ? value.hashCode() : 0);
+        }
+
+        return hash;
+    }
+
+    private static synchronized long nextHandle() {
+        // Time-based so handles stay unique across process restarts
+        mLastHandle = Math.max(mLastHandle + 1, System.currentTimeMillis());
+        return mLastHandle;
+    }
+
+    private static File getClickPayloadDir(Context context) {
+        return new File(context.getApplicationContext().getCacheDir(), CLICK_PAYLOAD_DIR);
+    }
+
+    private static void writeClickPayloadFile(long handle, byte[] data, Context context) throws IOException {
+        File dir = getClickPayloadDir(context);
+
+        // Create directory on first use
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Failed to create " + dir);
+        }
+
+        // Prune payloads for notifications that were never clicked
+        pruneClickPayloadFiles(dir);
+
+        OutputStream output = new FileOutputStream(new File(dir, String.valueOf(handle)));
+
+        try {
+            output.write(data);
+        }
+        finally {
+            output.close();
+        }
+    }
+
+    private static byte[] readClickPayloadFile(long handle, Context context) {
+        File file = new File(getClickPayloadDir(context), String.valueOf(handle));
+
+        // Already consumed or pruned?
+        if (!file.exists()) {
+            return null;
+        }
+
+        try {
+            byte[] data = new byte[(int) file.length()];
+            InputStream input = new FileInputStream(file);
+
+            try {
+                int offset = 0;
+
+                while (offset < data.length) {
+                    int read = input.read(data, offset, data.length - offset);
+
+                    if (read < 0) {
+                        break;
+                    }
+
+                    offset += read;
+                }
+            }
+            finally {
+                input.close();
+            }
+
+            return data;
+        }
+        catch (IOException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to read notification click payload:" + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static void deleteClickPayloadFile(long handle, Context context) {
+        File file = new File(getClickPayloadDir(context), String.valueOf(handle));
+
+        // Already consumed or pruned?
+        if (file.exists() && !file.delete()) {
+            Log.e(PushyLogging.TAG, "Failed to delete notification click payload: " + file);
+        }
+    }
+
+    private static void pruneClickPayloadFiles(File dir) {
+        File[] files = dir.listFiles();
+
+        // Nothing stored?
+        if (files == null) {
+            return;
+        }
+
+        long cutoff = System.currentTimeMillis() - CLICK_PAYLOAD_MAX_AGE_MS;
+
+        for (File file : files) {
+            if (file.lastModified() < cutoff) {
+                file.delete();
+            }
+        }
+    }
+}
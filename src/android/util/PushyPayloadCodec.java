@@ -0,0 +1,19 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+
+/**
+ * Converts notification payloads to and from bytes for storage and PendingIntent extras.
+ *
+ * Every codec must mark its output so canDecode() can recognize it among records written by
+ * other codecs (see PushyPayloadCodecs).
+ */
+public interface PushyPayloadCodec {
+    byte[] encode(JSONObject payload) throws IOException;
+
+    JSONObject decode(byte[] data) throws IOException;
+
+    boolean canDecode(byte[] data);
+}
@@ -0,0 +1,102 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import me.pushy.sdk.config.PushyLogging;
+
+/**
+ * Chooses the codec for stored and click payloads.
+ *
+ * New payloads are written with the default codec (binary unless replaced with setDefault()).
+ * Reading picks whichever registered codec recognizes the data, so records written by an older
+ * plugin version (plain JSON text) or a previous default codec stay readable.
+ */
+public class PushyPayloadCodecs {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    // Plain JSON text (the format used before codecs were introduced)
+    public static final PushyPayloadCodec JSON = new PushyPayloadCodec() {
+        @Override
+        public byte[] encode(JSONObject payload) {
+            return payload.toString().getBytes(UTF8);
+        }
+
+        @Override
+        public JSONObject decode(byte[] data) throws IOException {
+            try {
+                // Attempt to parse string into JSON object
+                return new JSONObject(new String(data, UTF8));
+            }
+            catch (JSONException e) {
+                throw new IOException("Invalid JSON payload: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public boolean canDecode(byte[] data) {
+            return data.length > 0 && data[0] == '{';
+        }
+    };
+
+    public static final PushyPayloadCodec BINARY = new PushyBinaryPayloadCodec();
+
+    private static final List<PushyPayloadCodec> mCodecs = new CopyOnWriteArrayList<>();
+    private static volatile PushyPayloadCodec mDefault = BINARY;
+
+    static {
+        mCodecs.add(BINARY);
+        mCodecs.add(JSON);
+    }
+
+    public static void register(PushyPayloadCodec codec) {
+        // Checked before the built-in codecs
+        if (!mCodecs.contains(codec)) {
+            mCodecs.add(0, codec);
+        }
+    }
+
+    public static void setDefault(PushyPayloadCodec codec) {
+        // Make sure it can read back what it writes
+        register(codec);
+        mDefault = codec;
+    }
+
+    public static byte[] encode(JSONObject payload) {
+        try {
+            // Attempt to encode with the default codec
+            return mDefault.encode(payload);
+        }
+        catch (IOException e) {
+            // Payload not representable, store JSON text instead
+            Log.d(PushyLogging.TAG, "Falling back to JSON payload encoding: " + e.getMessage());
+            return payload.toString().getBytes(UTF8);
+        }
+    }
+
+    public static JSONObject decode(byte[] data) throws JSONException {
+        // Find the codec that wrote this data
+        for (PushyPayloadCodec codec : mCodecs) {
+            if (!codec.canDecode(data)) {
+                continue;
+            }
+
+            try {
+                return codec.decode(data);
+            }
+            catch (IOException e) {
+                // Surface as a parse failure so callers skip the record
+                throw new JSONException("Failed to decode payload: " + e.getMessage());
+            }
+        }
+
+        throw new JSONException("Unrecognized payload encoding");
+    }
+}
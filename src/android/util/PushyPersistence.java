@@ -11,6 +11,13 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import me.pushy.sdk.config.PushyLogging;
@@ -18,22 +25,345 @@ import me.pushy.sdk.util.PushySingleton;
 
 public class PushyPersistence {
     public static final String NOTIFICATION_ICON = "pushyNotificationIcon";
+    public static final String DEVICE_TOKEN = "pushyCordovaDeviceToken";
+    public static final String SUBSCRIBED_TOPICS = "pushySubscribedTopics";
+    public static final String NOTIFICATION_COALESCING_WINDOW = "pushyNotificationCoalescingWindow";
+    public static final String DEDUPLICATION_WINDOW = "pushyDeduplicationWindow";
+
     public static final String PENDING_NOTIFICATIONS = "pushyPendingNotifications";
+    public static final String PENDING_NOTIFICATIONS_JOURNAL = "pushy-pending-notifications.journal";
+    public static final String PENDING_NOTIFICATIONS_MAX_COUNT = "pushyPendingNotificationsMaxCount";
+    public static final String PENDING_NOTIFICATIONS_MAX_BYTES = "pushyPendingNotificationsMaxBytes";
+    public static final String PENDING_NOTIFICATIONS_MAX_AGE = "pushyPendingNotificationsMaxAge";
+    public static final String EVICTED_NOTIFICATIONS = "pushyEvictedNotifications";
+    public static final String STORAGE_BACKEND = "pushyStorageBackend";
+
+    // Default notification burst coalescing window (0 disables coalescing)
+    public static final long DEFAULT_NOTIFICATION_COALESCING_WINDOW = 1000;
+
+    // Default duplicate message window (0 disables deduplication)
+    public static final long DEFAULT_DEDUPLICATION_WINDOW = 10 * 60 * 1000;
+
+    // Default pending notification limits (0 disables a limit, so nothing is dropped unless the app opts in)
+    public static final int DEFAULT_PENDING_NOTIFICATIONS_MAX_COUNT = 0;
+    public static final long DEFAULT_PENDING_NOTIFICATIONS_MAX_BYTES = 0;
+    public static final long DEFAULT_PENDING_NOTIFICATIONS_MAX_AGE = 0;
+
+    // Guards the store and every operation on it, so a backend switch never races a caller still holding the old store
+    private static final Object mStoreLock = new Object();
+
+    private static PushyNotificationStore mStore;
+    private static Map<String, Long> mCollapseKeys;
+    private static int mMaxCount;
+    private static long mMaxBytes;
+    private static long mMaxAge;
 
-    private static SharedPreferences getSettings(Context context) {
+    static SharedPreferences getSettings(Context context) {
         // Get default app SharedPreferences
         return PreferenceManager.getDefaultSharedPreferences(context);
     }
 
+    private static PushyNotificationStore getStore(Context context) throws IOException {
+        // Callers hold mStoreLock for as long as they use the returned store
+        // Already opened?
+        if (mStore != null) {
+            return mStore;
+        }
+
+        // Open (or create) the configured pending notification store
+        mStore = openStore(getStorageBackend(context), context);
+
+        // Load configured limits once
+        SharedPreferences settings = getSettings(context);
+        mMaxCount = settings.getInt(PENDING_NOTIFICATIONS_MAX_COUNT, DEFAULT_PENDING_NOTIFICATIONS_MAX_COUNT);
+        mMaxBytes = settings.getLong(PENDING_NOTIFICATIONS_MAX_BYTES, DEFAULT_PENDING_NOTIFICATIONS_MAX_BYTES);
+        mMaxAge = settings.getLong(PENDING_NOTIFICATIONS_MAX_AGE, DEFAULT_PENDING_NOTIFICATIONS_MAX_AGE);
+
+        // Move over any notifications stored by the legacy SharedPreferences format
+        migrateLegacyPendingNotifications(mStore, context);
+
+        return mStore;
+    }
+
+    private static PushyNotificationStore openStore(String backend, Context context) throws IOException {
+        if (backend.equals(PushyNotificationStore.SQLITE)) {
+            return new PushySQLiteNotificationStore(context);
+        }
+        else if (backend.equals(PushyNotificationStore.SHARED_PREFERENCES)) {
+            return new PushyPreferencesNotificationStore(context);
+        }
+
+        // Journal in the app's private files dir (default)
+        return new PushyNotificationJournal(new File(context.getApplicationContext().getFilesDir(), PENDING_NOTIFICATIONS_JOURNAL));
+    }
+
+    public static boolean isStorageBackend(String backend) {
+        return backend.equals(PushyNotificationStore.JOURNAL) || backend.equals(PushyNotificationStore.SQLITE) || backend.equals(PushyNotificationStore.SHARED_PREFERENCES);
+    }
+
+    public static String getStorageBackend(Context context) {
+        // Get storage backend from SharedPreferences
+        return getSettings(context).getString(STORAGE_BACKEND, PushyNotificationStore.JOURNAL);
+    }
+
+    public static void setStorageBackend(String backend, Context context) throws IOException {
+        // Unknown backend?
+        if (!isStorageBackend(backend)) {
+            throw new IOException("Unknown storage backend: " + backend);
+        }
+
+        // Hold the store lock for the whole switch, so no write can land in the old store after its records were copied
+        synchronized (mStoreLock) {
+            // Already in use?
+            if (backend.equals(getStorageBackend(context))) {
+                return;
+            }
+
+            PushyNotificationStore current = getStore(context);
+            PushyNotificationStore next = openStore(backend, context);
+
+            try {
+                // Drop leftovers from an interrupted earlier switch (an inactive store's records were already moved)
+                next.clear();
+
+                // Move over pending notifications in arrival order, keeping their lane and timestamp
+                for (PushyNotificationStore.Entry entry : current.getEntries()) {
+                    byte[] payload = current.read(entry);
+
+                    // Removed since it was listed?
+                    if (payload != null) {
+                        next.append(payload, entry.timestamp, entry.priority);
+                    }
+                }
+
+                // Switch before dropping the old records, so a crash in between never loses them
+                getSettings(context).edit().putString(STORAGE_BACKEND, backend).commit();
+                current.clear();
+            }
+            catch (IOException e) {
+                // Keep using the current store
+                next.close();
+                throw e;
+            }
+
+            current.close();
+
+            // Record IDs changed, rebuild the collapse key index on next use
+            mStore = next;
+            mCollapseKeys = null;
+        }
+    }
+
+    private static void migrateLegacyPendingNotifications(PushyNotificationStore store, Context context) throws IOException {
+        // Legacy writes went to the default SharedPreferences, legacy reads to the Pushy SDK's settings
+        SharedPreferences[] legacySettings = new SharedPreferences[]{getSettings(context), PushySingleton.getSettings(context)};
+
+        for (SharedPreferences settings : legacySettings) {
+            // Get legacy JSON array string
+            String legacy = settings.getString(PENDING_NOTIFICATIONS, null);
+
+            // Nothing persisted?
+            if (legacy == null) {
+                continue;
+            }
+
+            try {
+                // Attempt to parse string into JSON array
+                JSONArray notifications = new JSONArray(legacy);
+
+                // Append each notification to the store (in its priority lane) in arrival order
+                for (int i = 0; i < notifications.length(); i++) {
+                    JSONObject notification = notifications.getJSONObject(i);
+                    store.append(PushyPayloadCodecs.encode(notification), System.currentTimeMillis(), PushyNotificationPriority.resolve(notification, context));
+                }
+            }
+            catch (JSONException e) {
+                // Log error to logcat
+                Log.e(PushyLogging.TAG, "Failed to migrate legacy pending notifications:" + e.getMessage(), e);
+            }
+
+            // Legacy data is no longer needed
+            settings.edit().remove(PENDING_NOTIFICATIONS).commit();
+        }
+    }
+
     public static void persistNotification(JSONObject notification, Context context) {
-        // Get pending notifications from SharedPreferences
-        JSONArray pendingNotifications = getPendingNotifications(context);
+        long start = System.nanoTime();
+
+        try {
+            // Resolve the notification's lane
+            int priority = PushyNotificationPriority.resolve(notification, context);
+
+            synchronized (mStoreLock) {
+                // Get pending notifications store
+                PushyNotificationStore store = getStore(context);
+
+                // Low priority? Replace the stored notification with the same collapse key
+                if (priority <= PushyNotificationPriority.LOW) {
+                    collapseNotification(store, notification, priority, context);
+                }
+                else {
+                    // Append encoded notification to the store (no read-modify-write of the backlog)
+                    store.append(PushyPayloadCodecs.encode(notification), System.currentTimeMillis(), priority);
+                }
 
-        // Add new notification
-        pendingNotifications.put(notification);
+                // Keep the backlog within its configured limits
+                enforcePendingNotificationLimits(store, context);
 
-        // Store notification JSON array in SharedPreferences
-        getSettings(context).edit().putString(PushyPersistence.PENDING_NOTIFICATIONS, pendingNotifications.toString()).commit();
+                // Track write latency and backlog size
+                PushyMetrics.increment(PushyMetrics.PERSISTED);
+                PushyMetrics.recordSince(PushyMetrics.STORAGE_WRITE, start);
+                PushyMetrics.setBacklogSize(store.size());
+            }
+        }
+        catch (IOException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to persist notification:" + e.getMessage(), e);
+        }
+    }
+
+    private static void collapseNotification(PushyNotificationStore store, JSONObject notification, int priority, Context context) throws IOException {
+        String key = PushyNotificationPriority.getCollapseKey(notification);
+
+        // Build the collapse key index from stored low priority records once (the caller holds mStoreLock)
+        if (mCollapseKeys == null) {
+            mCollapseKeys = loadCollapseKeys(store, context);
+        }
+
+        // Supersede the previous notification with the same key (no-op if already delivered or evicted)
+        Long previous = key != null ? mCollapseKeys.get(key) : null;
+
+        if (previous != null) {
+            store.remove(Collections.singletonList(previous));
+        }
+
+        // Append encoded notification to its lane
+        long id = store.append(PushyPayloadCodecs.encode(notification), System.currentTimeMillis(), priority);
+
+        if (key != null) {
+            mCollapseKeys.put(key, id);
+        }
+    }
+
+    private static Map<String, Long> loadCollapseKeys(PushyNotificationStore store, Context context) throws IOException {
+        Map<String, Long> keys = new HashMap<>();
+
+        // Only low priority records are collapsible
+        for (PushyNotificationStore.Entry entry : store.getEntries()) {
+            if (entry.priority > PushyNotificationPriority.LOW) {
+                continue;
+            }
+
+            byte[] payload = store.read(entry);
+
+            // Removed since it was listed?
+            if (payload == null) {
+                continue;
+            }
+
+            try {
+                // Index by collapse key (later records overwrite earlier ones)
+                String key = PushyNotificationPriority.getCollapseKey(PushyPayloadCodecs.decode(payload));
+
+                if (key != null) {
+                    keys.put(key, entry.id);
+                }
+            }
+            catch (JSONException e) {
+                // Log error to logcat and skip the unreadable record
+                Log.e(PushyLogging.TAG, "Failed to decode stored notification:" + e.getMessage(), e);
+            }
+        }
+
+        return keys;
+    }
+
+    public static int setPendingNotificationLimits(int maxCount, long maxBytes, long maxAge, Context context) {
+        try {
+            synchronized (mStoreLock) {
+                // Make sure the store (and current limits) are loaded
+                PushyNotificationStore store = getStore(context);
+
+                // Store new limits in SharedPreferences
+                getSettings(context).edit()
+                        .putInt(PENDING_NOTIFICATIONS_MAX_COUNT, maxCount)
+                        .putLong(PENDING_NOTIFICATIONS_MAX_BYTES, maxBytes)
+                        .putLong(PENDING_NOTIFICATIONS_MAX_AGE, maxAge)
+                        .apply();
+
+                synchronized (PushyPersistence.class) {
+                    mMaxCount = maxCount;
+                    mMaxBytes = maxBytes;
+                    mMaxAge = maxAge;
+                }
+
+                // Apply the new limits to the existing backlog right away
+                return enforcePendingNotificationLimits(store, context);
+            }
+        }
+        catch (IOException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to apply pending notification limits:" + e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    private static int enforcePendingNotificationLimits(PushyNotificationStore store, Context context) throws IOException {
+        int maxCount;
+        long maxBytes, maxAge;
+
+        synchronized (PushyPersistence.class) {
+            maxCount = mMaxCount;
+            maxBytes = mMaxBytes;
+            maxAge = mMaxAge;
+        }
+
+        // Evict oldest notifications that exceed the count, byte or age limits
+        int evicted = store.evict(maxCount, maxBytes, maxAge > 0 ? System.currentTimeMillis() - maxAge : Long.MIN_VALUE);
+
+        // Keep track of how many notifications were dropped so JS can be told about it
+        if (evicted > 0) {
+            synchronized (PushyPersistence.class) {
+                SharedPreferences settings = getSettings(context);
+                settings.edit().putInt(EVICTED_NOTIFICATIONS, settings.getInt(EVICTED_NOTIFICATIONS, 0) + evicted).apply();
+            }
+        }
+
+        return evicted;
+    }
+
+    public static JSONObject getPendingNotificationStats(Context context) {
+        // Prepare JSON object with stats
+        JSONObject stats = new JSONObject();
+
+        try {
+            synchronized (mStoreLock) {
+                // Get pending notifications store
+                PushyNotificationStore store = getStore(context);
+
+                // Drop expired notifications before reporting
+                enforcePendingNotificationLimits(store, context);
+
+                int evicted;
+
+                synchronized (PushyPersistence.class) {
+                    // Read and reset the evicted notification counter
+                    SharedPreferences settings = getSettings(context);
+                    evicted = settings.getInt(EVICTED_NOTIFICATIONS, 0);
+                    settings.edit().remove(EVICTED_NOTIFICATIONS).apply();
+                }
+
+                stats.put("count", store.size());
+                stats.put("bytes", store.getPayloadBytes());
+                stats.put("evicted", evicted);
+            }
+        }
+        catch (Exception e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to get pending notification stats:" + e.getMessage(), e);
+        }
+
+        return stats;
     }
 
     public static JSONObject getJSONObjectFromIntentExtras(Intent intent) {
@@ -64,8 +394,11 @@ public class PushyPersistence {
     }
 
     public static void setNotificationIcon(String icon, Context context) {
-        // Store notification icon in SharedPreferences
-        getSettings(context).edit().putString(PushyPersistence.NOTIFICATION_ICON, icon).commit();
+        // Store notification icon in SharedPreferences (asynchronously, the in-memory value updates immediately)
+        getSettings(context).edit().putString(PushyPersistence.NOTIFICATION_ICON, icon).apply();
+
+        // Resolve the icon resource again on next notification
+        PushyRenderCache.invalidateNotificationIcon();
     }
 
     public static String getNotificationIcon( Context context) {
@@ -73,33 +406,181 @@ public class PushyPersistence {
         return getSettings(context).getString(PushyPersistence.NOTIFICATION_ICON, null);
     }
 
-    public static JSONArray getPendingNotifications(Context context) {
-        // Get pending notifications from SharedPreferences
-        String pendingNotifications = PushySingleton.getSettings(context).getString(PENDING_NOTIFICATIONS, null);
+    public static void setNotificationCoalescingWindow(long window, Context context) {
+        // Store coalescing window in SharedPreferences
+        getSettings(context).edit().putLong(NOTIFICATION_COALESCING_WINDOW, window).apply();
+    }
+
+    public static long getNotificationCoalescingWindow(Context context) {
+        // Get coalescing window from SharedPreferences
+        return getSettings(context).getLong(NOTIFICATION_COALESCING_WINDOW, DEFAULT_NOTIFICATION_COALESCING_WINDOW);
+    }
+
+    public static void setDeduplicationWindow(long window, Context context) {
+        // Store deduplication window in SharedPreferences
+        getSettings(context).edit().putLong(DEDUPLICATION_WINDOW, window).apply();
+    }
+
+    public static long getDeduplicationWindow(Context context) {
+        // Get deduplication window from SharedPreferences
+        return getSettings(context).getLong(DEDUPLICATION_WINDOW, DEFAULT_DEDUPLICATION_WINDOW);
+    }
+
+    public static void setDeviceToken(String token, Context context) {
+        // Store device token in SharedPreferences
+        getSettings(context).edit().putString(DEVICE_TOKEN, token).apply();
+    }
+
+    public static String getDeviceToken(Context context) {
+        // Get device token from SharedPreferences
+        return getSettings(context).getString(DEVICE_TOKEN, null);
+    }
+
+    public static void clearDeviceToken(Context context) {
+        // Remove device token from SharedPreferences
+        getSettings(context).edit().remove(DEVICE_TOKEN).apply();
+    }
+
+    public static Set<String> getSubscribedTopics(Context context) {
+        // Get subscribed topics from SharedPreferences (copy, the returned set must not be modified)
+        return new HashSet<>(getSettings(context).getStringSet(SUBSCRIBED_TOPICS, Collections.<String>emptySet()));
+    }
+
+    public static synchronized void addSubscribedTopics(Collection<String> topics, Context context) {
+        // Add topics to the persisted set
+        Set<String> subscribed = getSubscribedTopics(context);
+        subscribed.addAll(topics);
+
+        // Store updated set in SharedPreferences
+        getSettings(context).edit().putStringSet(SUBSCRIBED_TOPICS, subscribed).apply();
+    }
+
+    public static synchronized void removeSubscribedTopics(Collection<String> topics, Context context) {
+        // Remove topics from the persisted set
+        Set<String> subscribed = getSubscribedTopics(context);
+        subscribed.removeAll(topics);
+
+        // Store updated set in SharedPreferences
+        getSettings(context).edit().putStringSet(SUBSCRIBED_TOPICS, subscribed).apply();
+    }
+
+    public static void clearSubscribedTopics(Context context) {
+        // Remove subscribed topics from SharedPreferences
+        getSettings(context).edit().remove(SUBSCRIBED_TOPICS).apply();
+    }
 
+    public static JSONArray getPendingNotifications(Context context) {
         // Prepare JSON array with notifications
         JSONArray json = new JSONArray();
 
-        // Nothing persisted?
-        if (pendingNotifications == null) {
-            return json;
+        try {
+            synchronized (mStoreLock) {
+                // Get pending notifications store
+                PushyNotificationStore store = getStore(context);
+
+                // Drop expired notifications before loading them
+                enforcePendingNotificationLimits(store, context);
+
+                // Traverse stored records in arrival order
+                for (PushyNotificationStore.Entry entry : store.getEntries()) {
+                    byte[] payload = store.read(entry);
+
+                    // Acknowledged since it was listed?
+                    if (payload == null) {
+                        continue;
+                    }
+
+                    try {
+                        // Attempt to decode record into JSON object
+                        json.put(PushyPayloadCodecs.decode(payload));
+                    }
+                    catch (JSONException e) {
+                        // Log error to logcat and skip this record
+                        Log.e(PushyLogging.TAG, "Failed to decode stored notification:" + e.getMessage(), e);
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to read pending notifications:" + e.getMessage(), e);
         }
 
+        // Always return JSON array
+        return json;
+    }
+
+    public static JSONArray getPendingNotificationBatch(int afterPriority, long afterId, int limit, Context context) {
+        // Prepare JSON array with batch items
+        JSONArray batch = new JSONArray();
+        long start = System.nanoTime();
+
         try {
-            // Attempt to parse string into JSON array
-            json = new JSONArray(pendingNotifications);
+            synchronized (mStoreLock) {
+                // Get pending notifications store
+                PushyNotificationStore store = getStore(context);
+                PushyMetrics.setBacklogSize(store.size());
+
+                // Traverse the next page of stored records (highest lane first)
+                for (PushyNotificationStore.Entry entry : store.getEntries(afterPriority, afterId, limit)) {
+                    // Read the record by ID (null if acknowledged or evicted since the page was listed)
+                    byte[] payload = store.read(entry);
+
+                    if (payload == null) {
+                        continue;
+                    }
+
+                    try {
+                        // Wrap each notification with its record ID so it can be acknowledged
+                        JSONObject item = new JSONObject();
+                        item.put("id", entry.id);
+                        item.put("priority", entry.priority);
+                        item.put("notification", PushyPayloadCodecs.decode(payload));
+                        batch.put(item);
+                    }
+                    catch (JSONException e) {
+                        // The record's own bytes don't decode, drop it so it doesn't block the backlog
+                        Log.e(PushyLogging.TAG, "Failed to decode stored notification:" + e.getMessage(), e);
+                        store.remove(Collections.singletonList(entry.id));
+                    }
+                }
+
+                // Track read (and parse) latency for the whole batch
+                PushyMetrics.recordSince(PushyMetrics.STORAGE_READ, start);
+            }
         }
-        catch (JSONException e) {
+        catch (IOException e) {
             // Log error to logcat
-            Log.e(PushyLogging.TAG, "Failed to convert JSON string into array:" + e.getMessage(), e);
+            Log.e(PushyLogging.TAG, "Failed to read pending notifications:" + e.getMessage(), e);
         }
 
         // Always return JSON array
-        return json;
+        return batch;
+    }
+
+    public static void removePendingNotifications(Collection<Long> ids, Context context) {
+        try {
+            synchronized (mStoreLock) {
+                // Append tombstones for the acknowledged notifications
+                getStore(context).remove(ids);
+            }
+        }
+        catch (IOException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to remove pending notifications:" + e.getMessage(), e);
+        }
     }
 
     public static void clearPendingNotifications(Context context) {
-        // Clear the pending notifications from SharedPreferences
-        PushySingleton.getSettings(context).edit().remove(PENDING_NOTIFICATIONS).commit();
+        try {
+            synchronized (mStoreLock) {
+                // Clear the pending notifications store
+                getStore(context).clear();
+            }
+        }
+        catch (IOException e) {
+            // Log error to logcat
+            Log.e(PushyLogging.TAG, "Failed to clear pending notifications:" + e.getMessage(), e);
+        }
     }
 }
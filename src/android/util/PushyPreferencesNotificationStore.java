@@ -0,0 +1,245 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Base64;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Pending notification store kept in the app's default SharedPreferences, as the plugin did
+ * before the journal existed.
+ *
+ * Records are mirrored in memory and the whole backlog is written back as a single JSON string
+ * on every change, so this backend suits small backlogs only.
+ */
+public class PushyPreferencesNotificationStore implements PushyNotificationStore {
+    private static final String RECORDS = "pushyPendingNotificationRecords";
+    private static final String NEXT_ID = "pushyPendingNotificationNextId";
+
+    // Highest lane first, arrival order within a lane
+    private static final Comparator<Entry> DRAIN_ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            return a.priority != b.priority ? Integer.compare(b.priority, a.priority) : Long.compare(a.id, b.id);
+        }
+    };
+
+    // Lowest lane first, arrival order within a lane
+    private static final Comparator<Entry> EVICTION_ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            return a.priority != b.priority ? Integer.compare(a.priority, b.priority) : Long.compare(a.id, b.id);
+        }
+    };
+
+    private final SharedPreferences mSettings;
+    private final TreeMap<Long, Record> mEntries = new TreeMap<>();
+    private long mNextId;
+    private long mPayloadBytes;
+
+    private static class Record extends Entry {
+        final byte[] payload;
+
+        Record(long id, long timestamp, int priority, byte[] payload) {
+            super(id, timestamp, priority);
+            this.payload = payload;
+        }
+    }
+
+    public PushyPreferencesNotificationStore(Context context) throws IOException {
+        mSettings = PushyPersistence.getSettings(context);
+        mNextId = mSettings.getLong(NEXT_ID, 1);
+
+        // Get stored JSON array string
+        String json = mSettings.getString(RECORDS, null);
+
+        // Nothing stored?
+        if (json == null) {
+            return;
+        }
+
+        try {
+            // Attempt to parse string into JSON array
+            JSONArray records = new JSONArray(json);
+
+            for (int i = 0; i < records.length(); i++) {
+                JSONObject record = records.getJSONObject(i);
+                byte[] payload = Base64.decode(record.getString("payload"), Base64.NO_WRAP);
+
+                mEntries.put(record.getLong("id"), new Record(record.getLong("id"), record.getLong("timestamp"), record.getInt("priority"), payload));
+                mPayloadBytes += payload.length;
+            }
+        }
+        catch (JSONException e) {
+            throw new IOException("Failed to parse stored pending notifications", e);
+        }
+        catch (IllegalArgumentException e) {
+            // Invalid Base64 payload
+            throw new IOException("Failed to decode stored pending notifications", e);
+        }
+    }
+
+    @Override
+    public synchronized long append(byte[] payload, long timestamp, int priority) throws IOException {
+        // Assign a monotonic record ID
+        long id = mNextId++;
+
+        mEntries.put(id, new Record(id, timestamp, priority, payload));
+        mPayloadBytes += payload.length;
+
+        // Write back the whole backlog
+        save();
+
+        return id;
+    }
+
+    @Override
+    public synchronized List<Record> getEntries() {
+        // Return a snapshot of live records in arrival order
+        return new ArrayList<>(mEntries.values());
+    }
+
+    @Override
+    public synchronized List<Record> getEntries(int afterPriority, long afterId, int limit) {
+        List<Record> records = new ArrayList<>();
+
+        // Records after the cursor (a negative ID starts from the highest lane)
+        for (Record record : mEntries.values()) {
+            if (afterId < 0 || record.priority < afterPriority || (record.priority == afterPriority && record.id > afterId)) {
+                records.add(record);
+            }
+        }
+
+        Collections.sort(records, DRAIN_ORDER);
+
+        return records.size() > limit ? new ArrayList<>(records.subList(0, limit)) : records;
+    }
+
+    @Override
+    public synchronized byte[] read(Entry entry) {
+        // Payloads are kept in memory (null if removed since the entry was listed)
+        Record record = mEntries.get(entry.id);
+        return record != null ? record.payload : null;
+    }
+
+    @Override
+    public synchronized int size() {
+        return mEntries.size();
+    }
+
+    @Override
+    public synchronized long getPayloadBytes() {
+        return mPayloadBytes;
+    }
+
+    @Override
+    public synchronized int remove(Collection<Long> ids) throws IOException {
+        int removed = 0;
+
+        for (Long id : ids) {
+            Record record = mEntries.remove(id);
+
+            // Already gone?
+            if (record == null) {
+                continue;
+            }
+
+            mPayloadBytes -= record.payload.length;
+            removed++;
+        }
+
+        // Write back the whole backlog
+        if (removed > 0) {
+            save();
+        }
+
+        return removed;
+    }
+
+    @Override
+    public synchronized int evict(int maxCount, long maxPayloadBytes, long minTimestamp) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        int count = mEntries.size();
+        long bytes = mPayloadBytes;
+
+        // Expired records go first, whatever their lane
+        for (Record record : mEntries.values()) {
+            if (record.timestamp < minTimestamp) {
+                ids.add(record.id);
+                bytes -= record.payload.length;
+                count--;
+            }
+        }
+
+        // Then the oldest records of the lowest lane until within the count and size limits
+        if ((maxCount > 0 && count > maxCount) || (maxPayloadBytes > 0 && bytes > maxPayloadBytes)) {
+            List<Record> records = new ArrayList<>(mEntries.values());
+            Collections.sort(records, EVICTION_ORDER);
+
+            Iterator<Record> iterator = records.iterator();
+
+            while (((maxCount > 0 && count > maxCount) || (maxPayloadBytes > 0 && bytes > maxPayloadBytes)) && iterator.hasNext()) {
+                Record record = iterator.next();
+
+                // Already evicted as expired?
+                if (record.timestamp < minTimestamp) {
+                    continue;
+                }
+
+                ids.add(record.id);
+                bytes -= record.payload.length;
+                count--;
+            }
+        }
+
+        return ids.isEmpty() ? 0 : remove(ids);
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        // Drop all records but keep the ID sequence so IDs are never reused
+        mEntries.clear();
+        mPayloadBytes = 0;
+
+        save();
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+
+    private void save() throws IOException {
+        JSONArray records = new JSONArray();
+
+        try {
+            // Serialize every record (payloads are binary, so Base64-encode them)
+            for (Record record : mEntries.values()) {
+                JSONObject json = new JSONObject();
+                json.put("id", record.id);
+                json.put("timestamp", record.timestamp);
+                json.put("priority", record.priority);
+                json.put("payload", Base64.encodeToString(record.payload, Base64.NO_WRAP));
+                records.put(json);
+            }
+        }
+        catch (JSONException e) {
+            throw new IOException("Failed to serialize pending notifications", e);
+        }
+
+        // Store records and ID sequence in a single edit
+        mSettings.edit().putString(RECORDS, records.toString()).putLong(NEXT_ID, mNextId).apply();
+    }
+}
@@ -0,0 +1,145 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.BroadcastReceiver;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import me.pushy.sdk.config.PushyLogging;
+
+public class PushyReceiverExecutor {
+    // Finish the pending result before the system's broadcast timeout (10 seconds) kicks in
+    private static final long PENDING_RESULT_DEADLINE_MS = 9000;
+
+    // Longest delay for deferred work, leaving time to run it before the deadline
+    public static final long MAX_DELAY_MS = 5000;
+
+    // Single worker thread so notifications are processed in arrival order (unbounded queue, so handing off never blocks or runs work on the caller)
+    private static final ThreadPoolExecutor mExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            // Name the thread for easier debugging
+            Thread thread = new Thread(runnable, "PushyReceiver");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private static Handler mMainHandler;
+
+    // Broadcast whose work is running on the current thread (see defer())
+    private static final ThreadLocal<Broadcast> mCurrent = new ThreadLocal<>();
+
+    private static class Broadcast {
+        final BroadcastReceiver.PendingResult pendingResult;
+        final AtomicBoolean finished = new AtomicBoolean();
+        boolean deferred;
+
+        // Release the broadcast if the work doesn't complete in time
+        final Runnable deadline = new Runnable() {
+            @Override
+            public void run() {
+                // Not finished yet?
+                if (finished.compareAndSet(false, true)) {
+                    Log.w(PushyLogging.TAG, "Notification processing exceeded the broadcast deadline");
+                    pendingResult.finish();
+                }
+            }
+        };
+
+        Broadcast(BroadcastReceiver.PendingResult pendingResult) {
+            this.pendingResult = pendingResult;
+        }
+
+        void finish() {
+            // Cancel the deadline and release the broadcast (if not already released)
+            getMainHandler().removeCallbacks(deadline);
+
+            if (finished.compareAndSet(false, true)) {
+                pendingResult.finish();
+            }
+        }
+    }
+
+    public static void execute(BroadcastReceiver receiver, Runnable work) {
+        // Run as soon as the worker thread is free
+        executeDelayed(receiver, work, 0);
+    }
+
+    public static void executeDelayed(BroadcastReceiver receiver, Runnable work, long delayMs) {
+        // Keep the broadcast alive after onReceive() returns
+        Broadcast broadcast = new Broadcast(receiver.goAsync());
+        getMainHandler().postDelayed(broadcast.deadline, PENDING_RESULT_DEADLINE_MS);
+
+        // Hand the work off to the shared background thread
+        schedule(broadcast, work, delayMs);
+    }
+
+    public static void defer(Runnable work, long delayMs) {
+        // Only work started by execute() has a broadcast to keep alive (goAsync() is main thread only)
+        Broadcast broadcast = mCurrent.get();
+
+        if (broadcast == null) {
+            throw new IllegalStateException("defer() must be called from receiver work");
+        }
+
+        // Keep the current broadcast alive until the follow-up work is done
+        broadcast.deferred = true;
+        schedule(broadcast, work, delayMs);
+    }
+
+    private static void schedule(final Broadcast broadcast, final Runnable work, long delayMs) {
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                broadcast.deferred = false;
+                mCurrent.set(broadcast);
+
+                try {
+                    work.run();
+                }
+                catch (Exception e) {
+                    // Log error to logcat
+                    Log.e(PushyLogging.TAG, "Failed to process notification:" + e.getMessage(), e);
+                }
+                finally {
+                    mCurrent.remove();
+
+                    // Release the broadcast unless the work handed it on to a follow-up
+                    if (!broadcast.deferred) {
+                        broadcast.finish();
+                    }
+                }
+            }
+        };
+
+        // No delay requested?
+        if (delayMs <= 0) {
+            mExecutor.execute(task);
+            return;
+        }
+
+        // Queue the work once the delay elapses (the broadcast is kept alive meanwhile)
+        getMainHandler().postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                mExecutor.execute(task);
+            }
+        }, Math.min(delayMs, MAX_DELAY_MS));
+    }
+
+    private static synchronized Handler getMainHandler() {
+        // Lazily create a main thread handler for deadline callbacks
+        if (mMainHandler == null) {
+            mMainHandler = new Handler(Looper.getMainLooper());
+        }
+
+        return mMainHandler;
+    }
+}
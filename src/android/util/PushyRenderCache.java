@@ -0,0 +1,138 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.app.Notification;
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.Intent;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.os.Build;
+
+import me.pushy.sdk.Pushy;
+
+public class PushyRenderCache {
+    private static Integer mNotificationIcon;
+    private static String mAppName;
+    private static Intent mLaunchIntent;
+    private static String mNotificationChannelId;
+    private static boolean mConfigurationListenerRegistered;
+
+    public static synchronized int getNotificationIcon(Context context) {
+        // Resolve the icon resource only once
+        if (mNotificationIcon == null) {
+            mNotificationIcon = resolveNotificationIcon(context);
+        }
+
+        return mNotificationIcon;
+    }
+
+    public static synchronized String getAppName(Context context) {
+        // Listen for locale and other configuration changes that may affect the label
+        registerConfigurationListener(context);
+
+        // Ask the package manager only once
+        if (mAppName == null) {
+            mAppName = context.getPackageManager().getApplicationLabel(context.getApplicationInfo()).toString();
+        }
+
+        return mAppName;
+    }
+
+    public static synchronized Intent getLaunchIntent(Context context) {
+        // Resolve the launcher activity only once
+        if (mLaunchIntent == null) {
+            mLaunchIntent = context.getPackageManager().getLaunchIntentForPackage(context.getApplicationContext().getPackageName());
+        }
+
+        // Return a copy so callers can add extras and flags
+        return mLaunchIntent != null ? new Intent(mLaunchIntent) : null;
+    }
+
+    public static void setNotificationChannel(Notification.Builder builder, Context context) {
+        synchronized (PushyRenderCache.class) {
+            // Channel already configured in this process?
+            if (mNotificationChannelId != null) {
+                builder.setChannelId(mNotificationChannelId);
+                return;
+            }
+        }
+
+        // Automatically configure a Notification Channel for devices running Android O+
+        Pushy.setNotificationChannel(builder, context);
+
+        // Remember the channel the SDK picked
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            synchronized (PushyRenderCache.class) {
+                mNotificationChannelId = builder.build().getChannelId();
+            }
+        }
+    }
+
+    public static synchronized void invalidate() {
+        // Drop everything, values will be resolved again on next use
+        mNotificationIcon = null;
+        mAppName = null;
+        mLaunchIntent = null;
+        mNotificationChannelId = null;
+    }
+
+    public static synchronized void invalidateNotificationIcon() {
+        // Icon will be resolved again on next use
+        mNotificationIcon = null;
+    }
+
+    private static void registerConfigurationListener(Context context) {
+        // Already registered?
+        if (mConfigurationListenerRegistered) {
+            return;
+        }
+
+        // Invalidate cached values when the app's configuration changes
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks() {
+            @Override
+            public void onConfigurationChanged(Configuration configuration) {
+                invalidate();
+            }
+
+            @Override
+            public void onLowMemory() {
+                // Nothing to release, cached values are tiny
+            }
+        });
+
+        mConfigurationListenerRegistered = true;
+    }
+
+    private static int resolveNotificationIcon(Context context) {
+        // Attempt to fetch icon name from SharedPreferences
+        String icon = PushyPersistence.getNotificationIcon(context);
+
+        // Did we configure a custom icon?
+        if (icon != null) {
+            // Cache app resources
+            Resources resources = context.getResources();
+
+            // Cache app package name
+            String packageName = context.getPackageName();
+
+            // Look for icon in drawable folders
+            int iconId = resources.getIdentifier(icon, "drawable", packageName);
+
+            // Found it?
+            if (iconId != 0) {
+                return iconId;
+            }
+
+            // Look for icon in mipmap folders
+            iconId = resources.getIdentifier(icon, "mipmap", packageName);
+
+            // Found it?
+            if (iconId != 0) {
+                return iconId;
+            }
+        }
+
+        // Fallback to generic icon
+        return android.R.drawable.ic_dialog_info;
+    }
+}
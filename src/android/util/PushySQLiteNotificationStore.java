@@ -0,0 +1,310 @@
+package me.pushy.sdk.cordova.internal.util;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Pending notification store backed by a SQLite table in WAL mode.
+ *
+ * Pages and eviction order are served by a (priority, id) index and expiry by a timestamp index,
+ * so no query sorts or scans the whole backlog. Record count and payload size are tracked in
+ * memory after a single query on open. Write statements are compiled once per connection and
+ * closed along with it.
+ */
+public class PushySQLiteNotificationStore implements PushyNotificationStore {
+    private static final String DATABASE = "pushy-pending-notifications.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private final Helper mHelper;
+    private final SQLiteDatabase mDatabase;
+    private final SQLiteStatement mInsert;
+    private final SQLiteStatement mDelete;
+    private int mCount;
+    private long mPayloadBytes;
+
+    private static class Helper extends SQLiteOpenHelper {
+        Helper(Context context) {
+            super(context, DATABASE, null, DATABASE_VERSION);
+
+            // Readers don't block writers
+            setWriteAheadLoggingEnabled(true);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            // AUTOINCREMENT so IDs are never reused, even after the table is emptied
+            db.execSQL("CREATE TABLE pending (id INTEGER PRIMARY KEY AUTOINCREMENT, timestamp INTEGER NOT NULL, priority INTEGER NOT NULL, size INTEGER NOT NULL, payload BLOB NOT NULL)");
+            db.execSQL("CREATE INDEX pending_lane ON pending (priority, id)");
+            db.execSQL("CREATE INDEX pending_timestamp ON pending (timestamp)");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            // Only one version so far
+        }
+    }
+
+    private static class Record extends Entry {
+        final byte[] payload;
+
+        Record(long id, long timestamp, int priority, byte[] payload) {
+            super(id, timestamp, priority);
+            this.payload = payload;
+        }
+    }
+
+    public PushySQLiteNotificationStore(Context context) throws IOException {
+        mHelper = new Helper(context.getApplicationContext());
+
+        try {
+            // Open (or create) the database
+            mDatabase = mHelper.getWritableDatabase();
+        }
+        catch (RuntimeException e) {
+            throw new IOException("Failed to open pending notification database", e);
+        }
+
+        // Load record count and payload size once
+        Cursor cursor = mDatabase.rawQuery("SELECT COUNT(*), COALESCE(SUM(size), 0) FROM pending", null);
+
+        try {
+            if (cursor.moveToNext()) {
+                mCount = cursor.getInt(0);
+                mPayloadBytes = cursor.getLong(1);
+            }
+        }
+        finally {
+            cursor.close();
+        }
+
+        try {
+            // Compile write statements once, every method that uses them is synchronized
+            mInsert = mDatabase.compileStatement("INSERT INTO pending (timestamp, priority, size, payload) VALUES (?, ?, ?, ?)");
+            mDelete = mDatabase.compileStatement("DELETE FROM pending WHERE id = ?");
+        }
+        catch (RuntimeException e) {
+            mHelper.close();
+            throw new IOException("Failed to prepare pending notification statements", e);
+        }
+    }
+
+    @Override
+    public synchronized long append(byte[] payload, long timestamp, int priority) throws IOException {
+        try {
+            // Insert the record
+            mInsert.bindLong(1, timestamp);
+            mInsert.bindLong(2, priority);
+            mInsert.bindLong(3, payload.length);
+            mInsert.bindBlob(4, payload);
+
+            long id = mInsert.executeInsert();
+
+            mCount++;
+            mPayloadBytes += payload.length;
+
+            return id;
+        }
+        catch (RuntimeException e) {
+            throw new IOException("Failed to insert pending notification", e);
+        }
+    }
+
+    @Override
+    public synchronized List<Record> getEntries() throws IOException {
+        // All records in arrival order
+        return query("SELECT id, timestamp, priority, payload FROM pending ORDER BY id", null);
+    }
+
+    @Override
+    public synchronized List<Record> getEntries(int afterPriority, long afterId, int limit) throws IOException {
+        // Highest lane first, arrival order within a lane (a negative ID starts from the highest lane)
+        if (afterId < 0) {
+            return query("SELECT id, timestamp, priority, payload FROM pending ORDER BY priority DESC, id LIMIT " + limit, null);
+        }
+
+        // Resume after the cursor record, then continue with the lower lanes
+        String priority = String.valueOf(afterPriority);
+        return query("SELECT id, timestamp, priority, payload FROM pending WHERE priority < ? OR (priority = ? AND id > ?) ORDER BY priority DESC, id LIMIT " + limit, new String[]{priority, priority, String.valueOf(afterId)});
+    }
+
+    @Override
+    public byte[] read(Entry entry) {
+        // Payloads are loaded along with their page, in the same query as the entry itself
+        return ((Record) entry).payload;
+    }
+
+    @Override
+    public synchronized int size() {
+        return mCount;
+    }
+
+    @Override
+    public synchronized long getPayloadBytes() {
+        return mPayloadBytes;
+    }
+
+    @Override
+    public synchronized int remove(Collection<Long> ids) throws IOException {
+        int removed = 0;
+        long bytes = 0;
+
+        try {
+            // Delete all records in a single transaction
+            mDatabase.beginTransaction();
+
+            try {
+                for (Long id : ids) {
+                    long size = getSize(id);
+
+                    // Already gone?
+                    if (size < 0) {
+                        continue;
+                    }
+
+                    mDelete.bindLong(1, id);
+                    mDelete.executeUpdateDelete();
+
+                    removed++;
+                    bytes += size;
+                }
+
+                mDatabase.setTransactionSuccessful();
+            }
+            finally {
+                mDatabase.endTransaction();
+            }
+        }
+        catch (RuntimeException e) {
+            throw new IOException("Failed to remove pending notifications", e);
+        }
+
+        mCount -= removed;
+        mPayloadBytes -= bytes;
+
+        return removed;
+    }
+
+    @Override
+    public synchronized int evict(int maxCount, long maxPayloadBytes, long minTimestamp) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        int count = mCount;
+        long bytes = mPayloadBytes;
+
+        try {
+            // Expired records go first, whatever their lane
+            if (minTimestamp != Long.MIN_VALUE) {
+                Cursor cursor = mDatabase.rawQuery("SELECT id, size FROM pending WHERE timestamp < ?", new String[]{String.valueOf(minTimestamp)});
+
+                try {
+                    while (cursor.moveToNext()) {
+                        ids.add(cursor.getLong(0));
+                        bytes -= cursor.getLong(1);
+                        count--;
+                    }
+                }
+                finally {
+                    cursor.close();
+                }
+            }
+
+            // Then the oldest records of the lowest lane until within the count and size limits
+            if (isOverLimits(count, bytes, maxCount, maxPayloadBytes)) {
+                Cursor cursor = mDatabase.rawQuery("SELECT id, size, timestamp FROM pending ORDER BY priority, id", null);
+
+                try {
+                    while (isOverLimits(count, bytes, maxCount, maxPayloadBytes) && cursor.moveToNext()) {
+                        // Already evicted as expired?
+                        if (cursor.getLong(2) < minTimestamp) {
+                            continue;
+                        }
+
+                        ids.add(cursor.getLong(0));
+                        bytes -= cursor.getLong(1);
+                        count--;
+                    }
+                }
+                finally {
+                    cursor.close();
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            throw new IOException("Failed to evict pending notifications", e);
+        }
+
+        // Within limits?
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        return remove(ids);
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        try {
+            // AUTOINCREMENT keeps the ID sequence, so IDs are never reused
+            mDatabase.execSQL("DELETE FROM pending");
+        }
+        catch (RuntimeException e) {
+            throw new IOException("Failed to clear pending notifications", e);
+        }
+
+        mCount = 0;
+        mPayloadBytes = 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        // Release the cached statements before the connection
+        mInsert.close();
+        mDelete.close();
+        mHelper.close();
+    }
+
+    private List<Record> query(String sql, String[] args) throws IOException {
+        List<Record> records = new ArrayList<>();
+
+        try {
+            Cursor cursor = mDatabase.rawQuery(sql, args);
+
+            try {
+                while (cursor.moveToNext()) {
+                    records.add(new Record(cursor.getLong(0), cursor.getLong(1), cursor.getInt(2), cursor.getBlob(3)));
+                }
+            }
+            finally {
+                cursor.close();
+            }
+        }
+        catch (RuntimeException e) {
+            throw new IOException("Failed to query pending notifications", e);
+        }
+
+        return records;
+    }
+
+    private long getSize(long id) {
+        Cursor cursor = mDatabase.rawQuery("SELECT size FROM pending WHERE id = ?", new String[]{String.valueOf(id)});
+
+        try {
+            // -1 if there is no such record
+            return cursor.moveToNext() ? cursor.getLong(0) : -1;
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    private static boolean isOverLimits(int count, long bytes, int maxCount, long maxPayloadBytes) {
+        return (maxCount > 0 && count > maxCount) || (maxPayloadBytes > 0 && bytes > maxPayloadBytes);
+    }
+}
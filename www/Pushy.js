@@ -24,6 +24,18 @@ var actions = [
         name: 'unsubscribe',
         platforms: ['android', 'ios']
     },
+    {
+        name: 'subscribeMany',
+        platforms: ['android']
+    },
+    {
+        name: 'unsubscribeMany',
+        platforms: ['android']
+    },
+    {
+        name: 'setTopics',
+        platforms: ['android']
+    },
     {
         name: 'toggleFCM',
         noError: true,
@@ -55,11 +67,71 @@ var actions = [
         noError: true,
         platforms: ['android', 'ios']
     },
+    {
+        name: 'openEventChannel',
+        noError: true,
+        platforms: ['android']
+    },
+    {
+        name: 'acknowledgeNotifications',
+        noError: true,
+        noCallback: true,
+        platforms: ['android']
+    },
     {
         name: 'setNotificationClickListener',
         noError: true,
         platforms: ['android', 'ios']
     },
+    {
+        name: 'setInboxOptions',
+        platforms: ['android']
+    },
+    {
+        name: 'getInbox',
+        platforms: ['android']
+    },
+    {
+        name: 'markRead',
+        platforms: ['android']
+    },
+    {
+        name: 'getUnreadCount',
+        platforms: ['android']
+    },
+    {
+        name: 'clearInbox',
+        platforms: ['android']
+    },
+    {
+        name: 'getMetrics',
+        noError: true,
+        platforms: ['android']
+    },
+    {
+        name: 'resetMetrics',
+        noError: true,
+        platforms: ['android']
+    },
+    {
+        name: 'setMetricsLogInterval',
+        noError: true,
+        noCallback: true,
+        platforms: ['android']
+    },
+    {
+        name: 'toggleOperationQueue',
+        platforms: ['android']
+    },
+    {
+        name: 'getOperationQueueStatus',
+        noError: true,
+        platforms: ['android']
+    },
+    {
+        name: 'configure',
+        platforms: ['android']
+    },
     {
         name: 'setAppId',
         noError: true,
@@ -102,6 +174,41 @@ var actions = [
         noCallback: true,
         platforms: ['android']
     },
+    {
+        name: 'setNotificationCoalescingWindow',
+        noError: true,
+        noCallback: true,
+        platforms: ['android']
+    },
+    {
+        name: 'setDeduplicationWindow',
+        noError: true,
+        noCallback: true,
+        platforms: ['android']
+    },
+    {
+        name: 'setNotificationFilters',
+        platforms: ['android']
+    },
+    {
+        name: 'getStoredValues',
+        noError: true,
+        platforms: ['android']
+    },
+    {
+        name: 'clearStoredValues',
+        noError: true,
+        platforms: ['android']
+    },
+    {
+        name: 'setPendingNotificationLimits',
+        platforms: ['android']
+    },
+    {
+        name: 'getPendingNotificationStats',
+        noError: true,
+        platforms: ['android']
+    },
     {
         name: 'toggleInAppBanner',
         noError: true,
@@ -125,9 +232,198 @@ for (var i in actions) {
     exports[action.name] = executeNativeAction(action);
 }
 
-function executeNativeAction(action) {
+// Native listener registration
+var setNativeNotificationListener = exports.setNotificationListener;
+var setNativeNotificationClickListener = exports.setNotificationClickListener;
+
+// JS listeners fed by the native event channel (Android)
+var notificationListener, notificationClickListener, eventListener;
+
+// Whether the native event channel has been opened
+var eventChannelOpen = false;
+
+exports.setNotificationListener = function (handler) {
+    // Event channel not supported on this platform?
+    if (getPlatform() !== 'android') {
+        return setNativeNotificationListener(handler);
+    }
+
+    // Route received notifications and backlog batches to this handler
+    notificationListener = handler;
+    openEventChannel();
+
+    // Tell native code a listener is attached (delivers the pending backlog)
+    setNativeNotificationListener();
+};
+
+exports.setNotificationClickListener = function (handler) {
+    // Event channel not supported on this platform?
+    if (getPlatform() !== 'android') {
+        return setNativeNotificationClickListener(handler);
+    }
+
+    // Route notification clicks to this handler
+    notificationClickListener = handler;
+    openEventChannel();
+
+    // Tell native code a click listener is attached (delivers the launch notification click)
+    setNativeNotificationClickListener();
+};
+
+exports.setEventListener = function (handler) {
+    // Receive every raw event (received, clicked, backlog, metrics, error)
+    eventListener = handler;
+    openEventChannel();
+};
+
+// Native configure() (Android only)
+var configureNative = exports.configure;
+
+// Per-setting actions configure() falls back to on other platforms
+var configureSettings = {
+    appId: function (value) {
+        exports.setAppId(value);
+    },
+    enterpriseConfig: function (value) {
+        exports.setEnterpriseConfig(value ? value.apiEndpoint : null, value ? value.mqttEndpoint : null);
+    },
+    proxyEndpoint: function (value) {
+        exports.setProxyEndpoint(value);
+    },
+    enterpriseCertificate: function (value) {
+        exports.setEnterpriseCertificate(value);
+    },
+    fcm: function (value) {
+        exports.toggleFCM(value);
+    },
+    foregroundService: function (value) {
+        exports.toggleForegroundService(value);
+    },
+    notificationIcon: function (value) {
+        exports.setNotificationIcon(value);
+    },
+    notificationCoalescingWindow: function (value) {
+        exports.setNotificationCoalescingWindow(value);
+    },
+    deduplicationWindow: function (value) {
+        exports.setDeduplicationWindow(value);
+    },
+    storageBackend: function () {
+        // Android only, nothing to switch elsewhere
+    }
+};
+
+exports.configure = function (options, callback) {
+    // Applied natively in one go?
+    if (getPlatform() === 'android') {
+        return configureNative(options, callback);
+    }
+
+    // Validate every setting name before applying anything
+    for (var key in options) {
+        if (!configureSettings.hasOwnProperty(key)) {
+            return callback ? callback('Unknown configuration setting: ' + key) : null;
+        }
+    }
+
+    // Apply each setting through its own action (settings this platform doesn't support are skipped)
+    for (var setting in options) {
+        configureSettings[setting](options[setting]);
+    }
+
+    // Report the settings passed in as applied
+    if (callback) {
+        callback(null, Object.keys(options));
+    }
+};
+
+function openEventChannel() {
+    // Already open or not supported on this platform?
+    if (eventChannelOpen || getPlatform() !== 'android') {
+        return;
+    }
+
+    eventChannelOpen = true;
+
+    // Native code packs events emitted within a short window into one array
+    exports.openEventChannel(function (events) {
+        // Dispatch the whole batch in a single microtask
+        Promise.resolve().then(function () {
+            dispatchEvents(events);
+        });
+    });
+}
+
+function dispatchEvents(events) {
+    // Traverse events in emission order
+    for (var i = 0; i < events.length; i++) {
+        var event = events[i];
+
+        try {
+            // Raw event listener
+            if (eventListener) {
+                eventListener(event);
+            }
+
+            // Live notification received
+            if (event.type === 'received' && notificationListener) {
+                notificationListener(event.data);
+            }
+
+            // Notification clicked
+            if (event.type === 'clicked' && notificationClickListener) {
+                notificationClickListener(event.data);
+            }
+        }
+        catch (e) {
+            // Don't let one failing listener call block the rest of the events
+            console.error(e);
+        }
+
+        // Batch of pending notifications
+        if (event.type === 'backlog') {
+            dispatchBacklog(event.data);
+        }
+    }
+}
+
+function dispatchBacklog(batch) {
+    // Delivered record IDs
+    var ids = [];
+
+    // Traverse batch items
+    for (var i = 0; i < batch.length; i++) {
+        try {
+            // Invoke listener with notification payload
+            if (notificationListener) {
+                notificationListener(batch[i].notification);
+            }
+        }
+        catch (e) {
+            // Don't let one failing listener call block the rest of the batch
+            console.error(e);
+        }
+
+        // Stored notification? Mark as handled
+        if (batch[i].id !== undefined) {
+            ids.push(batch[i].id);
+        }
+    }
+
+    // Remove handled notifications from native storage (and request the next batch)
+    if (ids.length > 0) {
+        exports.acknowledgeNotifications(ids);
+    }
+}
+
+function getPlatform() {
     // Get platform name dynamically (add support for Capacitor)
-    var platform = typeof Capacitor !== 'undefined' ? Capacitor.getPlatform() : cordova.platformId;
+    return typeof Capacitor !== 'undefined' ? Capacitor.getPlatform() : cordova.platformId;
+}
+
+function executeNativeAction(action) {
+    // Get platform name dynamically
+    var platform = getPlatform();
 
     // Return custom function
     return function () {